@@ -2,9 +2,14 @@ package com.example.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import com.example.backend.config.AppCacheProperties;
+import com.example.backend.config.ListenerScalingProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@EnableCaching
+@EnableScheduling
+// Warm-up / negative cache dùng app.cache.* kể cả khi không dùng Redis cache
+@EnableConfigurationProperties({AppCacheProperties.class, ListenerScalingProperties.class})
 @SpringBootApplication
 public class Backend2Application {
 
@@ -0,0 +1,36 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chạy invalidation cache sau khi transaction commit (hoặc ngay nếu không có
+ * transaction) để request khác không kịp nạp lại dữ liệu cũ vào cache.
+ * Lỗi chỉ được log: dữ liệu đã commit, entry cũ sẽ tự hết hạn theo TTL.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  static void run(Logger logger, String what, Runnable action) {
+    Runnable safe = () -> {
+      try {
+        action.run();
+      } catch (Exception e) {
+        logger.warn("{} failed: {}", what, e.getMessage());
+      }
+    };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          safe.run();
+        }
+      });
+    } else {
+      safe.run();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter nhỏ, thread-safe (CAS trên từng word), chỉ thêm không xóa.
+ * k vị trí bit lấy bằng double hashing từ 1 hash 64-bit (FNV-1a + mix).
+ */
+final class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(expectedInsertions, 1);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.words = new AtomicLongArray((int) ((m + 63) / 64));
+    this.bits = (long) words.length() * 64;
+    this.hashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+  }
+
+  void put(String value) {
+    long h = hash(value);
+    int h1 = (int) h;
+    int h2 = (int) (h >>> 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current;
+      do {
+        current = words.get(index);
+        if ((current & mask) != 0) {
+          break;
+        }
+      } while (!words.compareAndSet(index, current, current | mask));
+    }
+  }
+
+  boolean mightContain(String value) {
+    long h = hash(value);
+    int h1 = (int) h;
+    int h2 = (int) (h >>> 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash(String value) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    // murmur3 fmix64: trộn đều bit cao / thấp
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Số generation cho các namespace cache danh sách (key dạng "g{gen}:...").
+ *
+ * Ghi làm thay đổi cấu trúc danh sách chỉ cần INCR generation (O(1)) thay vì
+ * SCAN + DEL cả keyspace: key cũ không còn được đọc và tự hết hạn theo TTL.
+ * Giá trị được giữ local tối đa {@link #LOCAL_REFRESH_MS} và được đẩy ngay
+ * sang các replica khác qua {@link CacheInvalidationBus}.
+ *
+ * Dùng trong SpEL: key = "'g' + @cacheGenerations.current('postLists') + ..."
+ */
+@Component
+public class CacheGenerations {
+
+  public static final String POST_LISTS = "postLists";
+
+  static final String KEY_PREFIX = "vhub::gen::";
+  static final String BUS_PREFIX = "gen::";
+  private static final long LOCAL_REFRESH_MS = 1000;
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final CacheInvalidationBus bus;
+  private final Map<String, Snapshot> local = new ConcurrentHashMap<>();
+
+  public CacheGenerations(StringRedisTemplate redisTemplate, ObjectProvider<CacheInvalidationBus> bus) {
+    this.redisTemplate = redisTemplate;
+    this.bus = bus.getIfAvailable();
+    if (this.bus != null) {
+      this.bus.addListener(this::onRemoteBump);
+    }
+  }
+
+  public long current(String namespace) {
+    Snapshot snapshot = local.get(namespace);
+    long now = System.currentTimeMillis();
+    if (snapshot != null && now - snapshot.readAt < LOCAL_REFRESH_MS) {
+      return snapshot.value;
+    }
+    try {
+      long value = readOrInit(namespace);
+      local.put(namespace, new Snapshot(value, now));
+      return value;
+    } catch (Exception e) {
+      // Redis lỗi: dùng giá trị cuối cùng đã biết, thử lại sau LOCAL_REFRESH_MS (không chờ timeout mỗi request)
+      logger.warn("Cannot read cache generation {}: {}", namespace, e.getMessage());
+      long last = snapshot != null ? snapshot.value : 0L;
+      local.put(namespace, new Snapshot(last, now));
+      return last;
+    }
+  }
+
+  public long bump(String namespace) {
+    Long value = redisTemplate.opsForValue().increment(KEY_PREFIX + namespace);
+    long next = value != null ? value : 0L;
+    local.put(namespace, new Snapshot(next, System.currentTimeMillis()));
+    if (bus != null) {
+      bus.publishEvict(BUS_PREFIX + namespace, next);
+    }
+    return next;
+  }
+
+  private long readOrInit(String namespace) {
+    String key = KEY_PREFIX + namespace;
+    String raw = redisTemplate.opsForValue().get(key);
+    if (raw == null) {
+      // Key generation bị mất (flush / LRU): khởi tạo bằng thời gian hiện tại để không trùng generation cũ
+      redisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+      raw = redisTemplate.opsForValue().get(key);
+    }
+    return raw != null ? Long.parseLong(raw) : 0L;
+  }
+
+  private void onRemoteBump(String name, String value) {
+    if (name == null || !name.startsWith(BUS_PREFIX) || value == null) {
+      return;
+    }
+    try {
+      local.put(name.substring(BUS_PREFIX.length()), new Snapshot(Long.parseLong(value), System.currentTimeMillis()));
+    } catch (NumberFormatException ignored) {
+      // payload lạ -> bỏ qua, giá trị sẽ được đọc lại từ Redis
+    }
+  }
+
+  private record Snapshot(long value, long readAt) {
+  }
+}
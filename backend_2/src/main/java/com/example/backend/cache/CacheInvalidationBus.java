@@ -0,0 +1,89 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Phát / nhận sự kiện xóa L1 giữa các replica qua Redis pub/sub.
+ *
+ * Payload: "nodeId|cacheName|key" (key = "*" nghĩa là clear cả cache).
+ * Node tự bỏ qua message của chính nó vì L1 local đã được xóa trước khi publish.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+  static final String ALL_KEYS = "*";
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final String nodeId = UUID.randomUUID().toString();
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+
+  // (cacheName, key) -> xóa L1 local; key == null nghĩa là clear
+  private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+  public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public void addListener(BiConsumer<String, String> listener) {
+    listeners.add(listener);
+  }
+
+  // Áp dụng invalidation cho node hiện tại (không publish)
+  public void applyLocally(String cacheName, String key) {
+    for (BiConsumer<String, String> listener : listeners) {
+      listener.accept(cacheName, key);
+    }
+  }
+
+  public void publishEvict(String cacheName, Object key) {
+    send(cacheName, String.valueOf(key));
+  }
+
+  public void publishClear(String cacheName) {
+    send(cacheName, ALL_KEYS);
+  }
+
+  // Prefix message cho 1 cache name, dùng khi publish trực tiếp từ Lua script
+  public String messagePrefix(String cacheName) {
+    return nodeId + "|" + cacheName + "|";
+  }
+
+  private void send(String cacheName, String key) {
+    try {
+      redisTemplate.convertAndSend(channel, nodeId + "|" + cacheName + "|" + key);
+    } catch (Exception e) {
+      // Best-effort: L1 của replica khác vẫn tự hết hạn theo l1Ttl
+      logger.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+    String[] parts = payload.split("\\|", 3);
+    if (parts.length != 3 || nodeId.equals(parts[0])) {
+      return;
+    }
+    String key = ALL_KEYS.equals(parts[2]) ? null : parts[2];
+    applyLocally(parts[1], key);
+  }
+}
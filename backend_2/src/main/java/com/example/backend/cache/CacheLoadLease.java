@@ -0,0 +1,61 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lease trong Redis để chỉ 1 replica tính lại 1 key nóng khi cache miss.
+ * Lỗi Redis được coi như lấy được lease (quay về hành vi load bình thường).
+ */
+@Component
+public class CacheLoadLease {
+
+  static final String LEASE_PREFIX = "vhub::lease::";
+
+  // Chỉ xóa lease nếu vẫn là của mình
+  private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+      Long.class);
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+
+  public CacheLoadLease(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  /**
+   * @return token nếu lấy được lease, null nếu replica khác đang giữ
+   */
+  public String tryAcquire(String cacheName, Object key, Duration leaseTime) {
+    String token = UUID.randomUUID().toString();
+    try {
+      Boolean ok = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, leaseTime);
+      return Boolean.FALSE.equals(ok) ? null : token;
+    } catch (Exception e) {
+      logger.debug("Lease unavailable for {}::{}: {}", cacheName, key, e.getMessage());
+      return token;
+    }
+  }
+
+  public void release(String cacheName, Object key, String token) {
+    try {
+      redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(cacheName, key)), token);
+    } catch (Exception e) {
+      // lease tự hết hạn
+      logger.debug("Failed to release lease for {}::{}: {}", cacheName, key, e.getMessage());
+    }
+  }
+
+  private static String leaseKey(String cacheName, Object key) {
+    return LEASE_PREFIX + cacheName + "::" + key;
+  }
+}
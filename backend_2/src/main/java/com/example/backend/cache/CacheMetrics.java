@@ -0,0 +1,192 @@
+package com.example.backend.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * Metric của 1 cache name (tag "cache"), export qua actuator / Prometheus:
+ *
+ *   cache.gets{result=hit|miss, tier=l1|l2|negative|none}
+ *   cache.loads{result=success|failure}       timer + histogram thời gian load
+ *   cache.value.size                           byte sau khi encode/nén (histogram)
+ *   cache.evictions{kind=key|clear|tag|l1_size|l1_expired}
+ *   cache.keys.distinct{pattern}               số key khác nhau theo mẫu key (ước lượng)
+ *   cache.negative.hits / cache.negative.stores
+ *
+ * Mẫu key: số -> "#", email -> "{email}", từ khóa tìm kiếm -> "{q}";
+ * mỗi cache giữ tối đa {@link #MAX_PATTERNS} mẫu, còn lại gộp vào "other".
+ */
+public class CacheMetrics {
+
+  static final int MAX_PATTERNS = 32;
+  private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+  private final String cacheName;
+  private final MeterRegistry registry;
+  private final Counter l1Hits;
+  private final Counter l2Hits;
+  private final Counter misses;
+  private final Counter negativeHits;
+  private final Counter negativeStores;
+  private final Timer loadSuccess;
+  private final Timer loadFailure;
+  private final DistributionSummary valueSize;
+  private final Map<String, Counter> evictions = new ConcurrentHashMap<>();
+  private final Map<String, KeyCardinality> patterns = new ConcurrentHashMap<>();
+
+  public CacheMetrics(String cacheName, MeterRegistry registry) {
+    this.cacheName = cacheName;
+    this.registry = registry != null ? registry : new SimpleMeterRegistry();
+    this.l1Hits = gets("hit", "l1");
+    this.l2Hits = gets("hit", "l2");
+    this.misses = gets("miss", "none");
+    this.negativeHits = Counter.builder("cache.negative.hits")
+        .description("Lookups answered by a cached 'not found' entry instead of the database")
+        .tag("cache", cacheName).register(this.registry);
+    this.negativeStores = Counter.builder("cache.negative.stores")
+        .description("'Not found' results written to the negative cache tier")
+        .tag("cache", cacheName).register(this.registry);
+    this.loadSuccess = loads("success");
+    this.loadFailure = loads("failure");
+    this.valueSize = DistributionSummary.builder("cache.value.size")
+        .description("Serialized size of values written to Redis")
+        .baseUnit("bytes")
+        .tag("cache", cacheName)
+        .publishPercentileHistogram()
+        .register(this.registry);
+  }
+
+  private Counter gets(String result, String tier) {
+    return Counter.builder("cache.gets")
+        .tag("cache", cacheName).tag("result", result).tag("tier", tier)
+        .register(registry);
+  }
+
+  private Timer loads(String result) {
+    return Timer.builder("cache.loads")
+        .description("Time spent computing values on cache miss")
+        .tag("cache", cacheName).tag("result", result)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  public void l1Hit() {
+    l1Hits.increment();
+  }
+
+  public void l2Hit() {
+    l2Hits.increment();
+  }
+
+  public void miss() {
+    misses.increment();
+  }
+
+  public void negativeHit() {
+    negativeHits.increment();
+  }
+
+  public void negativeStore() {
+    negativeStores.increment();
+  }
+
+  public void load(long nanos, boolean success) {
+    (success ? loadSuccess : loadFailure).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void valueSize(int bytes) {
+    valueSize.record(bytes);
+  }
+
+  public void eviction(String kind) {
+    evictions(kind, 1);
+  }
+
+  public void evictions(String kind, int count) {
+    evictions.computeIfAbsent(kind, k -> Counter.builder("cache.evictions")
+        .tag("cache", cacheName).tag("kind", k)
+        .register(registry)).increment(count);
+  }
+
+  public void keyWritten(Object key) {
+    String k = String.valueOf(key);
+    String pattern = pattern(k);
+    KeyCardinality counter = patterns.get(pattern);
+    if (counter == null) {
+      if (patterns.size() >= MAX_PATTERNS) {
+        pattern = "other";
+      }
+      counter = patterns.computeIfAbsent(pattern, this::registerPattern);
+    }
+    counter.add(k);
+  }
+
+  private KeyCardinality registerPattern(String pattern) {
+    KeyCardinality counter = new KeyCardinality();
+    Gauge.builder("cache.keys.distinct", counter, KeyCardinality::estimate)
+        .description("Approximate number of distinct keys written, by key pattern")
+        .tag("cache", cacheName).tag("pattern", pattern)
+        .register(registry);
+    return counter;
+  }
+
+  static String pattern(String key) {
+    String[] parts = key.split(":", -1);
+    StringBuilder sb = new StringBuilder(key.length());
+    for (int i = 0; i < parts.length; i++) {
+      String seg = parts[i];
+      if (i > 0) {
+        sb.append(':');
+      }
+      if (i > 0 && "q".equals(parts[i - 1])) {
+        sb.append(seg.isEmpty() ? "" : "{q}");
+      } else if (seg.indexOf('@') >= 0) {
+        sb.append("{email}");
+      } else {
+        sb.append(DIGITS.matcher(seg).replaceAll("#"));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Đếm số phần tử khác nhau bằng linear counting trên bitmap cố định (2 KB),
+   * sai số vài % tới khoảng vài chục nghìn key, không giữ key trong heap.
+   */
+  static final class KeyCardinality {
+    private static final int BITS = 1 << 14;
+    private final AtomicLongArray words = new AtomicLongArray(BITS / 64);
+
+    void add(String key) {
+      int h = key.hashCode() * 0x9E3779B9;
+      int bit = (h ^ (h >>> 16)) & (BITS - 1);
+      long mask = 1L << (bit & 63);
+      int idx = bit >>> 6;
+      long current = words.get(idx);
+      while ((current & mask) == 0 && !words.compareAndSet(idx, current, current | mask)) {
+        current = words.get(idx);
+      }
+    }
+
+    double estimate() {
+      int zeros = 0;
+      for (int i = 0; i < words.length(); i++) {
+        zeros += Long.bitCount(~words.get(i));
+      }
+      if (zeros == 0) {
+        return BITS * Math.log(BITS);
+      }
+      return -BITS * Math.log((double) zeros / BITS);
+    }
+  }
+}
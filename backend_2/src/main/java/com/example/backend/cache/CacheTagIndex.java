@@ -0,0 +1,127 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Chỉ mục tag -> cache key trong Redis để xóa đúng các entry liên quan
+ * thay vì clear cả cache.
+ *
+ * Mỗi tag là 1 sorted set "vhub::tag::{cache}::{tag}", member = cache key,
+ * score = thời điểm entry hết hạn; member đã hết hạn được dọn mỗi lần thêm.
+ * Invalidate chạy 1 Lua script: đọc member, DEL các key, publish invalidation
+ * cho L1 của các replica và xóa luôn tag — tất cả trong 1 round trip.
+ */
+@Component
+public class CacheTagIndex {
+
+  static final String TAG_PREFIX = "vhub::tag::";
+  static final String CACHE_KEY_PREFIX = "vhub::";
+
+  // KEYS = các tag; ARGV = [prefix key của cache, channel, prefix message]
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> INVALIDATE_SCRIPT = new DefaultRedisScript<>(
+      "local evicted = {} "
+          + "for _, tag in ipairs(KEYS) do "
+          + "  local members = redis.call('ZRANGE', tag, 0, -1) "
+          + "  for _, k in ipairs(members) do "
+          + "    redis.call('DEL', ARGV[1] .. k) "
+          + "    if ARGV[2] ~= '' then redis.call('PUBLISH', ARGV[2], ARGV[3] .. k) end "
+          + "    table.insert(evicted, k) "
+          + "  end "
+          + "  redis.call('DEL', tag) "
+          + "end "
+          + "return evicted",
+      List.class);
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final CacheInvalidationBus bus;
+  // (cacheName, số key bị xóa) - dùng cho metric
+  private volatile BiConsumer<String, Integer> invalidationListener = (cache, count) -> { };
+
+  public CacheTagIndex(StringRedisTemplate redisTemplate, ObjectProvider<CacheInvalidationBus> bus) {
+    this.redisTemplate = redisTemplate;
+    this.bus = bus.getIfAvailable();
+  }
+
+  public void setInvalidationListener(BiConsumer<String, Integer> invalidationListener) {
+    this.invalidationListener = invalidationListener;
+  }
+
+  static String tagKey(String cacheName, String tag) {
+    return TAG_PREFIX + cacheName + "::" + tag;
+  }
+
+  public void tag(String cacheName, Object key, Collection<String> tags, Duration ttl) {
+    if (tags == null || tags.isEmpty()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    String member = String.valueOf(key);
+    // tag sống lâu hơn entry để không mất tag trước entry
+    long tagTtlMs = ttl.toMillis() * 2;
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        StringRedisConnection conn = (StringRedisConnection) connection;
+        for (String tag : tags) {
+          String tagKey = tagKey(cacheName, tag);
+          conn.zAdd(tagKey, now + ttl.toMillis(), member);
+          conn.zRemRangeByScore(tagKey, Double.NEGATIVE_INFINITY, now);
+          conn.pExpire(tagKey, tagTtlMs);
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      // Thiếu tag chỉ làm entry sống tới hết TTL
+      logger.warn("Failed to tag {}::{} with {}: {}", cacheName, key, tags, e.getMessage());
+    }
+  }
+
+  /**
+   * Xóa mọi entry của cache gắn với bất kỳ tag nào trong danh sách (1 round trip).
+   *
+   * @return các cache key đã bị xóa
+   */
+  @SuppressWarnings("unchecked")
+  public List<String> invalidate(String cacheName, Collection<String> tags) {
+    if (tags == null || tags.isEmpty()) {
+      return List.of();
+    }
+    List<String> keys = new ArrayList<>(tags.size());
+    for (String tag : tags) {
+      keys.add(tagKey(cacheName, tag));
+    }
+    String channel = bus != null ? bus.getChannel() : "";
+    String messagePrefix = bus != null ? bus.messagePrefix(cacheName) : "";
+    List<String> evicted = redisTemplate.execute(INVALIDATE_SCRIPT, keys,
+        CACHE_KEY_PREFIX + cacheName + "::", channel, messagePrefix);
+    if (evicted == null) {
+      return List.of();
+    }
+    if (bus != null) {
+      for (String key : evicted) {
+        bus.applyLocally(cacheName, key);
+      }
+    }
+    invalidationListener.accept(cacheName, evicted.size());
+    return evicted;
+  }
+
+  public List<String> invalidate(String cacheName, String tag) {
+    return invalidate(cacheName, List.of(tag));
+  }
+}
@@ -0,0 +1,12 @@
+package com.example.backend.cache;
+
+import java.util.Collection;
+
+/**
+ * Tính các tag của 1 entry khi ghi vào cache (xem {@link CacheTagIndex}).
+ */
+@FunctionalInterface
+public interface CacheTagger {
+
+  Collection<String> tagsFor(Object key, Object value);
+}
@@ -0,0 +1,60 @@
+package com.example.backend.cache;
+
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.dto.VolunteerRequestDto;
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Quy ước tên tag và các tagger dùng chung.
+ */
+public final class CacheTags {
+
+  private CacheTags() {
+  }
+
+  public static String post(Long postId) {
+    return "post:" + postId;
+  }
+
+  public static String owner(String email) {
+    return "owner:" + email.toLowerCase(Locale.ROOT);
+  }
+
+  // Trang / danh sách bài: gắn tag theo id của từng bài trong value
+  public static final CacheTagger POST_IDS = (key, value) -> {
+    Collection<?> items = value instanceof Page<?> page ? page.getContent()
+        : value instanceof Collection<?> c ? c : null;
+    if (items == null) {
+      return Set.of();
+    }
+    Set<String> tags = new LinkedHashSet<>();
+    for (Object item : items) {
+      if (item instanceof VolunteerPostDto dto && dto.getId() != null) {
+        tags.add(post(dto.getId()));
+      }
+    }
+    return tags;
+  };
+
+  // Trang "request của tôi" (key "email:postId|all:p:N"): tag theo chủ sở hữu lấy từ key
+  // và theo id bài của từng request trong value
+  public static final CacheTagger REQUEST_OWNER_AND_POSTS = (key, value) -> {
+    Set<String> tags = new LinkedHashSet<>();
+    String k = String.valueOf(key);
+    int sep = k.indexOf(':');
+    tags.add(owner(sep > 0 ? k.substring(0, sep) : k));
+    Collection<?> items = value instanceof Page<?> page ? page.getContent()
+        : value instanceof Collection<?> c ? c : Set.of();
+    for (Object item : items) {
+      if (item instanceof VolunteerRequestDto dto && dto.getPostId() != null) {
+        tags.add(post(dto.getPostId()));
+      }
+    }
+    return tags;
+  };
+}
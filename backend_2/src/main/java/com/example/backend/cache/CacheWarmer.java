@@ -0,0 +1,196 @@
+package com.example.backend.cache;
+
+import com.example.backend.config.AppCacheProperties;
+import com.example.backend.service.VolunteerPostService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nạp sẵn cache nóng (top6, N trang đầu danh sách, chi tiết các bài được xem
+ * nhiều nhất) trước khi /readyz báo READY.
+ *
+ * - Chạy sau ApplicationReadyEvent, giới hạn số thread và tổng thời gian;
+ *   hết giờ vẫn báo ready (cache sẽ được nạp dần theo traffic).
+ * - Bài "nóng" lấy từ ZSET {@link #HOT_POSTS_KEY}, tăng theo lượt xem có lấy mẫu.
+ * - Key sentinel {@link #SENTINEL_KEY} không có TTL: mất key nghĩa là Redis vừa
+ *   bị flush / failover sang node trống. Replica SETNX lại được sentinel sẽ
+ *   warm lại L2 cho cả cluster. L1 của node đó được xóa trước, nếu không get()
+ *   trả từ L1 và không ghi lại vào L2.
+ */
+@Component
+public class CacheWarmer {
+
+  static final String HOT_POSTS_KEY = "vhub::hot::posts";
+  static final String SENTINEL_KEY = "vhub::warm::sentinel";
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final VolunteerPostService postService;
+  private final StringRedisTemplate redisTemplate;
+  private final CacheManager cacheManager;
+  private final AppCacheProperties.Warmup config;
+  private final String nodeId = UUID.randomUUID().toString();
+  private final AtomicBoolean warm = new AtomicBoolean(false);
+  private final AtomicBoolean running = new AtomicBoolean(false);
+
+  public CacheWarmer(VolunteerPostService postService, StringRedisTemplate redisTemplate,
+                     CacheManager cacheManager, AppCacheProperties properties) {
+    this.postService = postService;
+    this.redisTemplate = redisTemplate;
+    this.cacheManager = cacheManager;
+    this.config = properties.getWarmup();
+    if (!config.isEnabled()) {
+      warm.set(true);
+    }
+  }
+
+  public boolean isWarm() {
+    return warm.get();
+  }
+
+  // Gọi khi có lượt xem chi tiết bài; chỉ ghi 1 phần theo sample-rate để giảm tải Redis
+  public void recordPostView(Long postId) {
+    if (postId == null || ThreadLocalRandom.current().nextDouble() >= config.getHotSampleRate()) {
+      return;
+    }
+    try {
+      redisTemplate.opsForZSet().incrementScore(HOT_POSTS_KEY, String.valueOf(postId), 1);
+    } catch (Exception e) {
+      logger.debug("Cannot record hot post {}: {}", postId, e.getMessage());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!config.isEnabled()) {
+      return;
+    }
+    Thread t = new Thread(() -> {
+      try {
+        warmUp("startup");
+      } finally {
+        warm.set(true);
+      }
+    }, "cache-warmup");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  // Phát hiện Redis bị flush / failover mất dữ liệu qua sentinel key
+  @Scheduled(fixedDelayString = "${app.cache.warmup.sentinel-check-interval:10s}",
+      initialDelayString = "${app.cache.warmup.sentinel-check-interval:10s}")
+  public void checkSentinel() {
+    if (!config.isEnabled() || !warm.get()) {
+      return;
+    }
+    Boolean missing;
+    try {
+      missing = redisTemplate.opsForValue().setIfAbsent(SENTINEL_KEY, nodeId);
+    } catch (Exception e) {
+      return; // Redis đang lỗi, kiểm tra lại lần sau
+    }
+    if (Boolean.TRUE.equals(missing)) {
+      logger.warn("Cache sentinel missing (Redis flush or failover), re-warming caches");
+      if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+        twoLevel.clearLocal();
+      }
+      warmUp("redis-reset");
+    }
+  }
+
+  void warmUp(String reason) {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, config.getConcurrency()), r -> {
+      Thread t = new Thread(r, "cache-warmup-worker");
+      t.setDaemon(true);
+      return t;
+    });
+    AtomicInteger failed = new AtomicInteger();
+    try {
+      List<Runnable> tasks = new ArrayList<>();
+      tasks.add(postService::getLatestVolunteers);
+      for (int p = 0; p < config.getPostPages(); p++) {
+        PageRequest page = PageRequest.of(p, config.getPageSize());
+        tasks.add(() -> postService.getAllVolunteers(null, page));
+      }
+      for (Long id : hotPostIds()) {
+        tasks.add(() -> postService.getVolunteerPostDetails(id));
+      }
+
+      List<Future<?>> futures = new ArrayList<>(tasks.size());
+      for (Runnable task : tasks) {
+        futures.add(pool.submit(() -> {
+          try {
+            task.run();
+          } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.debug("Warm-up task failed: {}", e.getMessage());
+          }
+        }));
+      }
+      pool.shutdown();
+      if (!pool.awaitTermination(config.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        futures.forEach(f -> f.cancel(true));
+        logger.warn("Cache warm-up ({}) timed out after {}", reason, config.getTimeout());
+      }
+      markWarmed();
+      logger.info("Cache warm-up ({}) finished: {} tasks, {} failed, {} ms",
+          reason, tasks.size(), failed.get(), System.currentTimeMillis() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      logger.warn("Cache warm-up ({}) aborted: {}", reason, e.getMessage());
+    } finally {
+      pool.shutdownNow();
+      running.set(false);
+    }
+  }
+
+  private List<Long> hotPostIds() {
+    List<Long> ids = new ArrayList<>();
+    try {
+      ZSetOperations<String, String> zset = redisTemplate.opsForZSet();
+      Set<String> top = zset.reverseRange(HOT_POSTS_KEY, 0, config.getHotPosts() - 1L);
+      // Giữ ZSET có kích thước giới hạn
+      zset.removeRange(HOT_POSTS_KEY, 0, -(config.getHotPostsRetained() + 1L));
+      if (top != null) {
+        for (String id : top) {
+          ids.add(Long.valueOf(id));
+        }
+      }
+    } catch (Exception e) {
+      logger.debug("Cannot read hot posts: {}", e.getMessage());
+    }
+    return ids;
+  }
+
+  private void markWarmed() {
+    try {
+      redisTemplate.opsForValue().set(SENTINEL_KEY, nodeId);
+    } catch (Exception e) {
+      logger.debug("Cannot write cache sentinel: {}", e.getMessage());
+    }
+  }
+}
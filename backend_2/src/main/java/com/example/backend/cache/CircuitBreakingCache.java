@@ -0,0 +1,199 @@
+package com.example.backend.cache;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bọc cache L2 (Redis) bằng circuit breaker.
+ *
+ * - Breaker đóng: gọi Redis bình thường; lỗi / chậm được ghi nhận và coi như miss.
+ * - Breaker mở: đọc trả miss ngay (TwoLevelCache dùng L1 hoặc loader), ghi bị bỏ
+ *   (value sẽ được nạp lại), evict / clear được xếp hàng và replay khi breaker đóng lại.
+ * - Hàng đợi evict có giới hạn; tràn thì chuyển thành 1 lần clear cả cache khi replay.
+ */
+public class CircuitBreakingCache implements Cache {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final Cache delegate;
+  private final CircuitBreaker breaker;
+  private final int maxPendingEvictions;
+  private final ConcurrentLinkedQueue<Object> pendingEvictions = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private volatile boolean clearPending;
+
+  public CircuitBreakingCache(Cache delegate, CircuitBreaker breaker, int maxPendingEvictions) {
+    this.delegate = delegate;
+    this.breaker = breaker;
+    this.maxPendingEvictions = maxPendingEvictions;
+    breaker.getEventPublisher().onStateTransition(event -> {
+      if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+        replayPending();
+      }
+    });
+  }
+
+  public boolean isAvailable() {
+    CircuitBreaker.State state = breaker.getState();
+    return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+  }
+
+  public int getPendingEvictions() {
+    return clearPending ? maxPendingEvictions : pendingCount.get();
+  }
+
+  private <T> T call(Supplier<T> op, T fallback) {
+    if (!breaker.tryAcquirePermission()) {
+      return fallback;
+    }
+    long start = System.nanoTime();
+    try {
+      T result = op.get();
+      breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return result;
+    } catch (RuntimeException e) {
+      breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+      logger.debug("Redis cache {} call failed: {}", delegate.getName(), e.getMessage());
+      return fallback;
+    }
+  }
+
+  private boolean run(Runnable op) {
+    return Boolean.TRUE.equals(call(() -> {
+      op.run();
+      return Boolean.TRUE;
+    }, Boolean.FALSE));
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return call(() -> delegate.get(key), null);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return call(() -> delegate.get(key, type), null);
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper cached = get(key);
+    if (cached != null) {
+      @SuppressWarnings("unchecked")
+      T value = (T) cached.get();
+      return value;
+    }
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    run(() -> delegate.put(key, value));
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return call(() -> delegate.putIfAbsent(key, value), null);
+  }
+
+  @Override
+  public void evict(Object key) {
+    if (!run(() -> delegate.evict(key))) {
+      enqueueEviction(key);
+    }
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    Boolean present = call(() -> delegate.evictIfPresent(key), null);
+    if (present == null) {
+      enqueueEviction(key);
+      return false;
+    }
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    if (!run(delegate::clear)) {
+      clearPending = true;
+    }
+  }
+
+  @Override
+  public boolean invalidate() {
+    Boolean hadEntries = call(delegate::invalidate, null);
+    if (hadEntries == null) {
+      clearPending = true;
+      return false;
+    }
+    return hadEntries;
+  }
+
+  private void enqueueEviction(Object key) {
+    if (clearPending) {
+      return;
+    }
+    if (pendingCount.incrementAndGet() > maxPendingEvictions) {
+      // Quá nhiều evict đang chờ: replay bằng clear cả cache cho an toàn
+      clearPending = true;
+      pendingEvictions.clear();
+      pendingCount.set(0);
+      return;
+    }
+    pendingEvictions.add(key);
+  }
+
+  // Chạy khi breaker đóng lại; lỗi giữa chừng thì giữ phần còn lại cho lần sau
+  void replayPending() {
+    if (clearPending) {
+      if (run(delegate::clear)) {
+        clearPending = false;
+        pendingEvictions.clear();
+        pendingCount.set(0);
+        logger.info("Replayed pending clear of cache {}", delegate.getName());
+      }
+      return;
+    }
+    int replayed = 0;
+    Object key;
+    while ((key = pendingEvictions.peek()) != null) {
+      Object k = key;
+      if (!run(() -> delegate.evict(k))) {
+        break;
+      }
+      pendingEvictions.poll();
+      pendingCount.decrementAndGet();
+      replayed++;
+    }
+    if (replayed > 0) {
+      logger.info("Replayed {} pending evictions of cache {}", replayed, delegate.getName());
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.backend.cache;
+
+import com.example.backend.config.RedisCacheConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalidation gọi thẳng Redis (bump generation, xóa theo tag) chạy qua cùng circuit
+ * breaker với L2 ({@link CircuitBreakingCache}).
+ *
+ * - Breaker mở / Redis lỗi: không chờ timeout, xếp hàng theo id (cùng id chỉ giữ 1 lần,
+ *   vd. nhiều lần bump generation gộp thành 1) và replay khi breaker đóng lại hoặc ở
+ *   lần kiểm tra định kỳ.
+ * - Hàng đợi đầy: invalidation mới đổi thành clear cả cache đích khi replay.
+ */
+@Component
+public class GuardedInvalidations {
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final CircuitBreaker breaker;
+  private final ObjectProvider<CacheManager> cacheManager;
+  private final int maxPending;
+  private final Map<String, Runnable> pending = new ConcurrentHashMap<>();
+  private final Set<String> clearOnReplay = ConcurrentHashMap.newKeySet();
+
+  public GuardedInvalidations(CircuitBreakerRegistry circuitBreakerRegistry,
+                              ObjectProvider<CacheManager> cacheManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.max-pending-evictions:10000}") int maxPending) {
+    this.breaker = circuitBreakerRegistry.circuitBreaker(RedisCacheConfig.REDIS_CACHE_BREAKER);
+    this.cacheManager = cacheManager;
+    this.maxPending = maxPending;
+    Gauge.builder("cache.invalidations.pending", this, GuardedInvalidations::getPending)
+        .description("Generation bumps / tag invalidations waiting for Redis")
+        .register(meterRegistry);
+    breaker.getEventPublisher().onStateTransition(event -> {
+      if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) {
+        replayPending();
+      }
+    });
+  }
+
+  /**
+   * Chạy invalidation; không chạy được thì giữ lại để replay.
+   *
+   * @param id        khóa gộp các invalidation giống nhau
+   * @param cacheName cache bị clear thay thế khi hàng đợi đầy
+   */
+  public void run(String id, String cacheName, Runnable op) {
+    if (execute(id, op)) {
+      return;
+    }
+    if (pending.size() >= maxPending && !pending.containsKey(id)) {
+      clearOnReplay.add(cacheName);
+      return;
+    }
+    pending.put(id, op);
+  }
+
+  public int getPending() {
+    return pending.size() + clearOnReplay.size();
+  }
+
+  private boolean execute(String id, Runnable op) {
+    if (!breaker.tryAcquirePermission()) {
+      return false;
+    }
+    long start = System.nanoTime();
+    try {
+      op.run();
+      breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return true;
+    } catch (RuntimeException e) {
+      breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+      logger.warn("Cache invalidation {} failed, queued for replay: {}", id, e.getMessage());
+      return false;
+    }
+  }
+
+  // Lỗi lẻ không làm breaker mở thì không có sự kiện CLOSED: thử lại định kỳ
+  @Scheduled(fixedDelayString = "${app.cache.invalidation-retry-interval:5s}")
+  public void replayPending() {
+    if (pending.isEmpty() && clearOnReplay.isEmpty()) {
+      return;
+    }
+    int replayed = 0;
+    for (Map.Entry<String, Runnable> entry : pending.entrySet()) {
+      if (!execute(entry.getKey(), entry.getValue())) {
+        break;
+      }
+      pending.remove(entry.getKey(), entry.getValue());
+      replayed++;
+    }
+    CacheManager manager = cacheManager.getIfAvailable();
+    for (String name : clearOnReplay) {
+      Cache cache = manager != null ? manager.getCache(name) : null;
+      if (cache != null) {
+        // qua CircuitBreakingCache: lỗi thì chính nó giữ clear để replay
+        cache.clear();
+      }
+      clearOnReplay.remove(name);
+    }
+    if (replayed > 0) {
+      logger.info("Replayed {} pending cache invalidations", replayed);
+    }
+  }
+}
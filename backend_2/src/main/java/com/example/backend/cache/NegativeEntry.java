@@ -0,0 +1,27 @@
+package com.example.backend.cache;
+
+import java.io.Serializable;
+
+/**
+ * Marker "không tồn tại" lưu trong L2 cho cache bật negative caching
+ * (app.cache.specs.<name>.negative-ttl). Sống ngắn hơn entry thường và bị xóa
+ * theo đúng key của entry thật, nên bài / volunteer mới tạo không bị che.
+ */
+public final class NegativeEntry implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final NegativeEntry INSTANCE = new NegativeEntry();
+
+  private NegativeEntry() {
+  }
+
+  private Object readResolve() {
+    return INSTANCE;
+  }
+
+  @Override
+  public String toString() {
+    return "NegativeEntry";
+  }
+}
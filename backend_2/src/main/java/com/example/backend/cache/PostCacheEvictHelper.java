@@ -1,13 +1,27 @@
 package com.example.backend.cache;
 
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 import static com.example.backend.config.RedisCacheConfig.*;
 
 @Component
+@RequiredArgsConstructor
 public class PostCacheEvictHelper {
 
+  private final CacheGenerations cacheGenerations;
+  private final CacheTagIndex cacheTagIndex;
+  private final GuardedInvalidations guardedInvalidations;
+  private final CacheManager cacheManager;
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
   // Xóa cache chi tiết một bài theo id
   @CacheEvict(cacheNames = POST_BY_ID, key = "#id")
   public void evictPostById(Long id) {
@@ -18,4 +32,44 @@ public class PostCacheEvictHelper {
   public void evictMyPostsByEmail(String email) {
     // no-op
   }
+
+  // Bài mới: xóa marker "không tồn tại" của id này (nếu có ai đã tra id trước đó)
+  public void evictNewPost(Long id) {
+    afterCommit(() -> {
+      Cache cache = cacheManager.getCache(POST_BY_ID);
+      if (cache != null) {
+        cache.evict(id);
+      }
+    });
+  }
+
+  // Thêm / xóa bài, đổi tiêu đề / deadline: tập bài của mọi trang thay đổi -> đổi generation, O(1)
+  public void bumpPostListGeneration() {
+    afterCommit(() -> guardedInvalidations.run("gen:" + CacheGenerations.POST_LISTS, POSTS,
+        () -> cacheGenerations.bump(CacheGenerations.POST_LISTS)));
+  }
+
+  // Bài chỉ đổi nội dung: chỉ xóa các trang danh sách / top6 đang chứa bài này
+  public void evictListPagesContaining(Long postId) {
+    afterCommit(() -> {
+      List<String> tags = List.of(CacheTags.post(postId));
+      invalidateTags(POSTS, tags);
+      invalidateTags(HOME_TOP6, tags);
+    });
+  }
+
+  // Trang "request của tôi" có chứa tiêu đề / deadline / địa điểm của bài
+  public void evictRequestPagesForPost(Long postId) {
+    afterCommit(() -> invalidateTags(MY_REQUESTS_BY_EMAIL, List.of(CacheTags.post(postId))));
+  }
+
+  // Qua circuit breaker của Redis: breaker mở thì xếp hàng replay thay vì chờ timeout
+  private void invalidateTags(String cacheName, List<String> tags) {
+    guardedInvalidations.run("tag:" + cacheName + ":" + tags, cacheName,
+        () -> cacheTagIndex.invalidate(cacheName, tags));
+  }
+
+  private void afterCommit(Runnable action) {
+    AfterCommit.run(logger, "Post cache invalidation", action);
+  }
 }
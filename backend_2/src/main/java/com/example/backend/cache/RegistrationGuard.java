@@ -0,0 +1,177 @@
+package com.example.backend.cache;
+
+import com.example.backend.exception.DuplicateRegistrationException;
+import com.example.backend.repo.VolunteerRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Chặn đăng ký trùng (email, postId) trước khi ghi outbox / lên broker.
+ *
+ * 1. SET NX + TTL "vhub::reg::{email}:{postId}" trong Redis: double-click, client
+ *    retry, replica khác vừa nhận -> 409 ngay, không chạm DB.
+ * 2. Bloom filter cục bộ các cặp đã có trong volunteer_request (nạp lúc khởi động,
+ *    dựng lại định kỳ): âm tính = chắc chắn chưa đăng ký, bỏ qua DB; dương tính
+ *    (đã đăng ký hoặc ~fpp dương tính giả) mới xác nhận bằng 1 lookup trên unique index.
+ *
+ * Redis lỗi / Bloom chưa nạp xong thì rơi về kiểm tra DB; consumer vẫn kiểm tra trùng trước khi INSERT.
+ * Consumer không tạo được dòng (bài / volunteer không tồn tại, vào DLX) thì gọi {@link #forget}.
+ */
+@Component
+public class RegistrationGuard {
+
+  static final String KEY_PREFIX = "vhub::reg::";
+  static final String SEED_SQL = "SELECT volunteerEmail, postId FROM volunteer_request";
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final VolunteerRequestRepository requestRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final Duration ttl;
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+  // null = chưa nạp xong -> mọi lần kiểm tra đi DB
+  private volatile BloomFilter filter;
+  // filter đang dựng lại: cặp mới thêm được ghi vào cả 2 để không lọt khi swap
+  private volatile BloomFilter building;
+
+  public RegistrationGuard(StringRedisTemplate redisTemplate,
+                           VolunteerRequestRepository requestRepository,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${app.registration-guard.ttl:1d}") Duration ttl,
+                           @Value("${app.registration-guard.expected-insertions:1000000}") long expectedInsertions,
+                           @Value("${app.registration-guard.false-positive-rate:0.01}") double falsePositiveRate) {
+    this.redisTemplate = redisTemplate;
+    this.requestRepository = requestRepository;
+    this.jdbcTemplate = jdbcTemplate;
+    this.ttl = ttl;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  static String key(String email, long postId) {
+    return email.toLowerCase(Locale.ROOT) + ":" + postId;
+  }
+
+  /**
+   * Giữ chỗ cho (email, postId) hoặc ném {@link DuplicateRegistrationException}.
+   * Transaction của caller rollback thì nhả chỗ để người dùng gửi lại được.
+   */
+  public void claim(String email, long postId) {
+    String key = key(email, postId);
+    Boolean claimed = null;
+    try {
+      claimed = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, "1", ttl);
+    } catch (Exception e) {
+      logger.warn("Registration guard Redis unavailable, falling back to DB: {}", e.getMessage());
+    }
+    if (Boolean.FALSE.equals(claimed)) {
+      throw new DuplicateRegistrationException("You have already registered for this event");
+    }
+
+    BloomFilter current = filter;
+    if (current == null || current.mightContain(key)) {
+      boolean exists;
+      try {
+        exists = requestRepository.existsRegistration(email, postId);
+      } catch (RuntimeException e) {
+        if (Boolean.TRUE.equals(claimed)) {
+          forget(email, postId);
+        }
+        throw e;
+      }
+      if (exists) {
+        // giữ key Redis: lần sau trả 409 luôn không cần DB
+        throw new DuplicateRegistrationException("You have already registered for this event");
+      }
+    }
+    add(key);
+    if (Boolean.TRUE.equals(claimed)) {
+      releaseOnRollback(key);
+    }
+  }
+
+  // Request bị xóa: cho phép đăng ký lại (Bloom vẫn dương tính -> lần sau xác nhận bằng DB)
+  public void forget(String email, long postId) {
+    try {
+      redisTemplate.delete(KEY_PREFIX + key(email, postId));
+    } catch (Exception e) {
+      logger.warn("Failed to clear registration guard for {}:{}: {}", email, postId, e.getMessage());
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void seedOnStartup() {
+    Thread t = new Thread(this::rebuild, "registration-bloom-seed");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  // Dựng lại định kỳ: nhận cặp do replica khác ghi, giữ fpp đúng khi bảng lớn dần
+  @Scheduled(fixedDelayString = "${app.registration-guard.rebuild-interval:30m}",
+      initialDelayString = "${app.registration-guard.rebuild-interval:30m}")
+  public synchronized void rebuild() {
+    long start = System.currentTimeMillis();
+    BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+    building = next;
+    long[] rows = {0};
+    try {
+      jdbcTemplate.query(SEED_SQL, rs -> {
+        next.put(key(rs.getString(1), rs.getLong(2)));
+        rows[0]++;
+      });
+    } catch (Exception e) {
+      logger.warn("Registration Bloom filter seed failed: {}", e.getMessage());
+      return;
+    } finally {
+      building = null;
+    }
+    filter = next;
+    if (rows[0] > expectedInsertions) {
+      logger.warn("Registration Bloom filter holds {} pairs, over expected {}; raise app.registration-guard.expected-insertions",
+          rows[0], expectedInsertions);
+    }
+    logger.info("Registration Bloom filter seeded with {} pairs in {} ms", rows[0], System.currentTimeMillis() - start);
+  }
+
+  private void add(String key) {
+    BloomFilter current = filter;
+    if (current != null) {
+      current.put(key);
+    }
+    BloomFilter next = building;
+    if (next != null) {
+      next.put(key);
+    }
+  }
+
+  private void releaseOnRollback(String key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          try {
+            redisTemplate.delete(KEY_PREFIX + key);
+          } catch (Exception e) {
+            logger.warn("Failed to release registration guard {}: {}", key, e.getMessage());
+          }
+        }
+      }
+    });
+  }
+}
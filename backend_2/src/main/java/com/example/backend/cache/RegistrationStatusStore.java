@@ -0,0 +1,179 @@
+package com.example.backend.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kết quả xử lý bất đồng bộ của 1 lần gửi đăng ký, theo correlationId.
+ *
+ * Hash "vhub::regstatus::{correlationId}" (status, email, postId, requestId), TTL ngắn.
+ * Consumer ghi kết quả rồi PUBLISH correlationId lên channel; mỗi replica nghe
+ * channel và trả lời các long-poll đang chờ id đó. Client không phải đọc lại
+ * trang "request của tôi" từ MySQL để biết request đã vào chưa.
+ *
+ * Giao nhận là at-least-once (outbox gửi lại khi mất confirm, broker giao lại khi
+ * consumer chết sau commit): lần giao lại thấy dòng vừa tạo và báo DUPLICATE, nên
+ * kết quả chỉ được ghi khi trạng thái đang là QUEUED (hoặc chưa có) - trạng thái
+ * cuối, nhất là CREATED, không bao giờ bị đè.
+ */
+@Component
+public class RegistrationStatusStore implements MessageListener {
+
+  static final String KEY_PREFIX = "vhub::regstatus::";
+
+  // KEYS[1] = hash; ARGV = [status, requestId (rỗng = không có), ttl ms, channel, correlationId].
+  // Đã có trạng thái cuối -> giữ nguyên, không publish
+  static final String RECORD_SCRIPT =
+      "local current = redis.call('HGET', KEYS[1], 'status') "
+          + "if current and current ~= 'QUEUED' then return 0 end "
+          + "redis.call('HSET', KEYS[1], 'status', ARGV[1]) "
+          + "if ARGV[2] ~= '' then redis.call('HSET', KEYS[1], 'requestId', ARGV[2]) end "
+          + "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+          + "redis.call('PUBLISH', ARGV[4], ARGV[5]) "
+          + "return 1";
+
+  public enum Status {
+    QUEUED, CREATED, DUPLICATE, POST_MISSING, INVALID;
+
+    public boolean isFinal() {
+      return this != QUEUED;
+    }
+  }
+
+  public record Receipt(String correlationId, Status status, Long postId, Long requestId) {
+  }
+
+  // Kết quả consumer ghi cho 1 message
+  public record Outcome(String correlationId, Status status, Long requestId) {
+  }
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+  private final Duration ttl;
+  // long-poll đang chờ trên replica này
+  private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+  private record Waiter(String email, DeferredResult<Receipt> result) {
+  }
+
+  public RegistrationStatusStore(StringRedisTemplate redisTemplate,
+                                 @Value("${app.registration-status.channel:vhub:regstatus}") String channel,
+                                 @Value("${app.registration-status.ttl:10m}") Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+    this.ttl = ttl;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  // Gọi lúc nhận request; ghi sau commit (rollback thì client đã nhận lỗi, không cần receipt)
+  public void queued(String correlationId, String email, long postId) {
+    AfterCommit.run(logger, "Registration status write", () -> {
+      String key = KEY_PREFIX + correlationId;
+      redisTemplate.opsForHash().putAll(key, Map.of(
+          "email", email.toLowerCase(),
+          "postId", String.valueOf(postId)));
+      // consumer có thể đã ghi kết quả trước lúc này: không đè về QUEUED
+      redisTemplate.opsForHash().putIfAbsent(key, "status", Status.QUEUED.name());
+      redisTemplate.expire(key, ttl);
+    });
+  }
+
+  // Consumer: ghi kết quả cả lô + báo các replica trong 1 pipeline (mỗi kết quả 1 script có điều kiện)
+  public void record(List<Outcome> outcomes) {
+    List<Outcome> tracked = outcomes.stream().filter(o -> o.correlationId() != null).toList();
+    if (tracked.isEmpty()) {
+      return;
+    }
+    try {
+      redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+        StringRedisConnection conn = (StringRedisConnection) connection;
+        for (Outcome o : tracked) {
+          conn.eval(RECORD_SCRIPT, ReturnType.INTEGER, 1, KEY_PREFIX + o.correlationId(),
+              o.status().name(),
+              o.requestId() != null ? String.valueOf(o.requestId()) : "",
+              String.valueOf(ttl.toMillis()),
+              channel,
+              o.correlationId());
+        }
+        return null;
+      });
+    } catch (Exception e) {
+      // client long-poll hết giờ rồi hỏi lại / xem danh sách request
+      logger.warn("Failed to record {} registration outcomes: {}", tracked.size(), e.getMessage());
+    }
+  }
+
+  // Chỉ chủ của request mới thấy receipt
+  public Optional<Receipt> find(String correlationId, String email) {
+    Map<Object, Object> hash = redisTemplate.opsForHash().entries(KEY_PREFIX + correlationId);
+    if (hash.isEmpty() || email == null || !email.equalsIgnoreCase((String) hash.get("email"))) {
+      return Optional.empty();
+    }
+    Object requestId = hash.get("requestId");
+    Object postId = hash.get("postId");
+    return Optional.of(new Receipt(correlationId,
+        Status.valueOf((String) hash.get("status")),
+        postId != null ? Long.valueOf((String) postId) : null,
+        requestId != null ? Long.valueOf((String) requestId) : null));
+  }
+
+  /**
+   * Long-poll: trả ngay nếu đã có kết quả, không thì chờ tới khi consumer publish
+   * hoặc hết timeout (trả receipt hiện tại, thường là QUEUED).
+   */
+  public DeferredResult<Receipt> await(String correlationId, String email, Receipt current, Duration timeout) {
+    DeferredResult<Receipt> result = new DeferredResult<>(timeout.toMillis());
+    if (current.status().isFinal()) {
+      result.setResult(current);
+      return result;
+    }
+    Waiter waiter = new Waiter(email, result);
+    waiters.computeIfAbsent(correlationId, id -> ConcurrentHashMap.newKeySet()).add(waiter);
+    Runnable remove = () -> waiters.computeIfPresent(correlationId, (id, set) -> {
+      set.remove(waiter);
+      return set.isEmpty() ? null : set;
+    });
+    result.onCompletion(remove);
+    result.onTimeout(() -> result.setResult(find(correlationId, email).orElse(current)));
+    // kết quả có thể đã được ghi giữa lần đọc đầu và lúc đăng ký waiter
+    find(correlationId, email).filter(r -> r.status().isFinal()).ifPresent(result::setResult);
+    return result;
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String correlationId = new String(message.getBody(), StandardCharsets.UTF_8);
+    Set<Waiter> pending = waiters.get(correlationId);
+    if (pending == null) {
+      return;
+    }
+    for (Waiter w : pending) {
+      try {
+        find(correlationId, w.email()).ifPresent(w.result()::setResult);
+      } catch (Exception e) {
+        logger.warn("Failed to answer registration long-poll {}: {}", correlationId, e.getMessage());
+      }
+    }
+  }
+}
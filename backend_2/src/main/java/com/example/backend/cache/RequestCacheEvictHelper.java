@@ -0,0 +1,28 @@
+package com.example.backend.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import static com.example.backend.config.RedisCacheConfig.MY_REQUESTS_BY_EMAIL;
+
+@Component
+@RequiredArgsConstructor
+public class RequestCacheEvictHelper {
+
+  private final CacheTagIndex cacheTagIndex;
+  private final GuardedInvalidations guardedInvalidations;
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  // Xóa mọi trang "request của tôi" của 1 volunteer (mọi postId / page), 1 round trip, sau commit
+  public void evictOwner(String volunteerEmail) {
+    if (volunteerEmail == null || volunteerEmail.isBlank()) {
+      return;
+    }
+    String tag = CacheTags.owner(volunteerEmail);
+    AfterCommit.run(logger, "Request cache invalidation",
+        () -> guardedInvalidations.run("tag:" + MY_REQUESTS_BY_EMAIL + ":" + tag, MY_REQUESTS_BY_EMAIL,
+            () -> cacheTagIndex.invalidate(MY_REQUESTS_BY_EMAIL, tag)));
+  }
+}
@@ -0,0 +1,300 @@
+package com.example.backend.cache;
+
+import com.example.backend.repo.VolunteerRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bộ đếm request theo trạng thái (pending / accepted / rejected) cho từng bài,
+ * giữ trong Redis hash "vhub::reqcount::{postId}".
+ *
+ * - Ghi: consumer / approve / reject / xóa request gọi HINCRBY sau khi commit,
+ *   chỉ khi hash đã tồn tại (hash thiếu thì lần đọc sau nạp lại từ DB).
+ * - Đọc: HMGET cho mọi bài trong 1 pipeline; bài chưa có hash được tính bằng
+ *   1 truy vấn GROUP BY rồi ghi vào Redis (có TTL để tự làm mới định kỳ).
+ * - Lệch (lỗi Redis sau commit, ghi xen giữa lúc nạp): job {@link #reconcile()}
+ *   so với DB và ghi đè các hash sai.
+ * Redis lỗi thì đọc thẳng từ DB.
+ */
+@Component
+public class RequestStatusCounters {
+
+  static final String KEY_PREFIX = "vhub::reqcount::";
+  static final String PENDING = "pending";
+  static final String ACCEPTED = "accepted";
+  static final String REJECTED = "rejected";
+  private static final int RECONCILE_BATCH = 500;
+
+  // KEYS[1] = hash; ARGV = field, delta, field, delta... Hash chưa có -> bỏ qua
+  private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+          + "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+          + "return 1",
+      Long.class);
+
+  // KEYS = hash; ARGV = [ttl ms, chỉ ghi đè hash đang có (1/0), rồi 3 số đếm mỗi key]
+  private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+      "local written = 0 "
+          + "for i, key in ipairs(KEYS) do "
+          + "  local exists = redis.call('EXISTS', key) == 1 "
+          + "  if exists == (ARGV[2] == '1') then "
+          + "    local base = 2 + (i - 1) * 3 "
+          + "    redis.call('HSET', key, 'pending', ARGV[base + 1], 'accepted', ARGV[base + 2], 'rejected', ARGV[base + 3]) "
+          + "    if not exists then redis.call('PEXPIRE', key, ARGV[1]) end "
+          + "    written = written + 1 "
+          + "  end "
+          + "end "
+          + "return written",
+      Long.class);
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final VolunteerRequestRepository requestRepository;
+  private final Duration ttl;
+
+  public RequestStatusCounters(StringRedisTemplate redisTemplate, VolunteerRequestRepository requestRepository,
+                               @Value("${app.counters.ttl:1d}") Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.requestRepository = requestRepository;
+    this.ttl = ttl;
+  }
+
+  public record Counts(long pending, long accepted, long rejected) {
+    static final Counts ZERO = new Counts(0, 0, 0);
+  }
+
+  // --- ghi (sau commit) ---
+
+  public void requestCreated(Long postId) {
+    apply(postId, field(PENDING), null);
+  }
+
+  public void statusChanged(Long postId, String fromStatus, String toStatus) {
+    apply(postId, field(toStatus), field(fromStatus));
+  }
+
+  public void requestRemoved(Long postId, String status) {
+    apply(postId, null, field(status));
+  }
+
+  // Bài bị xóa (request bị xóa theo cascade)
+  public void forget(Long postId) {
+    if (postId == null) {
+      return;
+    }
+    AfterCommit.run(logger, "Request counter delete", () -> redisTemplate.delete(KEY_PREFIX + postId));
+  }
+
+  private void apply(Long postId, String increment, String decrement) {
+    if (postId == null || (increment == null && decrement == null) || increment != null && increment.equals(decrement)) {
+      return;
+    }
+    List<String> args = new ArrayList<>(4);
+    if (increment != null) {
+      args.add(increment);
+      args.add("1");
+    }
+    if (decrement != null) {
+      args.add(decrement);
+      args.add("-1");
+    }
+    AfterCommit.run(logger, "Request counter update",
+        () -> redisTemplate.execute(APPLY_SCRIPT, List.of(KEY_PREFIX + postId), args.toArray()));
+  }
+
+  // --- đọc ---
+
+  /**
+   * Số đếm cho từng bài (bài không có request -> 0), giữ thứ tự đầu vào.
+   * 1 round trip Redis; thêm 1 truy vấn DB nếu có bài chưa có hash.
+   */
+  public Map<Long, Counts> read(Collection<Long> postIds) {
+    List<Long> ids = postIds.stream().filter(Objects::nonNull).distinct().toList();
+    Map<Long, Counts> result = new LinkedHashMap<>();
+    if (ids.isEmpty()) {
+      return result;
+    }
+    Map<Long, Counts> cached;
+    try {
+      cached = readCached(ids);
+    } catch (Exception e) {
+      logger.warn("Cannot read request counters, counting in DB: {}", e.getMessage());
+      Map<Long, Counts> fromDb = loadFromDb(ids);
+      ids.forEach(id -> result.put(id, fromDb.getOrDefault(id, Counts.ZERO)));
+      return result;
+    }
+    List<Long> missing = ids.stream().filter(id -> !cached.containsKey(id)).toList();
+    Map<Long, Counts> loaded = missing.isEmpty() ? Map.of() : loadFromDb(missing);
+    if (!missing.isEmpty()) {
+      try {
+        store(missing, loaded, false);
+      } catch (Exception e) {
+        logger.warn("Cannot seed request counters for {} posts: {}", missing.size(), e.getMessage());
+      }
+    }
+    for (Long id : ids) {
+      Counts counts = cached.get(id);
+      result.put(id, counts != null ? counts : loaded.getOrDefault(id, Counts.ZERO));
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Long, Counts> readCached(List<Long> ids) {
+    List<Object> replies = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection conn = (StringRedisConnection) connection;
+      for (Long id : ids) {
+        conn.hMGet(KEY_PREFIX + id, PENDING, ACCEPTED, REJECTED);
+      }
+      return null;
+    });
+    Map<Long, Counts> cached = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      List<String> values = (List<String>) replies.get(i);
+      if (values == null || values.stream().allMatch(Objects::isNull)) {
+        continue;
+      }
+      cached.put(ids.get(i), new Counts(parse(values.get(0)), parse(values.get(1)), parse(values.get(2))));
+    }
+    return cached;
+  }
+
+  Map<Long, Counts> loadFromDb(Collection<Long> ids) {
+    Map<Long, long[]> totals = new HashMap<>();
+    for (var row : requestRepository.countByStatusForPosts(ids)) {
+      String f = field(row.getStatus());
+      if (row.getPostId() == null || f == null) {
+        continue;
+      }
+      long[] t = totals.computeIfAbsent(row.getPostId(), k -> new long[3]);
+      t[index(f)] += row.getTotal();
+    }
+    Map<Long, Counts> counts = new HashMap<>();
+    totals.forEach((id, t) -> counts.put(id, new Counts(t[0], t[1], t[2])));
+    return counts;
+  }
+
+  // overwriteExisting = false: chỉ tạo hash còn thiếu; true: chỉ sửa hash đang có
+  private long store(List<Long> ids, Map<Long, Counts> counts, boolean overwriteExisting) {
+    List<String> keys = new ArrayList<>(ids.size());
+    List<Object> args = new ArrayList<>(2 + ids.size() * 3);
+    args.add(String.valueOf(ttl.toMillis()));
+    args.add(overwriteExisting ? "1" : "0");
+    for (Long id : ids) {
+      Counts c = counts.getOrDefault(id, Counts.ZERO);
+      keys.add(KEY_PREFIX + id);
+      args.add(String.valueOf(c.pending()));
+      args.add(String.valueOf(c.accepted()));
+      args.add(String.valueOf(c.rejected()));
+    }
+    Long written = redisTemplate.execute(STORE_SCRIPT, keys, args.toArray());
+    return written != null ? written : 0L;
+  }
+
+  // --- đối soát ---
+
+  // Mọi replica đều chạy được: ghi đè bằng số từ DB là idempotent
+  @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:5m}",
+      initialDelayString = "${app.counters.reconcile-interval:5m}")
+  public void reconcile() {
+    long start = System.currentTimeMillis();
+    int checked = 0;
+    long repaired = 0;
+    ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(RECONCILE_BATCH).build();
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      List<Long> batch = new ArrayList<>(RECONCILE_BATCH);
+      while (cursor.hasNext()) {
+        Long id = parseId(cursor.next());
+        if (id != null) {
+          batch.add(id);
+        }
+        if (batch.size() == RECONCILE_BATCH || !cursor.hasNext()) {
+          checked += batch.size();
+          repaired += reconcileBatch(batch);
+          batch.clear();
+        }
+      }
+    } catch (Exception e) {
+      logger.warn("Request counter reconciliation stopped after {} posts: {}", checked, e.getMessage());
+      return;
+    }
+    if (repaired > 0) {
+      logger.info("Request counters reconciled: {} of {} posts repaired in {} ms",
+          repaired, checked, System.currentTimeMillis() - start);
+    }
+  }
+
+  long reconcileBatch(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    Map<Long, Counts> cached = readCached(ids);
+    Map<Long, Counts> truth = loadFromDb(ids);
+    List<Long> drifted = ids.stream()
+        .filter(id -> cached.containsKey(id) && !cached.get(id).equals(truth.getOrDefault(id, Counts.ZERO)))
+        .toList();
+    return drifted.isEmpty() ? 0 : store(drifted, truth, true);
+  }
+
+  static String field(String status) {
+    if (status == null) {
+      return null;
+    }
+    if (status.equalsIgnoreCase(PENDING)) {
+      return PENDING;
+    }
+    if (status.equalsIgnoreCase(ACCEPTED)) {
+      return ACCEPTED;
+    }
+    if (status.equalsIgnoreCase(REJECTED)) {
+      return REJECTED;
+    }
+    return null;
+  }
+
+  private static int index(String field) {
+    return switch (field) {
+      case PENDING -> 0;
+      case ACCEPTED -> 1;
+      default -> 2;
+    };
+  }
+
+  private static long parse(String value) {
+    if (value == null) {
+      return 0L;
+    }
+    try {
+      return Math.max(0L, Long.parseLong(value));
+    } catch (NumberFormatException e) {
+      return 0L;
+    }
+  }
+
+  private static Long parseId(String key) {
+    try {
+      return Long.parseLong(key.substring(KEY_PREFIX.length()));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
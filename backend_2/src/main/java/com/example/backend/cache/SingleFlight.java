@@ -0,0 +1,56 @@
+package com.example.backend.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Gộp các lần load trùng key trên cùng 1 node: chỉ 1 thread chạy loader,
+ * các thread khác chờ và dùng chung kết quả (hoặc exception) của nó.
+ */
+final class SingleFlight {
+
+  private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  <T> T execute(String key, Callable<T> loader) {
+    CompletableFuture<Object> mine = new CompletableFuture<>();
+    CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+    if (leader != null) {
+      return (T) await(leader);
+    }
+    try {
+      T value = loader.call();
+      mine.complete(value);
+      return value;
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } catch (Exception e) {
+      IllegalStateException wrapped = new IllegalStateException(e);
+      mine.completeExceptionally(wrapped);
+      throw wrapped;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  int inFlightCount() {
+    return inFlight.size();
+  }
+
+  private static Object await(CompletableFuture<Object> leader) {
+    try {
+      return leader.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for in-flight cache load", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
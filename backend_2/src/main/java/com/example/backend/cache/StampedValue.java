@@ -0,0 +1,38 @@
+package com.example.backend.cache;
+
+import java.io.Serializable;
+
+/**
+ * Value của cache refresh-ahead: kèm thời điểm ghi và thời gian tính toán
+ * (dùng cho soft TTL và early refresh xác suất).
+ */
+public final class StampedValue implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Object value;
+  private final long writtenAt;
+  private final long computeMillis;
+
+  public StampedValue(Object value, long writtenAt, long computeMillis) {
+    this.value = value;
+    this.writtenAt = writtenAt;
+    this.computeMillis = computeMillis;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public long getWrittenAt() {
+    return writtenAt;
+  }
+
+  public long getComputeMillis() {
+    return computeMillis;
+  }
+
+  static Object unwrap(Object value) {
+    return value instanceof StampedValue stamped ? stamped.value : value;
+  }
+}
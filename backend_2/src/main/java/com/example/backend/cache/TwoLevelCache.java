@@ -0,0 +1,427 @@
+package com.example.backend.cache;
+
+import com.example.backend.config.AppCacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.domain.Page;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache 2 tầng: L1 Caffeine (in-heap, per replica) trước L2 Redis (dùng chung).
+ *
+ * Đọc: L1 -> L2 -> loader. Ghi: L2 rồi L1 (+ gắn tag nếu cache có tagger).
+ * Xóa: L2, L1 local rồi broadcast qua {@link CacheInvalidationBus} để các
+ * replica khác xóa L1 của chúng. L1 có thể tắt (l1MaxWeight = 0).
+ *
+ * Với @Cacheable(sync = true), miss cùng key trên 1 node chỉ chạy loader 1 lần
+ * ({@link SingleFlight}); nếu cấu hình load-lease, chỉ 1 replica được load,
+ * các replica khác chờ giá trị xuất hiện trong L2.
+ *
+ * Refresh-ahead (soft-ttl > 0): value được lưu dạng {@link StampedValue}. Quá
+ * soft TTL vẫn trả giá trị cũ và tính lại ở background (executor giới hạn);
+ * trước soft TTL có thể refresh sớm theo xác suất (XFetch, tăng dần khi gần
+ * hết hạn và theo thời gian tính toán) để các replica không refresh cùng lúc.
+ * TTL của Redis (ttl) đóng vai trò hard TTL.
+ *
+ * Negative caching (negative-ttl > 0): loader trả null thì lưu
+ * {@link NegativeEntry} vào L2 (không vào L1) với TTL ngắn, cùng key với entry
+ * thật nên evict key là xóa luôn. Counter cache.negative.hits = số query DB
+ * đã được tránh.
+ *
+ * Hit / miss / thời gian load / eviction được ghi vào {@link CacheMetrics}.
+ */
+public class TwoLevelCache implements Cache {
+
+  private static final long LEASE_POLL_MS = 25;
+
+  private final String name;
+  private final Cache l2;
+  private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> l1;
+  private final CacheInvalidationBus bus;
+  private final CacheTagIndex tagIndex;
+  private final CacheTagger tagger;
+  private final Duration ttl;
+  private final CacheLoadLease lease;
+  private final Duration leaseTime;
+  private final SingleFlight singleFlight = new SingleFlight();
+  private final long softTtlMs;
+  private final double refreshBeta;
+  private final Executor refreshExecutor;
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+  private final boolean negativeCaching;
+  private final CacheMetrics metrics;
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  public TwoLevelCache(String name, Cache l2, AppCacheProperties.Spec spec, CacheInvalidationBus bus,
+                       CacheTagIndex tagIndex, CacheTagger tagger, CacheLoadLease lease,
+                       Executor refreshExecutor, CacheMetrics metrics) {
+    this.name = name;
+    this.l2 = l2;
+    this.l1 = spec.getL1MaxWeight() <= 0 ? null : Caffeine.newBuilder()
+        .maximumWeight(spec.getL1MaxWeight())
+        .expireAfterWrite(spec.getL1Ttl())
+        .weigher((String key, ValueWrapper value) -> weigh(value))
+        .evictionListener((String key, ValueWrapper value, RemovalCause cause) ->
+            metrics.eviction(cause == RemovalCause.SIZE ? "l1_size" : "l1_expired"))
+        .build();
+    this.bus = bus;
+    this.tagIndex = tagIndex;
+    this.tagger = tagger;
+    this.ttl = spec.getTtl();
+    this.lease = lease;
+    this.leaseTime = spec.getLoadLease();
+    this.softTtlMs = spec.getSoftTtl() != null ? spec.getSoftTtl().toMillis() : 0;
+    this.refreshBeta = spec.getRefreshBeta();
+    this.refreshExecutor = refreshExecutor;
+    this.negativeCaching = spec.getNegativeTtl() != null && !spec.getNegativeTtl().isZero();
+    this.metrics = metrics;
+  }
+
+  private boolean refreshAhead() {
+    return softTtlMs > 0 && refreshExecutor != null;
+  }
+
+  // Thay cho "unless": không cache null / trang rỗng / list rỗng
+  static boolean isCacheable(Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof Page<?> page) {
+      return !page.isEmpty();
+    }
+    if (value instanceof Collection<?> collection) {
+      return !collection.isEmpty();
+    }
+    return true;
+  }
+
+  // Trọng số xấp xỉ theo số DTO trong value (page / list) để L1 bị giới hạn theo kích thước thực
+  static int weigh(ValueWrapper wrapper) {
+    Object value = StampedValue.unwrap(wrapper.get());
+    if (value instanceof Page<?> page) {
+      return page.getNumberOfElements() + 1;
+    }
+    if (value instanceof Collection<?> collection) {
+      return collection.size() + 1;
+    }
+    return 1;
+  }
+
+  private static String l1Key(Object key) {
+    return String.valueOf(key);
+  }
+
+  private ValueWrapper l1Get(Object key) {
+    return l1 != null ? l1.getIfPresent(l1Key(key)) : null;
+  }
+
+  private void l1Put(Object key, Object value) {
+    if (l1 != null && value != null && !(value instanceof NegativeEntry)) {
+      l1.put(l1Key(key), new SimpleValueWrapper(value));
+    }
+  }
+
+  private void l1Evict(Object key) {
+    if (l1 != null) {
+      l1.invalidate(l1Key(key));
+    }
+  }
+
+  private void l1Clear() {
+    if (l1 != null) {
+      l1.invalidateAll();
+    }
+  }
+
+  // Redis đang bị circuit breaker chặn thì bỏ qua tag / lease (tránh chờ timeout)
+  private boolean redisAvailable() {
+    return !(l2 instanceof CircuitBreakingCache guarded) || guarded.isAvailable();
+  }
+
+  private void tag(Object key, Object value) {
+    if (tagger != null && tagIndex != null && value != null && redisAvailable()) {
+      tagIndex.tag(name, key, tagger.tagsFor(key, value), ttl);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return l2.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    ValueWrapper local = l1Get(key);
+    if (local != null) {
+      metrics.l1Hit();
+      return unwrap(local);
+    }
+    ValueWrapper remote = l2.get(key);
+    if (remote != null) {
+      if (!(remote.get() instanceof NegativeEntry)) {
+        metrics.l2Hit();
+      }
+      l1Put(key, remote.get());
+    } else {
+      metrics.miss();
+    }
+    return unwrap(remote);
+  }
+
+  private ValueWrapper unwrap(ValueWrapper wrapper) {
+    if (wrapper != null && wrapper.get() instanceof StampedValue stamped) {
+      return new SimpleValueWrapper(stamped.getValue());
+    }
+    if (wrapper != null && wrapper.get() instanceof NegativeEntry) {
+      countNegativeHit();
+      return new SimpleValueWrapper(null);
+    }
+    return wrapper;
+  }
+
+  private void countNegativeHit() {
+    metrics.negativeHit();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper local = l1Get(key);
+    if (local != null) {
+      metrics.l1Hit();
+      return (T) serve(key, local.get(), valueLoader);
+    }
+    return singleFlight.execute(l1Key(key), () -> {
+      ValueWrapper remote = l2.get(key);
+      if (remote != null) {
+        if (!(remote.get() instanceof NegativeEntry)) {
+          metrics.l2Hit();
+        }
+        l1Put(key, remote.get());
+        return (T) serve(key, remote.get(), valueLoader);
+      }
+      metrics.miss();
+      return loadWithLease(key, valueLoader);
+    });
+  }
+
+  // Trả giá trị đang có; nếu đã quá soft TTL (hoặc trúng early refresh) thì tính lại ở background
+  private Object serve(Object key, Object stored, Callable<?> valueLoader) {
+    if (stored instanceof NegativeEntry) {
+      countNegativeHit();
+      return null;
+    }
+    if (stored instanceof StampedValue stamped) {
+      if (refreshAhead() && shouldRefresh(stamped, System.currentTimeMillis())) {
+        scheduleRefresh(key, stamped, valueLoader);
+      }
+      return stamped.getValue();
+    }
+    return stored;
+  }
+
+  // XFetch: now - delta * beta * ln(rand) >= expiry, với delta = thời gian tính toán lần trước
+  boolean shouldRefresh(StampedValue stamped, long now) {
+    long softExpiry = stamped.getWrittenAt() + softTtlMs;
+    if (now >= softExpiry) {
+      return true;
+    }
+    double rand = 1.0 - ThreadLocalRandom.current().nextDouble(); // (0, 1]
+    double gap = -stamped.getComputeMillis() * refreshBeta * Math.log(rand);
+    return now + gap >= softExpiry;
+  }
+
+  private void scheduleRefresh(Object key, StampedValue stale, Callable<?> valueLoader) {
+    String id = l1Key(key);
+    if (!refreshing.add(id)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          refresh(key, stale, valueLoader);
+        } catch (Exception e) {
+          // Giữ giá trị cũ tới hard TTL, lần đọc sau sẽ thử lại
+          logger.warn("Background refresh of {}::{} failed: {}", name, key, e.getMessage());
+        } finally {
+          refreshing.remove(id);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Executor đầy: tiếp tục phục vụ giá trị cũ
+      refreshing.remove(id);
+    }
+  }
+
+  private void refresh(Object key, StampedValue stale, Callable<?> valueLoader) {
+    // Replica khác có thể đã refresh: chỉ cần lấy bản mới từ L2
+    ValueWrapper remote = l2.get(key);
+    if (remote != null && remote.get() instanceof StampedValue newer
+        && newer.getWrittenAt() > stale.getWrittenAt()) {
+      l1Put(key, newer);
+      return;
+    }
+    if (lease == null || leaseTime == null || leaseTime.isZero() || !redisAvailable()) {
+      load(key, valueLoader);
+      return;
+    }
+    String token = lease.tryAcquire(name, key, leaseTime);
+    if (token == null) {
+      return; // replica khác đang refresh
+    }
+    try {
+      load(key, valueLoader);
+    } finally {
+      lease.release(name, key, token);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T loadWithLease(Object key, Callable<T> valueLoader) {
+    if (lease == null || leaseTime == null || leaseTime.isZero() || !redisAvailable()) {
+      return load(key, valueLoader);
+    }
+    String token = lease.tryAcquire(name, key, leaseTime);
+    if (token == null) {
+      // Replica khác đang load: chờ giá trị xuất hiện trong L2, hết lease thì tự load
+      long deadline = System.currentTimeMillis() + leaseTime.toMillis();
+      while (System.currentTimeMillis() < deadline) {
+        try {
+          Thread.sleep(LEASE_POLL_MS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        ValueWrapper remote = l2.get(key);
+        if (remote != null) {
+          // như các nhánh L2 hit khác: bóc StampedValue, NegativeEntry -> null
+          l1Put(key, remote.get());
+          return (T) serve(key, remote.get(), valueLoader);
+        }
+      }
+      return load(key, valueLoader);
+    }
+    try {
+      return load(key, valueLoader);
+    } finally {
+      lease.release(name, key, token);
+    }
+  }
+
+  private <T> T load(Object key, Callable<T> valueLoader) {
+    long start = System.nanoTime();
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      metrics.load(System.nanoTime() - start, false);
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+    long elapsed = System.nanoTime() - start;
+    metrics.load(elapsed, true);
+    if (isCacheable(value)) {
+      store(key, value, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    } else if (value == null && negativeCaching) {
+      // TTL ngắn do TtlFunction của L2 quyết định theo kiểu value
+      l2.put(key, NegativeEntry.INSTANCE);
+      metrics.negativeStore();
+    }
+    return value;
+  }
+
+  private void store(Object key, Object value, long computeMillis) {
+    Object stored = refreshAhead() ? new StampedValue(value, System.currentTimeMillis(), computeMillis) : value;
+    l2.put(key, stored);
+    l1Put(key, stored);
+    tag(key, value);
+    metrics.keyWritten(key);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    store(key, value, 0);
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    Object stored = refreshAhead() ? new StampedValue(value, System.currentTimeMillis(), 0) : value;
+    ValueWrapper existing = l2.putIfAbsent(key, stored);
+    if (existing == null) {
+      l1Put(key, stored);
+      tag(key, value);
+    }
+    return unwrap(existing);
+  }
+
+  @Override
+  public void evict(Object key) {
+    metrics.eviction("key");
+    l2.evict(key);
+    l1Evict(key);
+    bus.publishEvict(name, key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    metrics.eviction("key");
+    boolean present = l2.evictIfPresent(key);
+    l1Evict(key);
+    bus.publishEvict(name, key);
+    return present;
+  }
+
+  @Override
+  public void clear() {
+    metrics.eviction("clear");
+    l2.clear();
+    l1Clear();
+    bus.publishClear(name);
+  }
+
+  @Override
+  public boolean invalidate() {
+    metrics.eviction("clear");
+    boolean hadEntries = l2.invalidate();
+    l1Clear();
+    bus.publishClear(name);
+    return hadEntries;
+  }
+
+  // Chỉ xóa L1 của node này (gọi khi nhận invalidation từ replica khác)
+  void evictLocal(String key) {
+    if (key == null) {
+      l1Clear();
+    } else {
+      l1Evict(key);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.cache;
+
+import com.example.backend.config.AppCacheProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Bọc CacheManager L2 (Redis) và gắn thêm L1 Caffeine cho từng cache name
+ * theo {@link AppCacheProperties.Spec}. Cache có l1MaxWeight = 0 chỉ dùng L2.
+ */
+public class TwoLevelCacheManager implements CacheManager, DisposableBean {
+
+  private final CacheManager l2Manager;
+  private final AppCacheProperties properties;
+  private final CacheInvalidationBus bus;
+  private final CacheTagIndex tagIndex;
+  private final CacheLoadLease lease;
+  private final MeterRegistry meterRegistry;
+  private final Function<String, CacheMetrics> metrics;
+  private final CircuitBreaker l2Breaker;
+  private final Map<String, CacheTagger> taggers = new ConcurrentHashMap<>();
+  private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+  // Executor chung cho refresh-ahead; hàng đợi có giới hạn, đầy thì bỏ qua (vẫn phục vụ giá trị cũ)
+  private final ThreadPoolExecutor refreshExecutor;
+
+  public TwoLevelCacheManager(CacheManager l2Manager, AppCacheProperties properties,
+                              CacheInvalidationBus bus, CacheTagIndex tagIndex, CacheLoadLease lease,
+                              MeterRegistry meterRegistry, Function<String, CacheMetrics> metrics,
+                              CircuitBreaker l2Breaker) {
+    this.l2Manager = l2Manager;
+    this.properties = properties;
+    this.bus = bus;
+    this.tagIndex = tagIndex;
+    this.lease = lease;
+    this.meterRegistry = meterRegistry;
+    this.metrics = metrics;
+    this.l2Breaker = l2Breaker;
+    AtomicInteger seq = new AtomicInteger();
+    this.refreshExecutor = new ThreadPoolExecutor(
+        properties.getRefreshThreads(), properties.getRefreshThreads(), 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(properties.getRefreshQueueCapacity()),
+        r -> {
+          Thread t = new Thread(r, "cache-refresh-" + seq.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.refreshExecutor.allowCoreThreadTimeOut(true);
+    bus.addListener(this::evictLocal);
+    tagIndex.setInvalidationListener((cacheName, evicted) -> metrics.apply(cacheName).evictions("tag", evicted));
+  }
+
+  // Gắn tagger cho cache name, phải gọi trước khi cache được dùng lần đầu
+  public TwoLevelCacheManager withTagger(String cacheName, CacheTagger tagger) {
+    taggers.put(cacheName, tagger);
+    return this;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    Cache existing = caches.get(name);
+    if (existing != null) {
+      return existing;
+    }
+    Cache l2 = l2Manager.getCache(name);
+    if (l2 == null) {
+      return null;
+    }
+    return caches.computeIfAbsent(name, n -> decorate(n, l2));
+  }
+
+  private Cache decorate(String name, Cache l2) {
+    if (l2Breaker != null) {
+      CircuitBreakingCache guarded = new CircuitBreakingCache(l2, l2Breaker, properties.getMaxPendingEvictions());
+      if (meterRegistry != null) {
+        Gauge.builder("cache.l2.pending.evictions", guarded, CircuitBreakingCache::getPendingEvictions)
+            .description("Evictions queued while the Redis circuit breaker is open")
+            .tag("cache", name)
+            .register(meterRegistry);
+      }
+      l2 = guarded;
+    }
+    return new TwoLevelCache(name, l2, properties.specFor(name), bus, tagIndex, taggers.get(name), lease,
+        refreshExecutor, metrics.apply(name));
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return l2Manager.getCacheNames();
+  }
+
+  @Override
+  public void destroy() {
+    refreshExecutor.shutdownNow();
+  }
+
+  // Xóa L1 mọi cache trên node này (warm lại sau khi Redis mất dữ liệu: get phải đi xuống L2 / loader)
+  public void clearLocal() {
+    for (Cache cache : caches.values()) {
+      if (cache instanceof TwoLevelCache twoLevel) {
+        twoLevel.evictLocal(null);
+      }
+    }
+  }
+
+  private void evictLocal(String cacheName, String key) {
+    if (caches.get(cacheName) instanceof TwoLevelCache cache) {
+      cache.evictLocal(key);
+    }
+  }
+}
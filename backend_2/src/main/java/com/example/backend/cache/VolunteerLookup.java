@@ -0,0 +1,66 @@
+package com.example.backend.cache;
+
+import com.example.backend.entity.Volunteer;
+import com.example.backend.repo.VolunteerRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static com.example.backend.config.RedisCacheConfig.UNKNOWN_VOLUNTEERS;
+
+/**
+ * Tra volunteer theo email, nhớ ngắn hạn các email KHÔNG có trong DB
+ * (token cũ, message rác) để không query MySQL lặp lại.
+ * Volunteer mới tạo phải gọi {@link #forgetUnknown(String)}.
+ */
+@Component
+@RequiredArgsConstructor
+public class VolunteerLookup {
+
+  private final CacheManager cacheManager;
+  private final VolunteerRepository volunteerRepository;
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+
+  public Optional<Volunteer> findByEmail(String email) {
+    if (email == null || email.isBlank()) {
+      return Optional.empty();
+    }
+    String key = key(email);
+    Cache unknown = cacheManager.getCache(UNKNOWN_VOLUNTEERS);
+    if (unknown != null && unknown.get(key) != null) {
+      return Optional.empty();
+    }
+    Optional<Volunteer> volunteer = volunteerRepository.findByVolunteerEmail(email);
+    if (volunteer.isEmpty() && unknown != null) {
+      try {
+        unknown.put(key, NegativeEntry.INSTANCE);
+      } catch (Exception e) {
+        logger.debug("Cannot remember unknown volunteer {}: {}", email, e.getMessage());
+      }
+    }
+    return volunteer;
+  }
+
+  // Gọi khi tạo volunteer: xóa marker "không tồn tại" (sau commit) trên mọi replica
+  public void forgetUnknown(String email) {
+    if (email == null || email.isBlank()) {
+      return;
+    }
+    AfterCommit.run(logger, "Unknown volunteer eviction", () -> {
+      Cache unknown = cacheManager.getCache(UNKNOWN_VOLUNTEERS);
+      if (unknown != null) {
+        unknown.evict(key(email));
+      }
+    });
+  }
+
+  private static String key(String email) {
+    return email.trim().toLowerCase(Locale.ROOT);
+  }
+}
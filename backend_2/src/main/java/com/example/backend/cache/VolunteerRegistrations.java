@@ -0,0 +1,187 @@
+package com.example.backend.cache;
+
+import com.example.backend.repo.VolunteerRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Các bài 1 volunteer đã gửi request kèm trạng thái, giữ trong Redis hash
+ * "vhub::registrations::{email}" (field = postId, value = status).
+ *
+ * - Ghi: consumer / approve / reject / xóa request cập nhật sau commit, chỉ khi
+ *   hash đã tồn tại (hash thiếu thì lần đọc sau nạp lại từ DB).
+ * - Đọc: HMGET các postId cần hỏi + field mốc "_" trong 1 round trip; thiếu mốc
+ *   (chưa nạp / hết TTL) thì 1 truy vấn lấy mọi (postId, status) của volunteer rồi ghi vào Redis.
+ * - Nạp: đặt field "~" = token riêng trước khi đọc DB; lần ghi nào rơi vào lúc hash chưa nạp
+ *   đều xóa "~", nên STORE chỉ cài khi token còn nguyên (ảnh chụp DB không cũ hơn lần ghi đó).
+ * Redis lỗi thì đọc thẳng từ DB.
+ */
+@Component
+public class VolunteerRegistrations {
+
+  static final String KEY_PREFIX = "vhub::registrations::";
+  // có mặt = hash đã nạp đầy đủ (volunteer chưa gửi request nào vẫn có hash chỉ chứa mốc)
+  static final String LOADED = "_";
+  // token của lần nạp đang chạy; ghi xen giữa xóa field này -> lần nạp đó không được cài
+  static final String LOADING = "~";
+
+  // KEYS[1] = hash; ARGV = [field, value (rỗng = HDEL)]. Hash chưa nạp -> hủy lần nạp đang chạy và bỏ qua
+  private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('HEXISTS', KEYS[1], '" + LOADED + "') == 0 then "
+          + "redis.call('HDEL', KEYS[1], '" + LOADING + "') return 0 end "
+          + "if ARGV[2] == '' then redis.call('HDEL', KEYS[1], ARGV[1]) "
+          + "else redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) end "
+          + "return 1",
+      Long.class);
+
+  // KEYS[1] = hash; ARGV = [token, ttl ms]. Đánh dấu bắt đầu nạp (trước khi đọc DB)
+  private static final RedisScript<Long> BEGIN_LOAD_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('HEXISTS', KEYS[1], '" + LOADED + "') == 1 then return 0 end "
+          + "redis.call('HSET', KEYS[1], '" + LOADING + "', ARGV[1]) "
+          + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+          + "return 1",
+      Long.class);
+
+  // KEYS[1] = hash; ARGV = [token, ttl ms, rồi từng cặp field, value]. Chỉ ghi khi chưa nạp và
+  // token còn nguyên (không có lần ghi / lần nạp khác xen giữa)
+  private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('HEXISTS', KEYS[1], '" + LOADED + "') == 1 then return 0 end "
+          + "if redis.call('HGET', KEYS[1], '" + LOADING + "') ~= ARGV[1] then return 0 end "
+          + "redis.call('DEL', KEYS[1]) "
+          + "redis.call('HSET', KEYS[1], '" + LOADED + "', '1') "
+          + "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+          + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+          + "return 1",
+      Long.class);
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final StringRedisTemplate redisTemplate;
+  private final VolunteerRequestRepository requestRepository;
+  private final Duration ttl;
+
+  public VolunteerRegistrations(StringRedisTemplate redisTemplate, VolunteerRequestRepository requestRepository,
+                                @Value("${app.registrations.ttl:1h}") Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.requestRepository = requestRepository;
+    this.ttl = ttl;
+  }
+
+  static String key(String email) {
+    return KEY_PREFIX + email.toLowerCase(Locale.ROOT);
+  }
+
+  // --- ghi (sau commit) ---
+
+  public void requestCreated(String email, Long postId) {
+    apply(email, postId, "Pending");
+  }
+
+  public void statusChanged(String email, Long postId, String status) {
+    apply(email, postId, status);
+  }
+
+  public void requestRemoved(String email, Long postId) {
+    apply(email, postId, "");
+  }
+
+  private void apply(String email, Long postId, String status) {
+    if (email == null || postId == null) {
+      return;
+    }
+    AfterCommit.run(logger, "Registration set update",
+        () -> redisTemplate.execute(APPLY_SCRIPT, List.of(key(email)), String.valueOf(postId), status));
+  }
+
+  // --- đọc ---
+
+  /**
+   * Trạng thái request của volunteer cho từng bài hỏi tới; bài chưa đăng ký không có trong map.
+   * 1 round trip Redis; thêm 1 truy vấn DB khi hash chưa nạp.
+   */
+  public Map<Long, String> statuses(String email, Collection<Long> postIds) {
+    Map<Long, String> result = new LinkedHashMap<>();
+    if (email == null || postIds.isEmpty()) {
+      return result;
+    }
+    List<Long> ids = new ArrayList<>(postIds);
+    List<Object> fields = new ArrayList<>(ids.size() + 1);
+    fields.add(LOADED);
+    for (Long id : ids) {
+      fields.add(String.valueOf(id));
+    }
+    try {
+      List<Object> values = redisTemplate.opsForHash().multiGet(key(email), fields);
+      if (values != null && values.get(0) != null) {
+        for (int i = 0; i < ids.size(); i++) {
+          Object v = values.get(i + 1);
+          if (v != null) {
+            result.put(ids.get(i), (String) v);
+          }
+        }
+        return result;
+      }
+    } catch (Exception e) {
+      logger.warn("Registration set read failed for {}, using DB: {}", email, e.getMessage());
+      return pick(loadFromDb(email), ids);
+    }
+
+    String token = UUID.randomUUID().toString();
+    boolean loading = false;
+    try {
+      loading = Long.valueOf(1).equals(redisTemplate.execute(BEGIN_LOAD_SCRIPT, List.of(key(email)),
+          token, String.valueOf(ttl.toMillis())));
+    } catch (Exception e) {
+      logger.warn("Failed to mark registration set load for {}: {}", email, e.getMessage());
+    }
+    Map<Long, String> all = loadFromDb(email);
+    if (!loading) {
+      return pick(all, ids);
+    }
+    try {
+      List<String> args = new ArrayList<>(all.size() * 2 + 2);
+      args.add(token);
+      args.add(String.valueOf(ttl.toMillis()));
+      all.forEach((postId, status) -> {
+        args.add(String.valueOf(postId));
+        args.add(status);
+      });
+      redisTemplate.execute(STORE_SCRIPT, List.of(key(email)), args.toArray());
+    } catch (Exception e) {
+      logger.warn("Failed to store registration set for {}: {}", email, e.getMessage());
+    }
+    return pick(all, ids);
+  }
+
+  Map<Long, String> loadFromDb(String email) {
+    Map<Long, String> all = new LinkedHashMap<>();
+    for (var row : requestRepository.findPostStatusesByVolunteerEmail(email)) {
+      all.put(row.getPostId(), row.getStatus());
+    }
+    return all;
+  }
+
+  private static Map<Long, String> pick(Map<Long, String> all, List<Long> ids) {
+    Map<Long, String> result = new LinkedHashMap<>();
+    for (Long id : ids) {
+      String status = all.get(id);
+      if (status != null) {
+        result.put(id, status);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,352 @@
+package com.example.backend.cache.codec;
+
+import com.example.backend.cache.NegativeEntry;
+import com.example.backend.cache.StampedValue;
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.dto.VolunteerRequestDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec nhị phân gọn, biết trước schema của các DTO được cache.
+ *
+ * - Mỗi DTO: 1 tag + bitmask các field khác null + các field theo thứ tự cố định.
+ * - Số nguyên dùng varint (zigzag), LocalDate ghi epochDay.
+ * - Chuỗi lặp lại trong cùng 1 value (category, orgEmail, thumbnail...) ghi 1 lần,
+ *   các lần sau chỉ ghi chỉ số trong bảng chuỗi.
+ * - Page chỉ ghi (pageNumber, pageSize, totalElements, content), không ghi cả
+ *   PageImpl/Pageable; Sort không được giữ lại (các query đang cache không sort động).
+ * - Kiểu khác rơi về Java serialization bên trong tag riêng.
+ */
+public class BinaryCacheValueCodec implements CacheValueCodec {
+
+  public static final String NAME = "binary";
+
+  private static final int TAG_NULL = 0;
+  private static final int TAG_POST = 1;
+  private static final int TAG_REQUEST = 2;
+  private static final int TAG_LIST = 3;
+  private static final int TAG_PAGE = 4;
+  private static final int TAG_STRING = 5;
+  private static final int TAG_LONG = 6;
+  private static final int TAG_STAMPED = 7;
+  private static final int TAG_NEGATIVE = 8;
+  private static final int TAG_JDK = 127;
+
+  private final JdkCacheValueCodec fallback = new JdkCacheValueCodec();
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(Object value) {
+    Writer w = new Writer();
+    writeValue(w, value);
+    return w.toByteArray();
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    try {
+      return readValue(new Reader(ByteBuffer.wrap(bytes)));
+    } catch (RuntimeException e) {
+      throw new SerializationException("Cannot decode binary cache value", e);
+    }
+  }
+
+  // ===== encode =====
+
+  private void writeValue(Writer w, Object value) {
+    if (value == null) {
+      w.writeByte(TAG_NULL);
+    } else if (value instanceof VolunteerPostDto post) {
+      w.writeByte(TAG_POST);
+      writePost(w, post);
+    } else if (value instanceof VolunteerRequestDto request) {
+      w.writeByte(TAG_REQUEST);
+      writeRequest(w, request);
+    } else if (value instanceof Page<?> page) {
+      w.writeByte(TAG_PAGE);
+      Pageable pageable = page.getPageable();
+      w.writeVarLong(pageable.isPaged() ? pageable.getPageNumber() : 0);
+      w.writeVarLong(pageable.isPaged() ? pageable.getPageSize() : 0);
+      w.writeVarLong(page.getTotalElements());
+      writeElements(w, page.getContent());
+    } else if (value instanceof Collection<?> list) {
+      w.writeByte(TAG_LIST);
+      writeElements(w, list);
+    } else if (value instanceof String s) {
+      w.writeByte(TAG_STRING);
+      w.writeString(s);
+    } else if (value instanceof Long l) {
+      w.writeByte(TAG_LONG);
+      w.writeZigZag(l);
+    } else if (value instanceof NegativeEntry) {
+      w.writeByte(TAG_NEGATIVE);
+    } else if (value instanceof StampedValue stamped) {
+      w.writeByte(TAG_STAMPED);
+      w.writeVarLong(stamped.getWrittenAt());
+      w.writeVarLong(stamped.getComputeMillis());
+      writeValue(w, stamped.getValue());
+    } else {
+      w.writeByte(TAG_JDK);
+      w.writeBytes(fallback.encode(value));
+    }
+  }
+
+  private void writeElements(Writer w, Collection<?> elements) {
+    w.writeVarLong(elements.size());
+    for (Object element : elements) {
+      writeValue(w, element);
+    }
+  }
+
+  private void writePost(Writer w, VolunteerPostDto p) {
+    Object[] fields = {
+        p.getId(), p.getPostTitle(), p.getCategory(), p.getDeadline(), p.getLocation(),
+        p.getDescription(), p.getThumbnail(), p.getNoOfVolunteer(), p.getOrgName(), p.getOrgEmail()
+    };
+    writePresence(w, fields);
+    if (p.getId() != null) w.writeZigZag(p.getId());
+    if (p.getPostTitle() != null) w.writeSharedString(p.getPostTitle());
+    if (p.getCategory() != null) w.writeSharedString(p.getCategory());
+    if (p.getDeadline() != null) w.writeZigZag(p.getDeadline().toEpochDay());
+    if (p.getLocation() != null) w.writeSharedString(p.getLocation());
+    if (p.getDescription() != null) w.writeString(p.getDescription());
+    if (p.getThumbnail() != null) w.writeSharedString(p.getThumbnail());
+    if (p.getNoOfVolunteer() != null) w.writeZigZag(p.getNoOfVolunteer());
+    if (p.getOrgName() != null) w.writeSharedString(p.getOrgName());
+    if (p.getOrgEmail() != null) w.writeSharedString(p.getOrgEmail());
+  }
+
+  private void writeRequest(Writer w, VolunteerRequestDto r) {
+    Object[] fields = {
+        r.getId(), r.getPostId(), r.getPostTitle(), r.getOrgEmail(), r.getDeadline(),
+        r.getLocation(), r.getCategory(), r.getStatus(), r.getVolunteerEmail()
+    };
+    writePresence(w, fields);
+    if (r.getId() != null) w.writeZigZag(r.getId());
+    if (r.getPostId() != null) w.writeZigZag(r.getPostId());
+    if (r.getPostTitle() != null) w.writeSharedString(r.getPostTitle());
+    if (r.getOrgEmail() != null) w.writeSharedString(r.getOrgEmail());
+    if (r.getDeadline() != null) w.writeSharedString(r.getDeadline());
+    if (r.getLocation() != null) w.writeSharedString(r.getLocation());
+    if (r.getCategory() != null) w.writeSharedString(r.getCategory());
+    if (r.getStatus() != null) w.writeSharedString(r.getStatus());
+    if (r.getVolunteerEmail() != null) w.writeSharedString(r.getVolunteerEmail());
+  }
+
+  private static void writePresence(Writer w, Object[] fields) {
+    long mask = 0;
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] != null) {
+        mask |= 1L << i;
+      }
+    }
+    w.writeVarLong(mask);
+  }
+
+  // ===== decode =====
+
+  private Object readValue(Reader r) {
+    int tag = r.readByte();
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_POST:
+        return readPost(r);
+      case TAG_REQUEST:
+        return readRequest(r);
+      case TAG_PAGE: {
+        int number = (int) r.readVarLong();
+        int size = (int) r.readVarLong();
+        long total = r.readVarLong();
+        List<Object> content = readElements(r);
+        Pageable pageable = size > 0 ? PageRequest.of(number, size) : Pageable.unpaged();
+        return new PageImpl<>(content, pageable, total);
+      }
+      case TAG_LIST:
+        return readElements(r);
+      case TAG_STRING:
+        return r.readString();
+      case TAG_LONG:
+        return r.readZigZag();
+      case TAG_NEGATIVE:
+        return NegativeEntry.INSTANCE;
+      case TAG_STAMPED: {
+        long writtenAt = r.readVarLong();
+        long computeMillis = r.readVarLong();
+        return new StampedValue(readValue(r), writtenAt, computeMillis);
+      }
+      case TAG_JDK:
+        return fallback.decode(r.readBytes());
+      default:
+        throw new IllegalStateException("Unknown cache value tag " + tag);
+    }
+  }
+
+  private List<Object> readElements(Reader r) {
+    int n = (int) r.readVarLong();
+    List<Object> elements = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      elements.add(readValue(r));
+    }
+    return elements;
+  }
+
+  private VolunteerPostDto readPost(Reader r) {
+    long mask = r.readVarLong();
+    VolunteerPostDto p = new VolunteerPostDto();
+    if (has(mask, 0)) p.setId(r.readZigZag());
+    if (has(mask, 1)) p.setPostTitle(r.readSharedString());
+    if (has(mask, 2)) p.setCategory(r.readSharedString());
+    if (has(mask, 3)) p.setDeadline(LocalDate.ofEpochDay(r.readZigZag()));
+    if (has(mask, 4)) p.setLocation(r.readSharedString());
+    if (has(mask, 5)) p.setDescription(r.readString());
+    if (has(mask, 6)) p.setThumbnail(r.readSharedString());
+    if (has(mask, 7)) p.setNoOfVolunteer((int) r.readZigZag());
+    if (has(mask, 8)) p.setOrgName(r.readSharedString());
+    if (has(mask, 9)) p.setOrgEmail(r.readSharedString());
+    return p;
+  }
+
+  private VolunteerRequestDto readRequest(Reader r) {
+    long mask = r.readVarLong();
+    VolunteerRequestDto d = new VolunteerRequestDto();
+    if (has(mask, 0)) d.setId(r.readZigZag());
+    if (has(mask, 1)) d.setPostId(r.readZigZag());
+    if (has(mask, 2)) d.setPostTitle(r.readSharedString());
+    if (has(mask, 3)) d.setOrgEmail(r.readSharedString());
+    if (has(mask, 4)) d.setDeadline(r.readSharedString());
+    if (has(mask, 5)) d.setLocation(r.readSharedString());
+    if (has(mask, 6)) d.setCategory(r.readSharedString());
+    if (has(mask, 7)) d.setStatus(r.readSharedString());
+    if (has(mask, 8)) d.setVolunteerEmail(r.readSharedString());
+    return d;
+  }
+
+  private static boolean has(long mask, int bit) {
+    return (mask & (1L << bit)) != 0;
+  }
+
+  // ===== primitives =====
+
+  private static final class Writer {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private final Map<String, Integer> shared = new HashMap<>();
+
+    void writeByte(int b) {
+      out.write(b);
+    }
+
+    void writeVarLong(long v) {
+      while ((v & ~0x7FL) != 0) {
+        out.write((int) ((v & 0x7F) | 0x80));
+        v >>>= 7;
+      }
+      out.write((int) v);
+    }
+
+    void writeZigZag(long v) {
+      writeVarLong((v << 1) ^ (v >> 63));
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      out.write(bytes, 0, bytes.length);
+    }
+
+    void writeString(String s) {
+      writeBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 0 = chuỗi mới theo sau; n > 0 = chuỗi thứ n-1 đã ghi trước đó
+    void writeSharedString(String s) {
+      Integer ref = shared.get(s);
+      if (ref != null) {
+        writeVarLong(ref + 1L);
+        return;
+      }
+      writeVarLong(0);
+      writeString(s);
+      shared.put(s, shared.size());
+    }
+
+    byte[] toByteArray() {
+      return out.toByteArray();
+    }
+  }
+
+  private static final class Reader {
+    private final ByteBuffer buf;
+    private final List<String> shared = new ArrayList<>();
+
+    Reader(ByteBuffer buf) {
+      this.buf = buf;
+    }
+
+    int readByte() {
+      return buf.get() & 0xFF;
+    }
+
+    long readVarLong() {
+      long result = 0;
+      int shift = 0;
+      while (true) {
+        int b = buf.get() & 0xFF;
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+        shift += 7;
+        if (shift > 63) {
+          throw new IllegalStateException("Malformed varint");
+        }
+      }
+    }
+
+    long readZigZag() {
+      long v = readVarLong();
+      return (v >>> 1) ^ -(v & 1);
+    }
+
+    byte[] readBytes() {
+      int len = (int) readVarLong();
+      byte[] bytes = new byte[len];
+      buf.get(bytes);
+      return bytes;
+    }
+
+    String readString() {
+      return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    String readSharedString() {
+      int ref = (int) readVarLong();
+      if (ref > 0) {
+        return shared.get(ref - 1);
+      }
+      String s = readString();
+      shared.add(s);
+      return s;
+    }
+  }
+}
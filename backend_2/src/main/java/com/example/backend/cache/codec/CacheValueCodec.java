@@ -0,0 +1,14 @@
+package com.example.backend.cache.codec;
+
+/**
+ * Mã hóa / giải mã value trước khi ghi vào Redis. Chọn theo từng cache name
+ * (app.cache.specs.&lt;name&gt;.codec), xem {@link CacheValueCodecs}.
+ */
+public interface CacheValueCodec {
+
+  String name();
+
+  byte[] encode(Object value);
+
+  Object decode(byte[] bytes);
+}
@@ -0,0 +1,25 @@
+package com.example.backend.cache.codec;
+
+import java.util.Map;
+
+/**
+ * Tra codec theo tên cấu hình ("binary" | "jdk").
+ */
+public final class CacheValueCodecs {
+
+  private static final Map<String, CacheValueCodec> CODECS = Map.of(
+      BinaryCacheValueCodec.NAME, new BinaryCacheValueCodec(),
+      JdkCacheValueCodec.NAME, new JdkCacheValueCodec()
+  );
+
+  private CacheValueCodecs() {
+  }
+
+  public static CacheValueCodec forName(String name) {
+    CacheValueCodec codec = CODECS.get(name == null ? BinaryCacheValueCodec.NAME : name.trim().toLowerCase());
+    if (codec == null) {
+      throw new IllegalArgumentException("Unknown cache codec: " + name);
+    }
+    return codec;
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.backend.cache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * RedisSerializer dùng {@link CacheValueCodec} + nén LZ4 khi value vượt ngưỡng.
+ *
+ * Layout: [1 byte header][payload]
+ *   header 0x01: payload là bytes của codec
+ *   header 0x02: [4 byte độ dài gốc][LZ4 block]
+ * Entry cũ do JdkSerializationRedisSerializer ghi (bắt đầu bằng 0xAC 0xED) vẫn đọc được.
+ */
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+  private static final byte FORMAT_RAW = 0x01;
+  private static final byte FORMAT_LZ4 = 0x02;
+  private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+  private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+  private final CacheValueCodec codec;
+  // <= 0: không nén
+  private final int compressThresholdBytes;
+  private final LZ4Compressor compressor = LZ4.fastCompressor();
+  private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+  private final JdkCacheValueCodec legacy = new JdkCacheValueCodec();
+  // Nhận kích thước bytes thực ghi vào Redis (metric)
+  private final IntConsumer sizeRecorder;
+
+  public CodecRedisSerializer(CacheValueCodec codec, int compressThresholdBytes) {
+    this(codec, compressThresholdBytes, size -> { });
+  }
+
+  public CodecRedisSerializer(CacheValueCodec codec, int compressThresholdBytes, IntConsumer sizeRecorder) {
+    this.codec = codec;
+    this.compressThresholdBytes = compressThresholdBytes;
+    this.sizeRecorder = sizeRecorder;
+  }
+
+  public CacheValueCodec getCodec() {
+    return codec;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    byte[] raw = codec.encode(value);
+    if (compressThresholdBytes > 0 && raw.length > compressThresholdBytes) {
+      byte[] packed = new byte[5 + compressor.maxCompressedLength(raw.length)];
+      int len = compressor.compress(raw, 0, raw.length, packed, 5);
+      // Chỉ giữ bản nén nếu thực sự nhỏ hơn
+      if (len + 5 < raw.length + 1) {
+        packed[0] = FORMAT_LZ4;
+        ByteBuffer.wrap(packed, 1, 4).putInt(raw.length);
+        byte[] out = new byte[len + 5];
+        System.arraycopy(packed, 0, out, 0, out.length);
+        sizeRecorder.accept(out.length);
+        return out;
+      }
+    }
+    byte[] out = new byte[raw.length + 1];
+    out[0] = FORMAT_RAW;
+    System.arraycopy(raw, 0, out, 1, raw.length);
+    sizeRecorder.accept(out.length);
+    return out;
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    switch (bytes[0]) {
+      case FORMAT_RAW: {
+        byte[] raw = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, raw, 0, raw.length);
+        return codec.decode(raw);
+      }
+      case FORMAT_LZ4: {
+        int originalLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        byte[] raw = new byte[originalLength];
+        decompressor.decompress(bytes, 5, raw, 0, originalLength);
+        return codec.decode(raw);
+      }
+      case JDK_STREAM_MAGIC:
+        return legacy.decode(bytes);
+      default:
+        throw new SerializationException("Unknown cache value header " + bytes[0]);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.cache.codec;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+/**
+ * Codec cũ: Java serialization (giữ lại để so sánh và làm fallback).
+ */
+public class JdkCacheValueCodec implements CacheValueCodec {
+
+  public static final String NAME = "jdk";
+
+  private final JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public byte[] encode(Object value) {
+    return serializer.serialize(value);
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    return serializer.deserialize(bytes);
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình tầng cache (prefix "app.cache").
+ *
+ * Ví dụ:
+ *   app.cache.specs.postById.ttl=5m
+ *   app.cache.specs.postById.l1-ttl=30s
+ *   app.cache.specs.postById.l1-max-weight=5000
+ *   app.cache.specs.postById.codec=binary
+ *   app.cache.specs.postById.compress-threshold=1KB
+ *   app.cache.specs.homeTop6.soft-ttl=50s   (refresh-ahead; ttl là hard TTL)
+ *   app.cache.specs.postById.negative-ttl=30s (cache kết quả "không tồn tại")
+ */
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+  // Redis pub/sub channel dùng để báo các replica xóa L1
+  private String invalidationChannel = "vhub:cache:invalidate";
+
+  // Cấu hình riêng cho từng cache name
+  private Map<String, Spec> specs = new HashMap<>();
+
+  // Số thread / hàng đợi cho refresh-ahead ở background
+  private int refreshThreads = 2;
+  private int refreshQueueCapacity = 64;
+
+  // Số evict tối đa xếp hàng / cache khi breaker Redis mở; vượt thì replay bằng clear
+  private int maxPendingEvictions = 10_000;
+
+  // Warm-up cache lúc khởi động / sau khi Redis bị flush
+  private Warmup warmup = new Warmup();
+
+  public Spec specFor(String cacheName) {
+    return specs.getOrDefault(cacheName, new Spec());
+  }
+
+  @Data
+  public static class Warmup {
+    private boolean enabled = true;
+    // Số trang đầu của danh sách bài (kích thước trang giống controller)
+    private int postPages = 3;
+    private int pageSize = 15;
+    // Số bài xem nhiều nhất được nạp chi tiết; ZSET chỉ giữ tối đa hotPostsRetained bài
+    private int hotPosts = 50;
+    private int hotPostsRetained = 1000;
+    // Tỉ lệ lượt xem được ghi vào ZSET bài nóng
+    private double hotSampleRate = 0.1;
+    private int concurrency = 4;
+    // Quá thời gian này vẫn báo ready
+    private Duration timeout = Duration.ofSeconds(20);
+    private Duration sentinelCheckInterval = Duration.ofSeconds(10);
+  }
+
+  @Data
+  public static class Spec {
+    // TTL của entry trong Redis (L2) = hard TTL
+    private Duration ttl = Duration.ofSeconds(60);
+    // TTL của L1 (in-heap), nên ngắn hơn TTL của Redis
+    private Duration l1Ttl = Duration.ofSeconds(10);
+    // Tổng "trọng số" tối đa của L1; 1 DTO = 1 đơn vị, 0 = tắt L1
+    private long l1MaxWeight = 1000;
+    // Codec cho value ghi vào Redis: "binary" (mặc định) hoặc "jdk"
+    private String codec = "binary";
+    // Nén LZ4 khi value đã encode lớn hơn ngưỡng này; 0 = không nén
+    private DataSize compressThreshold = DataSize.ofBytes(1024);
+    // > 0: khi miss, chỉ 1 replica được load key này trong khoảng thời gian lease
+    private Duration loadLease = Duration.ZERO;
+    // > 0: bật refresh-ahead, quá soft TTL vẫn trả giá trị cũ và refresh ở background
+    private Duration softTtl = Duration.ZERO;
+    // Hệ số early refresh (XFetch); lớn hơn = refresh sớm hơn
+    private double refreshBeta = 1.0;
+    // > 0: lưu kết quả null (không tồn tại) với TTL ngắn này
+    private Duration negativeTtl = Duration.ZERO;
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Số consumer / prefetch của các listener RabbitMQ được scale (prefix "app.messaging.scaling").
+ * Listener đăng ký không nằm ở đây: thông lượng của nó chỉnh bằng app.messaging.request-partitions.count.
+ *
+ * Ví dụ:
+ *   app.messaging.scaling.deletes.min=1
+ *   app.messaging.scaling.deletes.max=2
+ *   app.messaging.scaling.deletes.prefetch=10
+ *   app.messaging.scaling.max-db-connections=8
+ */
+@Data
+@ConfigurationProperties(prefix = "app.messaging.scaling")
+public class ListenerScalingProperties {
+
+  private boolean enabled = true;
+  private Duration interval = Duration.ofSeconds(5);
+
+  // Số message tồn trong queue mỗi consumer được giao trước khi thêm consumer
+  private int messagesPerConsumer = 200;
+
+  // Utilization (thời gian xử lý / thời gian) trên ngưỡng này thì thêm consumer dù queue nông
+  private double scaleUpUtilization = 0.8;
+  private double scaleDownUtilization = 0.5;
+
+  // Bớt consumer chỉ sau N chu kỳ liên tiếp dư, mỗi lần bớt 1
+  private int scaleDownCycles = 3;
+
+  // Tổng consumer của mọi listener (kể cả consumer đăng ký cố định); mỗi consumer giữ tối đa
+  // 1 connection DB -> phần còn lại của pool cho HTTP
+  private int maxDbConnections = 8;
+
+  private Pool deletes = new Pool(1, 2, 10);
+
+  @Data
+  public static class Pool {
+    private int min;
+    private int max;
+    private int prefetch;
+
+    public Pool() {
+    }
+
+    public Pool(int min, int max, int prefetch) {
+      this.min = min;
+      this.max = max;
+      this.prefetch = prefetch;
+    }
+  }
+}
@@ -1,24 +1,47 @@
 package com.example.backend.config;
 
+import com.example.backend.cache.CacheInvalidationBus;
+import com.example.backend.cache.CacheLoadLease;
+import com.example.backend.cache.CacheMetrics;
+import com.example.backend.cache.CacheTagIndex;
+import com.example.backend.cache.CacheTags;
+import com.example.backend.cache.NegativeEntry;
+import com.example.backend.cache.TwoLevelCacheManager;
+import com.example.backend.cache.codec.CacheValueCodecs;
+import com.example.backend.cache.codec.CodecRedisSerializer;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.LoggingCacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Configuration
-@EnableCaching
+// Cache interceptor chạy ngoài cùng: cache hit / thread đang chờ single-flight không chiếm permit bulkhead
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
 @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
-public class RedisCacheConfig {
+public class RedisCacheConfig implements CachingConfigurer {
 
   // Tên cache thống nhất
   public static final String HOME_TOP6 = "homeTop6";
@@ -26,31 +49,92 @@ public class RedisCacheConfig {
   public static final String POST_BY_ID = "postById";
   public static final String MY_POSTS_BY_EMAIL = "myPostsByEmail";
   public static final String MY_REQUESTS_BY_EMAIL = "myRequestsByEmail";
+  // Chỉ chứa email KHÔNG có trong DB (negative cache)
+  public static final String UNKNOWN_VOLUNTEERS = "unknownVolunteers";
 
+  // Circuit breaker quanh Redis cache (resilience4j.circuitbreaker.instances.redisCache.*)
+  public static final String REDIS_CACHE_BREAKER = "redisCache";
+
+  // Lỗi cache không làm hỏng request: log rồi gọi thẳng method / bỏ qua ghi
+  @Override
+  public CacheErrorHandler errorHandler() {
+    return new LoggingCacheErrorHandler(RedisCacheConfig.class.getName(), false);
+  }
+
+  @Bean
+  public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate, AppCacheProperties props) {
+    return new CacheInvalidationBus(redisTemplate, props.getInvalidationChannel());
+  }
+
+  // Listener nhận invalidation từ các replica khác để xóa L1
   @Bean
-  public CacheManager cacheManager(RedisConnectionFactory cf) {
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory cf,
+                                                                         CacheInvalidationBus bus) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    container.addMessageListener(bus, new ChannelTopic(bus.getChannel()));
+    return container;
+  }
 
-    JdkSerializationRedisSerializer valueSerializer = new JdkSerializationRedisSerializer();
+  @Bean
+  public CacheManager cacheManager(RedisConnectionFactory cf, AppCacheProperties props,
+                                   CacheInvalidationBus bus, CacheTagIndex tagIndex, CacheLoadLease lease,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   CircuitBreakerRegistry circuitBreakerRegistry) {
 
     RedisCacheConfiguration defaultCfg = RedisCacheConfiguration
         .defaultCacheConfig()
         .disableCachingNullValues()
-        .serializeValuesWith(
-            RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer)
-        )
         .prefixCacheNameWith("vhub::")
         .entryTtl(Duration.ofSeconds(60)); // TTL mặc định
 
+    // Metric theo cache name, dùng chung cho serializer (kích thước value) và TwoLevelCache
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    Map<String, CacheMetrics> metrics = new ConcurrentHashMap<>();
+    Function<String, CacheMetrics> metricsFor = name -> metrics.computeIfAbsent(name, n -> new CacheMetrics(n, registry));
+
+    // TTL từng cache lấy từ app.cache.specs.<name>.ttl
     Map<String, RedisCacheConfiguration> cfgMap = new HashMap<>();
-    cfgMap.put(HOME_TOP6,           defaultCfg.entryTtl(Duration.ofSeconds(60)));
-    cfgMap.put(POSTS,               defaultCfg.entryTtl(Duration.ofSeconds(60)));
-    cfgMap.put(POST_BY_ID,          defaultCfg.entryTtl(Duration.ofMinutes(5)));
-    cfgMap.put(MY_POSTS_BY_EMAIL,   defaultCfg.entryTtl(Duration.ofSeconds(45)));
-    cfgMap.put(MY_REQUESTS_BY_EMAIL,defaultCfg.entryTtl(Duration.ofSeconds(45)));
-
-    return RedisCacheManager.builder(cf)
-        .cacheDefaults(defaultCfg)
+    for (String name : List.of(HOME_TOP6, POSTS, POST_BY_ID, MY_POSTS_BY_EMAIL, MY_REQUESTS_BY_EMAIL,
+        UNKNOWN_VOLUNTEERS)) {
+      cfgMap.put(name, withCodec(defaultCfg, props, name, metricsFor).entryTtl(ttlFunction(props.specFor(name))));
+    }
+
+    RedisCacheManager redisCacheManager = RedisCacheManager.builder(cf)
+        .cacheDefaults(withCodec(defaultCfg, props, null, metricsFor))
         .withInitialCacheConfigurations(cfgMap)
         .build();
+    // Không phải bean riêng nên phải tự khởi tạo các cache cấu hình sẵn
+    redisCacheManager.afterPropertiesSet();
+
+    // L1 Caffeine per replica phía trước Redis; trang danh sách được gắn tag theo id bài,
+    // trang request của volunteer gắn tag theo email chủ sở hữu + id bài
+    return new TwoLevelCacheManager(redisCacheManager, props, bus, tagIndex, lease,
+        registry, metricsFor, circuitBreakerRegistry.circuitBreaker(REDIS_CACHE_BREAKER))
+        .withTagger(POSTS, CacheTags.POST_IDS)
+        .withTagger(HOME_TOP6, CacheTags.POST_IDS)
+        .withTagger(MY_REQUESTS_BY_EMAIL, CacheTags.REQUEST_OWNER_AND_POSTS);
+  }
+
+  // Entry thường sống theo ttl, marker "không tồn tại" theo negative-ttl (ngắn hơn)
+  private static RedisCacheWriter.TtlFunction ttlFunction(AppCacheProperties.Spec spec) {
+    Duration ttl = spec.getTtl();
+    Duration negativeTtl = spec.getNegativeTtl();
+    if (negativeTtl == null || negativeTtl.isZero()) {
+      return RedisCacheWriter.TtlFunction.just(ttl);
+    }
+    return (key, value) -> value instanceof NegativeEntry ? negativeTtl : ttl;
+  }
+
+  // Codec + ngưỡng nén theo từng cache name (app.cache.specs.<name>.codec)
+  private static RedisCacheConfiguration withCodec(RedisCacheConfiguration base, AppCacheProperties props, String cacheName,
+                                                  Function<String, CacheMetrics> metricsFor) {
+    AppCacheProperties.Spec spec = props.specFor(cacheName);
+    CacheMetrics metrics = metricsFor.apply(cacheName != null ? cacheName : "other");
+    CodecRedisSerializer serializer = new CodecRedisSerializer(
+        CacheValueCodecs.forName(spec.getCodec()),
+        (int) spec.getCompressThreshold().toBytes(),
+        metrics::valueSize);
+    return base.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
   }
 }
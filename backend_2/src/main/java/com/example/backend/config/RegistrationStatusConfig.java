@@ -0,0 +1,22 @@
+package com.example.backend.config;
+
+import com.example.backend.cache.RegistrationStatusStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RegistrationStatusConfig {
+
+  // Nhận "đã có kết quả" từ consumer (có thể ở replica khác) để trả lời long-poll
+  @Bean
+  public RedisMessageListenerContainer registrationStatusListenerContainer(RedisConnectionFactory cf,
+                                                                          RegistrationStatusStore store) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(cf);
+    container.addMessageListener(store, new ChannelTopic(store.getChannel()));
+    return container;
+  }
+}
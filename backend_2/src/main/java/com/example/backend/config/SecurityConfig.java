@@ -2,8 +2,10 @@ package com.example.backend.config;
 
 import com.example.backend.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import jakarta.servlet.DispatcherType;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -24,6 +26,10 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthFilter;
 
+    // Port actuator (management.server.port), không public qua gateway
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public FilterRegistrationBean<JwtAuthenticationFilter> tenantFilterRegistration(JwtAuthenticationFilter filter) {
         FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
@@ -60,8 +66,14 @@ public class SecurityConfig {
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // long-poll (DeferredResult): request gốc đã qua xác thực, lượt dispatch ASYNC không còn JWT filter
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.POST, "/logout").permitAll()
                 .requestMatchers("/healthz", "/readyz").permitAll()
+                // Prometheus scrape chỉ mở trên management port; port API (5000) không phục vụ /actuator
+                .requestMatchers(request -> managementPort > 0
+                    && request.getLocalPort() == managementPort
+                    && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                 .requestMatchers(
                     "/",
                     "/jwt",
@@ -0,0 +1,102 @@
+package com.example.backend.controller;
+
+import com.example.backend.entity.Volunteer;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.messaging.DlqRedriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Công cụ vận hành DLQ: xem, nhóm theo lỗi, redrive có giới hạn tốc độ.
+ * Chưa có role trong hệ thống nên chỉ email trong app.admin.emails được gọi.
+ *
+ *   GET    /admin/dlq/messages?offset=&limit=   xem (không consume)
+ *   GET    /admin/dlq/causes?scan=               đếm theo nguyên nhân
+ *   POST   /admin/dlq/redrive                    bắt đầu job (body RedriveRequest)
+ *   GET    /admin/dlq/redrive                    trạng thái job
+ *   DELETE /admin/dlq/redrive                    dừng job
+ */
+@RestController
+@RequestMapping("/admin/dlq")
+public class DlqAdminController {
+
+  private static final int MAX_PAGE = 200;
+
+  private final DlqRedriver redriver;
+  private final Set<String> adminEmails;
+
+  public DlqAdminController(DlqRedriver redriver, @Value("${app.admin.emails:}") String adminEmails) {
+    this.redriver = redriver;
+    this.adminEmails = Arrays.stream(adminEmails.split(","))
+        .map(s -> s.trim().toLowerCase(Locale.ROOT))
+        .filter(s -> !s.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  @GetMapping("/messages")
+  public ResponseEntity<?> messages(@AuthenticationPrincipal Volunteer current,
+                                    @RequestParam(defaultValue = "0") int offset,
+                                    @RequestParam(defaultValue = "20") int limit) {
+    if (!isAdmin(current)) return forbidden();
+    if (offset < 0 || limit < 1 || limit > MAX_PAGE) {
+      throw new BadRequestException("offset must be >= 0 and limit between 1 and " + MAX_PAGE);
+    }
+    return ResponseEntity.ok(redriver.peek(offset, limit));
+  }
+
+  @GetMapping("/causes")
+  public ResponseEntity<?> causes(@AuthenticationPrincipal Volunteer current,
+                                  @RequestParam(defaultValue = "1000") int scan) {
+    if (!isAdmin(current)) return forbidden();
+    if (scan < 1) {
+      throw new BadRequestException("scan must be positive");
+    }
+    return ResponseEntity.ok(redriver.summarize(scan));
+  }
+
+  @PostMapping("/redrive")
+  public ResponseEntity<?> startRedrive(@AuthenticationPrincipal Volunteer current,
+                                        @RequestBody DlqRedriver.RedriveRequest request) {
+    if (!isAdmin(current)) return forbidden();
+    var status = redriver.start(request);
+    if (status == null) {
+      return ResponseEntity.status(HttpStatus.CONFLICT)
+          .body(Map.of("message", "A redrive is already running", "job", redriver.status()));
+    }
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+  }
+
+  @GetMapping("/redrive")
+  public ResponseEntity<?> redriveStatus(@AuthenticationPrincipal Volunteer current) {
+    if (!isAdmin(current)) return forbidden();
+    var status = redriver.status();
+    return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+  }
+
+  @DeleteMapping("/redrive")
+  public ResponseEntity<?> cancelRedrive(@AuthenticationPrincipal Volunteer current) {
+    if (!isAdmin(current)) return forbidden();
+    var status = redriver.cancel();
+    return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+  }
+
+  private boolean isAdmin(Volunteer current) {
+    if (current == null) return false;
+    String email = current.getVolunteerEmail() != null && !current.getVolunteerEmail().isBlank()
+        ? current.getVolunteerEmail() : current.getUsername();
+    return email != null && adminEmails.contains(email.toLowerCase(Locale.ROOT));
+  }
+
+  private static ResponseEntity<?> forbidden() {
+    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Admin only"));
+  }
+}
@@ -1,6 +1,10 @@
 package com.example.backend.controller;
 
+import com.example.backend.cache.CacheWarmer;
+import com.example.backend.config.RedisCacheConfig;
 import com.example.backend.entity.LatencyRecorder;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.boot.actuate.health.HealthComponent;
 import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.boot.actuate.health.Status;
@@ -14,14 +18,19 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class HealthCheckController {
     private final HealthEndpoint healthEndpoint;
     private final LatencyRecorder latencyRecorder;
+    private final CacheWarmer cacheWarmer;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
     private static final long SLA_LIMIT_MS = 3000;
     private static final int MAX_THREADS_THRESHOLD = 180;
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
 
-    public HealthCheckController(HealthEndpoint healthEndpoint, LatencyRecorder latencyRecorder) {
+    public HealthCheckController(HealthEndpoint healthEndpoint, LatencyRecorder latencyRecorder,
+                                 CacheWarmer cacheWarmer, CircuitBreakerRegistry circuitBreakerRegistry) {
         this.healthEndpoint = healthEndpoint;
         this.latencyRecorder = latencyRecorder;
+        this.cacheWarmer = cacheWarmer;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
     }
 
     @GetMapping("/healthz")
@@ -31,6 +40,11 @@ public class HealthCheckController {
 
     @GetMapping("/readyz")
     public ResponseEntity<?> readiness() {
+        // Chưa warm xong cache -> chưa nhận traffic (warm-up có giới hạn thời gian)
+        if (!cacheWarmer.isWarm()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("WARMING UP: cache warm-up in progress");
+        }
+
         var health = (HealthComponent) healthEndpoint.health();
         var details = ((org.springframework.boot.actuate.health.CompositeHealth) health).getComponents();
 
@@ -54,6 +68,16 @@ public class HealthCheckController {
             consecutiveFailures.set(0);
         }
 
+        // Redis cache hỏng vẫn phục vụ được từ DB/L1 -> vẫn READY nhưng báo degraded
+        var redisBreaker = circuitBreakerRegistry.find(RedisCacheConfig.REDIS_CACHE_BREAKER);
+        if (redisBreaker.isPresent()) {
+            CircuitBreaker.State state = redisBreaker.get().getState();
+            if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN
+                || state == CircuitBreaker.State.HALF_OPEN) {
+                return ResponseEntity.ok("READY (degraded: redis cache circuit " + state + ")");
+            }
+        }
+
         return ResponseEntity.ok("READY");
     }
 }
\ No newline at end of file
@@ -1,10 +1,22 @@
 package com.example.backend.controller;
 
+import com.example.backend.cache.CacheWarmer;
+import com.example.backend.cache.PostCacheEvictHelper;
+import com.example.backend.cache.RegistrationStatusStore;
+import com.example.backend.cache.VolunteerRegistrations;
+import com.example.backend.cache.RequestCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.cache.VolunteerLookup;
+import com.example.backend.dto.CursorSlice;
+import com.example.backend.exception.BadRequestException;
+import com.example.backend.exception.ResourceNotFoundException;
+import com.example.backend.dto.PageCursor;
 import com.example.backend.dto.VolunteerRequestDto;
 import com.example.backend.entity.Volunteer;
 import com.example.backend.entity.VolunteerPost;
 import com.example.backend.repo.VolunteerRepository;
 import com.example.backend.security.JwtService;
+import com.example.backend.service.SlotReservationService;
 import com.example.backend.service.VolunteerPostService;
 import com.example.backend.service.VolunteerRequestService;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -17,13 +29,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import com.example.backend.repo.VolunteerRequestRepository;
 import com.example.backend.dto.VolunteerPostDto;
-import org.springframework.web.server.ResponseStatusException;
 import com.example.backend.service.NotificationService;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,6 +57,14 @@ public class VolunteerController {
 
   private final VolunteerRequestRepository requestRepository;
   private final NotificationService notificationService;
+  private final RequestCacheEvictHelper requestCacheEvictHelper;
+  private final VolunteerLookup volunteerLookup;
+  private final CacheWarmer cacheWarmer;
+  private final RequestStatusCounters requestStatusCounters;
+  private final SlotReservationService slotReservationService;
+  private final PostCacheEvictHelper postCacheEvictHelper;
+  private final RegistrationStatusStore registrationStatusStore;
+  private final VolunteerRegistrations volunteerRegistrations;
 
 
   @PostMapping("/jwt")
@@ -57,6 +79,7 @@ public class VolunteerController {
       Volunteer newVolunteer = new Volunteer();
       newVolunteer.setVolunteerEmail(email);
       volunteerRepository.save(newVolunteer);
+      volunteerLookup.forgetUnknown(email);
     }
 
     String token = jwtService.generateToken(email);
@@ -89,10 +112,21 @@ public class VolunteerController {
     return postService.getAllVolunteers(search, effective);
   }
 
+  // Cursor: trả nextCursor thay cho page/totalPages, không chạy COUNT
+  @GetMapping("/need-volunteers/cursor")
+  public CursorSlice<VolunteerPostDto> getAllVolunteersByCursor(
+      @RequestParam(required = false) String search,
+      @RequestParam(required = false) String cursor) {
+    return postService.getAllVolunteers(search, PageCursor.decode(cursor), 15);
+  }
+
   // Chi tiết bài
   @GetMapping("/post/{id}")
   public ResponseEntity<VolunteerPostDto> getVolunteerPostDetails(@PathVariable Long id) {
     VolunteerPostDto post = postService.getVolunteerPostDetails(id);
+    if (post != null) {
+      cacheWarmer.recordPostView(id);
+    }
     return (post != null) ? ResponseEntity.ok(post) : ResponseEntity.notFound().build();
   }
 
@@ -168,6 +202,14 @@ public ResponseEntity<?> addVolunteerPost(@RequestBody VolunteerPost post,
     return postService.getMyVolunteerPosts(email, pageable);
   }
 
+  @GetMapping("/get-volunteer-post/{email}/cursor")
+  public CursorSlice<VolunteerPostDto> getMyVolunteerPostsByCursor(@PathVariable String email,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "10") int size) {
+    int boundedSize = Math.min(Math.max(size, 1), 20);
+    return postService.getMyVolunteerPosts(email, PageCursor.decode(cursor), boundedSize);
+  }
+
   // --- VOLUNTEER REQUESTS ENDPOINTS ---
 
   // Gửi yêu cầu tham gia
@@ -185,10 +227,58 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
     email = currentVolunteer.getUsername();
   }
 
-  Long insertedId = requestService.requestVolunteer(body, currentVolunteer);
-  return ResponseEntity.ok(Map.of("insertedId", insertedId));
+  String correlationId = requestService.requestVolunteer(body, currentVolunteer);
+  // insertedId giữ cho client cũ; request được ghi bất đồng bộ, kết quả xem qua statusUrl
+  return ResponseEntity.ok(Map.of(
+      "insertedId", -1L,
+      "correlationId", correlationId,
+      "statusUrl", "/request-volunteer/status/" + correlationId));
 }
 
+  // Tôi đã đăng ký các bài này chưa: postId -> status (bài chưa đăng ký không có trong map), tối đa 100 bài
+  @GetMapping("/my-registrations")
+  public Map<Long, String> getMyRegistrations(@RequestParam List<Long> postIds,
+                                              @AuthenticationPrincipal Volunteer currentVolunteer) {
+    if (postIds.size() > 100) {
+      throw new BadRequestException("At most 100 postIds per call");
+    }
+    return volunteerRegistrations.statuses(principalEmail(currentVolunteer), postIds);
+  }
+
+  // Trang chi tiết bài: 1 bài
+  @GetMapping("/my-registrations/{postId}")
+  public Map<String, Object> getMyRegistration(@PathVariable Long postId,
+                                               @AuthenticationPrincipal Volunteer currentVolunteer) {
+    String status = volunteerRegistrations.statuses(principalEmail(currentVolunteer), List.of(postId)).get(postId);
+    Map<String, Object> body = new java.util.LinkedHashMap<>();
+    body.put("postId", postId);
+    body.put("registered", status != null);
+    body.put("status", status);
+    return body;
+  }
+
+  // Kết quả của 1 lần gửi (Redis, không chạm MySQL): QUEUED / CREATED / DUPLICATE / POST_MISSING / INVALID
+  @GetMapping("/request-volunteer/status/{correlationId}")
+  public RegistrationStatusStore.Receipt getRequestStatus(@PathVariable String correlationId,
+                                                          @AuthenticationPrincipal Volunteer currentVolunteer) {
+    return findReceipt(correlationId, currentVolunteer);
+  }
+
+  // Long-poll: giữ request tới khi có kết quả hoặc hết timeoutSeconds (tối đa 30s), trả receipt hiện tại
+  @GetMapping("/request-volunteer/status/{correlationId}/wait")
+  public DeferredResult<RegistrationStatusStore.Receipt> waitRequestStatus(@PathVariable String correlationId,
+                                                                           @RequestParam(defaultValue = "20") int timeoutSeconds,
+                                                                           @AuthenticationPrincipal Volunteer currentVolunteer) {
+    RegistrationStatusStore.Receipt current = findReceipt(correlationId, currentVolunteer);
+    Duration timeout = Duration.ofSeconds(Math.min(Math.max(timeoutSeconds, 1), 30));
+    return registrationStatusStore.await(correlationId, principalEmail(currentVolunteer), current, timeout);
+  }
+
+  private RegistrationStatusStore.Receipt findReceipt(String correlationId, Volunteer currentVolunteer) {
+    return registrationStatusStore.find(correlationId, principalEmail(currentVolunteer))
+        .orElseThrow(() -> new ResourceNotFoundException("Unknown or expired request id"));
+  }
+
 
   // Lấy yêu cầu của tôi
   @GetMapping("/get-volunteer-request/{email}")
@@ -202,6 +292,15 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
     return requestService.getMyVolunteerRequests(email, postId, pageable);
   }
 
+  @GetMapping("/get-volunteer-request/{email}/cursor")
+  public CursorSlice<VolunteerRequestDto> getMyVolunteerRequestsByCursor(@PathVariable String email,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                         @RequestParam(required = false) Long postId) {
+    int boundedSize = Math.min(Math.max(size, 1), 20);
+    return requestService.getMyVolunteerRequests(email, postId, PageCursor.decode(cursor), boundedSize);
+  }
+
   // Lấy yêu cầu gửi tới các post của organizer (theo orgEmail)
   @GetMapping("/get-volunteer-requests-for-org/{email}")
   public Page<VolunteerRequestDto> getRequestsForOrganizer(@PathVariable String email,
@@ -217,24 +316,23 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
     if (principalEmail == null || !principalEmail.equalsIgnoreCase(email)) {
       return Page.empty(pageable);
     }
-    var pageReq = requestRepository.findByVolunteerPostOrgEmail(email, pageable);
-    return pageReq.map(request -> {
-      var post = request.getVolunteerPost();
-      var volunteer = request.getVolunteer();
-      var dto = new VolunteerRequestDto();
-      dto.setId(request.getId());
-      dto.setStatus(request.getStatus());
-      dto.setPostId(post != null ? post.getId() : null);
-      dto.setVolunteerEmail(volunteer != null ? volunteer.getVolunteerEmail() : null);
-      if (post != null) {
-        dto.setPostTitle(post.getPostTitle());
-        dto.setOrgEmail(post.getOrgEmail());
-        dto.setDeadline(post.getDeadline() != null ? post.getDeadline().toString() : null);
-        dto.setLocation(post.getLocation());
-        dto.setCategory(post.getCategory());
-      }
-      return dto;
-    });
+    return requestRepository.findRowsByOrgEmail(email, pageable);
+  }
+
+  // Cursor (keyset theo id), không COUNT
+  @GetMapping("/get-volunteer-requests-for-org/{email}/cursor")
+  public CursorSlice<VolunteerRequestDto> getRequestsForOrganizerByCursor(@PathVariable String email,
+                                                                          @AuthenticationPrincipal Volunteer current,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "10") int size) {
+    long afterId = PageCursor.decode(cursor);
+    int boundedSize = Math.min(Math.max(size, 1), 20);
+    String principalEmail = principalEmail(current);
+    if (principalEmail == null || !principalEmail.equalsIgnoreCase(email)) {
+      return new CursorSlice<>(List.of(), boundedSize, false, null);
+    }
+    var slice = requestRepository.findRowsByOrgEmailAfter(email, afterId, PageRequest.of(0, boundedSize));
+    return CursorSlice.from(slice, VolunteerRequestDto::getId);
   }
 
   // Pending count per post for organizer
@@ -248,34 +346,34 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
       return List.of();
     }
     if (postIds != null && !postIds.isEmpty()) {
-      var counts = requestRepository.countPendingForPosts(email, postIds);
-      java.util.Map<Long, Long> countMap = new java.util.HashMap<>();
-      for (var row : counts) {
-        if (row.getPostId() != null) {
-          countMap.put(row.getPostId(), row.getPendingCount());
-        }
-      }
-      java.util.List<java.util.Map<String, Object>> reduced = new java.util.ArrayList<>();
+      java.util.List<VolunteerPostDto> owned = new java.util.ArrayList<>();
       for (Long id : postIds) {
         if (id == null) continue;
         var postDto = postService.getVolunteerPostDetails(id);
         if (postDto == null || postDto.getOrgEmail() == null || !postDto.getOrgEmail().equalsIgnoreCase(email)) {
           continue;
         }
-        java.util.Map<String, Object> row = new java.util.HashMap<>();
-        row.put("id", id);
-        row.put("postTitle", postDto.getPostTitle());
-        row.put("pendingCount", countMap.getOrDefault(id, 0L));
-        reduced.add(row);
+        owned.add(postDto);
       }
-      return reduced;
+      return withRequestCounts(owned);
+    }
+    return withRequestCounts(postService.getMyVolunteerPosts(email));
+  }
+
+  // Số request theo trạng thái từ bộ đếm Redis: 1 round trip cho mọi bài
+  private List<Map<String, Object>> withRequestCounts(List<VolunteerPostDto> posts) {
+    if (posts.isEmpty()) {
+      return List.of();
     }
-    var posts = postService.getMyVolunteerPosts(email);
+    var counts = requestStatusCounters.read(posts.stream().map(VolunteerPostDto::getId).toList());
     return posts.stream().map(p -> {
+      var c = counts.get(p.getId());
       java.util.Map<String, Object> row = new java.util.HashMap<>();
       row.put("id", p.getId());
       row.put("postTitle", p.getPostTitle());
-      row.put("pendingCount", requestRepository.countByVolunteerPostIdAndStatusIgnoreCase(p.getId(), "Pending"));
+      row.put("pendingCount", c != null ? c.pending() : 0L);
+      row.put("acceptedCount", c != null ? c.accepted() : 0L);
+      row.put("rejectedCount", c != null ? c.rejected() : 0L);
       return row;
     }).toList();
   }
@@ -295,24 +393,23 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
     // Fixed page size to 10 regardless of client input
     final int FIXED_PAGE_SIZE = 10;
     Pageable pageable = PageRequest.of(page, FIXED_PAGE_SIZE);
-    var pageReq = requestRepository.findByVolunteerPostId(postId, pageable);
-    return pageReq.map(request -> {
-      var dto = new VolunteerRequestDto();
-      var post = request.getVolunteerPost();
-      var volunteer = request.getVolunteer();
-      dto.setId(request.getId());
-      dto.setStatus(request.getStatus());
-      dto.setPostId(post != null ? post.getId() : null);
-      dto.setVolunteerEmail(volunteer != null ? volunteer.getVolunteerEmail() : null);
-      if (post != null) {
-        dto.setPostTitle(post.getPostTitle());
-        dto.setOrgEmail(post.getOrgEmail());
-        dto.setDeadline(post.getDeadline() != null ? post.getDeadline().toString() : null);
-        dto.setLocation(post.getLocation());
-        dto.setCategory(post.getCategory());
-      }
-      return dto;
-    });
+    return requestRepository.findRowsByPostId(postId, pageable);
+  }
+
+  // Cursor cho requests của 1 post (size cố định 10 như bản Page)
+  @GetMapping("/post/{postId}/requests/cursor")
+  public CursorSlice<VolunteerRequestDto> getRequestsForPostByCursor(@PathVariable Long postId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @AuthenticationPrincipal Volunteer current) {
+    final int FIXED_PAGE_SIZE = 10;
+    long afterId = PageCursor.decode(cursor);
+    var postDto = postService.getVolunteerPostDetails(postId);
+    String principalEmail = principalEmail(current);
+    if (postDto == null || principalEmail == null || !principalEmail.equalsIgnoreCase(postDto.getOrgEmail())) {
+      return new CursorSlice<>(List.of(), FIXED_PAGE_SIZE, false, null);
+    }
+    var slice = requestRepository.findRowsByPostIdAfter(postId, afterId, PageRequest.of(0, FIXED_PAGE_SIZE));
+    return CursorSlice.from(slice, VolunteerRequestDto::getId);
   }
 
   @DeleteMapping("/my-volunteer-request/{id}")
@@ -327,69 +424,69 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
   }
 
   // --- APPROVAL FLOW ---
+  // Không mở transaction cho cả request (NOT_SUPPORTED): đọc + kiểm tra quyền bằng 1 query
+  // projection, CAS chạy transaction ngắn riêng -> mỗi lượt duyệt giữ tối đa 1 connection DB
   @PutMapping("/volunteer-request/{id}/approve")
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public ResponseEntity<?> approveVolunteerRequest(@PathVariable Long id,
                                                    @AuthenticationPrincipal Volunteer current) {
-    var opt = requestRepository.findById(id);
+    var opt = requestRepository.findDecisionView(id);
     if (opt.isEmpty()) return ResponseEntity.notFound().build();
     var req = opt.get();
 
-    var post = req.getVolunteerPost();
-    if (post == null) return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+    Long postId = req.getPostId();
+    if (postId == null) return ResponseEntity.status(HttpStatus.BAD_REQUEST)
         .body(Map.of("message", "Missing post for request"));
 
     // Permission: only post owner can approve
-    String principalEmail = (current != null && current.getVolunteerEmail() != null && !current.getVolunteerEmail().isBlank())
-        ? current.getVolunteerEmail() : (current != null ? current.getUsername() : null);
-    if (principalEmail == null || !principalEmail.equalsIgnoreCase(post.getOrgEmail())) {
+    String principalEmail = principalEmail(current);
+    if (principalEmail == null || !principalEmail.equalsIgnoreCase(req.getOrgEmail())) {
       return ResponseEntity.status(HttpStatus.FORBIDDEN)
           .body(Map.of("message", "Only post owner can approve"));
     }
 
-    // Guard: already decided
-    String status = req.getStatus();
-    if (status != null && (status.equalsIgnoreCase("Accepted") || status.equalsIgnoreCase("Rejected"))) {
+    // Pending -> Accepted + giảm slot trong 1 CAS (transaction riêng, commit ngay)
+    var outcome = slotReservationService.approve(req.getId(), postId);
+    if (outcome == SlotReservationService.Outcome.NOT_PENDING) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
           .body(Map.of("message", "Request is already decided"));
     }
-
-    // Guard: available slots
-    Integer slots = post.getNoOfVolunteer();
-    if (slots != null && slots <= 0) {
+    if (outcome == SlotReservationService.Outcome.NO_SLOTS) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
           .body(Map.of("message", "No available slots"));
     }
-
-    // Update status then decrement count atomically
-    req.setStatus("Accepted");
-    requestRepository.save(req);
-    int updated = postService.decrementVolunteerCount(post.getId());
-    if (updated == 0) {
-      throw new ResponseStatusException(HttpStatus.CONFLICT, "Failed to decrement count");
+    String volunteerEmail = req.getVolunteerEmail();
+    requestStatusCounters.statusChanged(postId, "Pending", "Accepted");
+    if (volunteerEmail != null) {
+      volunteerRegistrations.statusChanged(volunteerEmail, postId, "Accepted");
+    }
+    // noOfVolunteer đổi -> xóa cache chi tiết + các trang danh sách chứa bài
+    postCacheEvictHelper.evictPostById(postId);
+    postCacheEvictHelper.evictListPagesContaining(postId);
+    if (volunteerEmail != null) {
+      requestCacheEvictHelper.evictOwner(volunteerEmail);
     }
 
     // Email sending removed; notifications are persisted to DB only
 
     // Create notifications (best-effort)
     try {
-      String volunteerEmail = req.getVolunteer() != null ? req.getVolunteer().getVolunteerEmail() : null;
-      String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
+      String postTitle = req.getPostTitle() != null ? req.getPostTitle() : "(unknown)";
       if (volunteerEmail != null) {
         notificationService.createAndSend(volunteerEmail,
             "Request Accepted",
             "Your request for post: " + postTitle + " has been accepted.",
-            Map.of("postId", post.getId(), "requestId", req.getId()),
-            "/posts/" + post.getId());
+            Map.of("postId", postId, "requestId", req.getId()),
+            "/posts/" + postId);
       }
       // notify organiser who approved
-      String orgEmail = post.getOrgEmail();
+      String orgEmail = req.getOrgEmail();
       if (orgEmail != null) {
         notificationService.createAndSend(orgEmail,
             "Request Approved",
             "You have approved a request for post: " + postTitle + ".",
-            Map.of("postId", post.getId(), "requestId", req.getId()),
-            "/manage/posts/" + post.getId());
+            Map.of("postId", postId, "requestId", req.getId()),
+            "/manage/posts/" + postId);
       }
     } catch (Exception ignored) {}
 
@@ -397,52 +494,51 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
   }
 
   @PutMapping("/volunteer-request/{id}/reject")
-  @Transactional
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
   public ResponseEntity<?> rejectVolunteerRequest(@PathVariable Long id,
                                                   @AuthenticationPrincipal Volunteer current) {
-    var opt = requestRepository.findById(id);
+    var opt = requestRepository.findDecisionView(id);
     if (opt.isEmpty()) return ResponseEntity.notFound().build();
     var req = opt.get();
 
-    var post = req.getVolunteerPost();
-    if (post == null) return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+    Long postId = req.getPostId();
+    if (postId == null) return ResponseEntity.status(HttpStatus.BAD_REQUEST)
         .body(Map.of("message", "Missing post for request"));
 
-    String principalEmail = (current != null && current.getVolunteerEmail() != null && !current.getVolunteerEmail().isBlank())
-        ? current.getVolunteerEmail() : (current != null ? current.getUsername() : null);
-    if (principalEmail == null || !principalEmail.equalsIgnoreCase(post.getOrgEmail())) {
+    String principalEmail = principalEmail(current);
+    if (principalEmail == null || !principalEmail.equalsIgnoreCase(req.getOrgEmail())) {
       return ResponseEntity.status(HttpStatus.FORBIDDEN)
           .body(Map.of("message", "Only post owner can reject"));
     }
 
-    String status = req.getStatus();
-    if (status != null && (status.equalsIgnoreCase("Accepted") || status.equalsIgnoreCase("Rejected"))) {
+    if (slotReservationService.reject(req.getId()) == SlotReservationService.Outcome.NOT_PENDING) {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST)
           .body(Map.of("message", "Request is already decided"));
     }
-
-    req.setStatus("Rejected");
-    requestRepository.save(req);
-
+    String volunteerEmail = req.getVolunteerEmail();
+    requestStatusCounters.statusChanged(postId, "Pending", "Rejected");
+    if (volunteerEmail != null) {
+      requestCacheEvictHelper.evictOwner(volunteerEmail);
+      volunteerRegistrations.statusChanged(volunteerEmail, postId, "Rejected");
+    }
 
 
     try {
-      String volunteerEmail = req.getVolunteer() != null ? req.getVolunteer().getVolunteerEmail() : null;
-      String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
+      String postTitle = req.getPostTitle() != null ? req.getPostTitle() : "(unknown)";
       if (volunteerEmail != null) {
         notificationService.createAndSend(volunteerEmail,
             "Request Rejected",
             "Your request for post: " + postTitle + " has been rejected.",
-            Map.of("postId", post.getId(), "requestId", req.getId()),
-            "/posts/" + post.getId());
+            Map.of("postId", postId, "requestId", req.getId()),
+            "/posts/" + postId);
       }
-      String orgEmail = post.getOrgEmail();
+      String orgEmail = req.getOrgEmail();
       if (orgEmail != null) {
         notificationService.createAndSend(orgEmail,
             "Request Rejected",
             "You have rejected a request for post: " + postTitle + ".",
-            Map.of("postId", post.getId(), "requestId", req.getId()),
-            "/manage/posts/" + post.getId());
+            Map.of("postId", postId, "requestId", req.getId()),
+            "/manage/posts/" + postId);
       }
     } catch (Exception ignored) {}
 
@@ -455,4 +551,12 @@ public ResponseEntity<?> requestVolunteer(@RequestBody JsonNode body,
   public Map<String, String> healthCheck() {
     return Map.of("message", "Volunteer Management System is running perfectly !");
   }
+
+  private static String principalEmail(Volunteer current) {
+    if (current == null) {
+      return null;
+    }
+    return (current.getVolunteerEmail() != null && !current.getVolunteerEmail().isBlank())
+        ? current.getVolunteerEmail() : current.getUsername();
+  }
 }
@@ -0,0 +1,39 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Trang theo cursor: không có COUNT / totalPages, chỉ biết còn trang sau hay không.
+ * Gửi lại {@code nextCursor} để lấy trang kế tiếp.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorSlice<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private List<T> content;
+  private int size;
+  private boolean hasNext;
+  private String nextCursor;
+
+  public static <E, T> CursorSlice<T> from(Slice<E> slice, Function<E, Long> sortKey, Function<E, T> mapper) {
+    List<E> rows = slice.getContent();
+    String next = null;
+    if (slice.hasNext() && !rows.isEmpty()) {
+      next = PageCursor.encode(sortKey.apply(rows.get(rows.size() - 1)));
+    }
+    return new CursorSlice<>(rows.stream().map(mapper).toList(), slice.getSize(), next != null, next);
+  }
+
+  public static <T> CursorSlice<T> from(Slice<T> slice, Function<T, Long> sortKey) {
+    return from(slice, sortKey, Function.identity());
+  }
+}
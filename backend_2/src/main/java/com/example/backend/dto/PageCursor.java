@@ -0,0 +1,44 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor cho phân trang keyset: client chỉ nhận chuỗi base64url, bên trong là
+ * khóa sắp xếp (id) của phần tử cuối trang trước. Trang đầu: cursor rỗng.
+ */
+public final class PageCursor {
+
+  private static final String VERSION = "v1:";
+
+  private PageCursor() {
+  }
+
+  public static String encode(long lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((VERSION + lastId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * @return id cuối của trang trước, 0 nếu là trang đầu
+   */
+  public static long decode(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+      if (raw.startsWith(VERSION)) {
+        long lastId = Long.parseLong(raw.substring(VERSION.length()));
+        if (lastId >= 0) {
+          return lastId;
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // base64 / số sai -> rơi xuống lỗi 400 bên dưới
+    }
+    throw new BadRequestException("Invalid cursor");
+  }
+}
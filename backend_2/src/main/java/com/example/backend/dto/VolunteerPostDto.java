@@ -46,6 +46,19 @@ public class VolunteerPostDto implements Serializable {
     this.orgEmail = orgEmail;
   }
 
+  // Projection cho thẻ danh sách (JPQL constructor expression): không đọc cột description TEXT
+  public VolunteerPostDto(Long id,
+      String postTitle,
+      String category,
+      LocalDate deadline,
+      String location,
+      String thumbnail,
+      Integer noOfVolunteer,
+      String orgName,
+      String orgEmail) {
+    this(id, postTitle, category, deadline, location, null, thumbnail, noOfVolunteer, orgName, orgEmail);
+  }
+
   public Long getId() {
     return id;
   }
@@ -1,10 +1,13 @@
 package com.example.backend.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.io.Serializable;
+import java.time.LocalDate;
 
 
 @Data
+@NoArgsConstructor
 public class VolunteerRequestDto implements Serializable {
   private static final long serialVersionUID = 1L;
   private Long id;              // ID của VolunteerRequest
@@ -16,4 +19,18 @@ public class VolunteerRequestDto implements Serializable {
   private String category;      // Từ VolunteerPost
   private String status;        // Từ VolunteerRequest
   private String volunteerEmail; // Từ Volunteer
+
+  // Projection 1 SELECT (request JOIN post), dùng trong JPQL constructor expression
+  public VolunteerRequestDto(Long id, String status, Long postId, String volunteerEmail, String postTitle,
+                             String orgEmail, LocalDate deadline, String location, String category) {
+    this.id = id;
+    this.status = status;
+    this.postId = postId;
+    this.volunteerEmail = volunteerEmail;
+    this.postTitle = postTitle;
+    this.orgEmail = orgEmail;
+    this.deadline = deadline != null ? deadline.toString() : null;
+    this.location = location;
+    this.category = category;
+  }
 }
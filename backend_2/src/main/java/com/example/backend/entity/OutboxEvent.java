@@ -0,0 +1,31 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// Message chờ relay gửi sang RabbitMQ, ghi cùng transaction với thay đổi nghiệp vụ
+@Entity
+@Table(name = "outbox_event")
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String exchangeName;
+
+    @Column(nullable = false)
+    private String routingKey;
+
+    // Header __TypeId__ của Jackson2JsonMessageConverter, consumer dùng để đọc lại payload
+    @Column(nullable = false)
+    private String payloadType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
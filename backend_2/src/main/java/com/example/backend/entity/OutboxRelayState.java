@@ -0,0 +1,25 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+// High-water mark + lease của relay: replica giữ lease (owner, leaseUntil) mới được relay -> mỗi lúc chỉ 1 replica
+@Entity
+@Table(name = "outbox_relay_state")
+@Data
+public class OutboxRelayState {
+
+    @Id
+    private String name;
+
+    // id lớn nhất đã được broker confirm
+    private Long lastId = 0L;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // replica đang giữ lease, hết hạn lúc leaseUntil (null = chưa ai giữ / đã nhả)
+    private String owner;
+
+    private LocalDateTime leaseUntil;
+}
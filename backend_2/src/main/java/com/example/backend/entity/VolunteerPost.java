@@ -9,7 +9,11 @@ import java.util.List;
 import java.io.Serializable;
 
 @Entity
-@Table(name = "volunteer_post")
+@Table(
+  name = "volunteer_post",
+  // phân trang cursor theo tổ chức: WHERE orgEmail = ? AND id > ? ORDER BY id
+  indexes = @Index(name = "idx_volunteer_post_org_email_id", columnList = "orgEmail, id")
+)
 @Data
 public class VolunteerPost implements Serializable {
 
@@ -11,8 +11,18 @@ import java.io.Serializable;
 @Entity
 @Table(
   name = "volunteer_request",
-  uniqueConstraints = @UniqueConstraint(columnNames = {"volunteerEmail", "postId"})
-) 
+  uniqueConstraints = @UniqueConstraint(columnNames = {"volunteerEmail", "postId"}),
+  indexes = {
+    // phân trang cursor "request của tôi": WHERE volunteerEmail = ? AND id > ? ORDER BY id
+    @Index(name = "idx_volunteer_request_email_id", columnList = "volunteerEmail, id"),
+    // đếm request theo trạng thái của từng bài
+    @Index(name = "idx_volunteer_request_post_status", columnList = "postId, status")
+  }
+)
+@NamedEntityGraph(
+  name = "VolunteerRequest.withPostAndVolunteer",
+  attributeNodes = {@NamedAttributeNode("volunteerPost"), @NamedAttributeNode("volunteer")}
+)
 @Data
 public class VolunteerRequest implements Serializable {
 
@@ -0,0 +1,9 @@
+package com.example.backend.exception;
+
+// Volunteer đã gửi / đã có request cho bài này -> 409
+public class DuplicateRegistrationException extends BusinessException {
+
+  public DuplicateRegistrationException(String message) {
+    super(message);
+  }
+}
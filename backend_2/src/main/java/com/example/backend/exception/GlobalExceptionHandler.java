@@ -3,6 +3,7 @@ package com.example.backend.exception;
 import com.example.backend.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -82,6 +83,22 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
   }
 
+  // ====== 409 - CONFLICT ======
+
+  @ExceptionHandler(DuplicateRegistrationException.class)
+  public ResponseEntity<ErrorResponse> handleDuplicateRegistration(
+      DuplicateRegistrationException ex,
+      HttpServletRequest request
+  ) {
+    ErrorResponse body = buildErrorResponse(
+        request,
+        HttpStatus.CONFLICT,
+        "ALREADY_REGISTERED",
+        ex.getMessage()
+    );
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+  }
+
   // ====== 429 - RATE LIMIT ======
 
   @ExceptionHandler(RateLimitExceededException.class)
@@ -130,6 +147,23 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
   }
 
+  // 503 - Outbox tồn đọng (broker chậm / down), client thử lại sau Retry-After giây
+  @ExceptionHandler(PublishBackpressureException.class)
+  public ResponseEntity<ErrorResponse> handlePublishBackpressure(
+      PublishBackpressureException ex,
+      HttpServletRequest request
+  ) {
+    ErrorResponse body = buildErrorResponse(
+        request,
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "QUEUE_BUSY",
+        ex.getMessage()
+    );
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(body);
+  }
+
   // ====== Fallback cuối cùng cho mọi Exception không lường trước ======
 
   @ExceptionHandler(Exception.class)
@@ -0,0 +1,9 @@
+package com.example.backend.exception;
+
+// Outbox tồn quá nhiều (broker không nhận): trả 503 + Retry-After thay vì nhận thêm
+public class PublishBackpressureException extends BusinessException {
+
+  public PublishBackpressureException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,46 @@
+package com.example.backend.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Số message request consumer xử lý xong / lỗi trên replica này (DlqRedriver dừng khi tỉ lệ lỗi tăng)
+@Component
+public class ConsumerHealth {
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter failedCounter;
+
+    public ConsumerHealth(MeterRegistry registry) {
+        this.processedCounter = Counter.builder("messaging.consumer.messages")
+                .description("Volunteer request messages handled by the consumer")
+                .tag("result", "ok")
+                .register(registry);
+        this.failedCounter = Counter.builder("messaging.consumer.messages")
+                .description("Volunteer request messages handled by the consumer")
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    public void processed(int count) {
+        processed.addAndGet(count);
+        processedCounter.increment(count);
+    }
+
+    public void failed() {
+        failed.incrementAndGet();
+        failedCounter.increment();
+    }
+
+    public long processedCount() {
+        return processed.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.backend.messaging;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Xem và đẩy lại (redrive) message trong DLQ.
+ *
+ * - Xem: basicGet không ack tới offset + limit message rồi nack(requeue) cả lô trên
+ *   cùng channel -> message quay lại đúng vị trí, không ai consume mất.
+ * - Nhóm theo nguyên nhân: header x-failure-cause (consumer / recoverer ghi), không có thì
+ *   lý do x-death; chữ số được thay bằng "#" để lỗi cùng loại khác id vào cùng nhóm.
+ * - Redrive: 1 job / replica, chỉ quét số message có trong DLQ lúc bắt đầu (message chết lại
+ *   trong lúc chạy nằm ở cuối queue, không bị quét lần 2). Message khớp bộ lọc được gửi lại
+ *   theo token bucket, chờ publisher confirm rồi mới ack khỏi DLQ; message không khớp được
+ *   trả lại DLQ khi job kết thúc. Job tự dừng khi tỉ lệ lỗi consumer (ConsumerHealth) hoặc
+ *   tỉ lệ message redrive quay lại DLQ vượt ngưỡng.
+ */
+@Component
+public class DlqRedriver {
+
+    // số lần 1 message đã được redrive, quá max-redrives thì bỏ qua (lỗi vĩnh viễn)
+    public static final String REDRIVE_COUNT_HEADER = "x-redrive-count";
+    // header broker / consumer gắn lúc chết, bỏ khi gửi lại để message đi lại vòng retry từ đầu
+    private static final Set<String> STRIPPED_HEADERS = Set.of(
+            RabbitConfig.RETRY_COUNT_HEADER, RabbitConfig.FAILURE_CAUSE_HEADER,
+            "x-death", "x-first-death-exchange", "x-first-death-queue", "x-first-death-reason",
+            "x-last-death-exchange", "x-last-death-queue", "x-last-death-reason");
+    private static final int PAYLOAD_PREVIEW = 2000;
+    private static final int CAUSE_LENGTH = 200;
+    private static final int SAMPLE_FINGERPRINTS = 20;
+
+    public record Entry(int position, String fingerprint, String routingKey, String cause, int retries,
+                        int redrives, Instant timestamp, String payload) {
+    }
+
+    public record Page(long depth, int offset, List<Entry> entries) {
+    }
+
+    public record CauseGroup(String cause, long count, List<String> fingerprints) {
+    }
+
+    public record Summary(long depth, int scanned, List<CauseGroup> causes) {
+    }
+
+    // fingerprints / causes rỗng = không lọc theo tiêu chí đó; null = dùng mặc định
+    public record RedriveRequest(Set<String> fingerprints, Set<String> causes, Integer max,
+                                 Double ratePerSecond, Integer burst, Double maxErrorRate) {
+    }
+
+    public enum State {
+        RUNNING, COMPLETED, STOPPED_ERROR_RATE, CANCELLED, FAILED
+    }
+
+    public record JobStatus(String id, State state, long scanned, long matched, long redriven, long skipped,
+                            double consumerErrorRate, double returnRate, String reason,
+                            Instant startedAt, Instant finishedAt) {
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final RabbitTemplate rabbitTemplate;
+    private final RabbitTemplate confirmingTemplate;
+    private final MessageConverter messageConverter;
+    private final RequestPartitions partitions;
+    private final ConsumerHealth consumerHealth;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final int maxScan;
+    private final double defaultRate;
+    private final int defaultBurst;
+    private final double defaultMaxErrorRate;
+    private final int minSamples;
+    private final int maxRedrives;
+    private final Duration confirmTimeout;
+    private final AtomicReference<Job> current = new AtomicReference<>();
+
+    public DlqRedriver(RabbitTemplate rabbitTemplate,
+                       @Qualifier(RabbitConfig.CONFIRMING_TEMPLATE) RabbitTemplate confirmingTemplate,
+                       MessageConverter messageConverter,
+                       RequestPartitions partitions,
+                       ConsumerHealth consumerHealth,
+                       @Value("${app.dlq.max-scan:5000}") int maxScan,
+                       @Value("${app.dlq.redrive.rate-per-second:20}") double defaultRate,
+                       @Value("${app.dlq.redrive.burst:20}") int defaultBurst,
+                       @Value("${app.dlq.redrive.max-error-rate:0.2}") double defaultMaxErrorRate,
+                       @Value("${app.dlq.redrive.min-samples:20}") int minSamples,
+                       @Value("${app.dlq.redrive.max-redrives:3}") int maxRedrives,
+                       @Value("${app.outbox.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmingTemplate = confirmingTemplate;
+        this.messageConverter = messageConverter;
+        this.partitions = partitions;
+        this.consumerHealth = consumerHealth;
+        this.maxScan = maxScan;
+        this.defaultRate = defaultRate;
+        this.defaultBurst = defaultBurst;
+        this.defaultMaxErrorRate = defaultMaxErrorRate;
+        this.minSamples = minSamples;
+        this.maxRedrives = maxRedrives;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    // --- xem ---
+
+    public Page peek(int offset, int limit) {
+        int want = Math.min(offset + limit, maxScan);
+        return rabbitTemplate.execute(channel -> {
+            long depth = depth(channel);
+            List<Entry> entries = new ArrayList<>();
+            long lastTag = -1;
+            try {
+                for (int i = 0; i < want; i++) {
+                    GetResponse r = channel.basicGet(RabbitConfig.DLQ, false);
+                    if (r == null) {
+                        break;
+                    }
+                    lastTag = r.getEnvelope().getDeliveryTag();
+                    if (i >= offset) {
+                        entries.add(toEntry(i, toMessage(r)));
+                    }
+                }
+            } finally {
+                requeueUpTo(channel, lastTag);
+            }
+            return new Page(depth, offset, entries);
+        });
+    }
+
+    public Summary summarize(int scan) {
+        int want = Math.min(scan, maxScan);
+        return rabbitTemplate.execute(channel -> {
+            long depth = depth(channel);
+            Map<String, long[]> counts = new LinkedHashMap<>();
+            Map<String, List<String>> samples = new LinkedHashMap<>();
+            int scanned = 0;
+            long lastTag = -1;
+            try {
+                for (; scanned < want; scanned++) {
+                    GetResponse r = channel.basicGet(RabbitConfig.DLQ, false);
+                    if (r == null) {
+                        break;
+                    }
+                    lastTag = r.getEnvelope().getDeliveryTag();
+                    Message m = toMessage(r);
+                    String cause = causeOf(m);
+                    counts.computeIfAbsent(cause, c -> new long[1])[0]++;
+                    List<String> sample = samples.computeIfAbsent(cause, c -> new ArrayList<>());
+                    if (sample.size() < SAMPLE_FINGERPRINTS) {
+                        sample.add(fingerprint(m.getBody()));
+                    }
+                }
+            } finally {
+                requeueUpTo(channel, lastTag);
+            }
+            List<CauseGroup> groups = new ArrayList<>();
+            counts.forEach((cause, n) -> groups.add(new CauseGroup(cause, n[0], samples.get(cause))));
+            groups.sort(Comparator.comparingLong(CauseGroup::count).reversed());
+            return new Summary(depth, scanned, groups);
+        });
+    }
+
+    // --- redrive ---
+
+    /** Bắt đầu job redrive; null nếu replica này đang chạy 1 job khác. */
+    public JobStatus start(RedriveRequest request) {
+        double rate = request.ratePerSecond() != null ? request.ratePerSecond() : defaultRate;
+        int burst = request.burst() != null ? request.burst() : defaultBurst;
+        double maxErrorRate = request.maxErrorRate() != null ? request.maxErrorRate() : defaultMaxErrorRate;
+        int max = request.max() != null ? Math.min(request.max(), maxScan) : maxScan;
+        if (rate <= 0 || burst <= 0 || max <= 0 || maxErrorRate <= 0 || maxErrorRate > 1) {
+            throw new IllegalArgumentException("ratePerSecond, burst and max must be positive, maxErrorRate in (0, 1]");
+        }
+        Job job = new Job(request, rate, burst, maxErrorRate, max);
+        Job running = current.get();
+        if (running != null && running.state == State.RUNNING) {
+            return null;
+        }
+        if (!current.compareAndSet(running, job)) {
+            return null;
+        }
+        Thread t = new Thread(() -> run(job), "dlq-redrive-" + job.id);
+        t.setDaemon(true);
+        t.start();
+        return job.status();
+    }
+
+    public JobStatus status() {
+        Job job = current.get();
+        return job != null ? job.status() : null;
+    }
+
+    public JobStatus cancel() {
+        Job job = current.get();
+        if (job == null) {
+            return null;
+        }
+        job.cancelled = true;
+        return job.status();
+    }
+
+    private void run(Job job) {
+        logger.info("DLQ redrive {} started: rate={}/s, burst={}, max={}, maxErrorRate={}",
+                job.id, job.rate, job.burst, job.max, job.maxErrorRate);
+        try {
+            rabbitTemplate.execute(channel -> {
+                redrive(channel, job);
+                return null;
+            });
+            if (job.state == State.RUNNING) {
+                job.finish(job.cancelled ? State.CANCELLED : State.COMPLETED, null);
+            }
+        } catch (Exception e) {
+            logger.error("DLQ redrive {} failed: {}", job.id, e.getMessage());
+            job.finish(State.FAILED, e.getMessage());
+        }
+        logger.info("DLQ redrive {} finished {}: scanned={}, redriven={}, skipped={}",
+                job.id, job.state, job.scanned, job.redriven, job.skipped);
+    }
+
+    private void redrive(Channel channel, Job job) throws Exception {
+        TokenBucket bucket = new TokenBucket(job.rate, job.burst);
+        long initial = Math.min(depth(channel), maxScan);
+        long baseProcessed = consumerHealth.processedCount();
+        long baseFailed = consumerHealth.failedCount();
+        // message đang giữ (không khớp / bỏ qua), trả lại DLQ khi xong
+        List<Long> held = new ArrayList<>();
+        try {
+            while (job.scanned < initial && job.redriven < job.max && !job.cancelled) {
+                GetResponse r = channel.basicGet(RabbitConfig.DLQ, false);
+                if (r == null) {
+                    break;
+                }
+                job.scanned++;
+                long tag = r.getEnvelope().getDeliveryTag();
+                Message m = toMessage(r);
+                if (!job.matches(fingerprint(m.getBody()), causeOf(m))) {
+                    held.add(tag);
+                    continue;
+                }
+                job.matched++;
+                if (header(m, REDRIVE_COUNT_HEADER) >= maxRedrives) {
+                    job.skipped++;
+                    held.add(tag);
+                    continue;
+                }
+                bucket.acquire();
+                String reason = errorRateExceeded(channel, job, initial, baseProcessed, baseFailed);
+                if (reason != null) {
+                    held.add(tag);
+                    logger.warn("DLQ redrive {} stopped: {}", job.id, reason);
+                    job.finish(State.STOPPED_ERROR_RATE, reason);
+                    return;
+                }
+                if (!publish(m)) {
+                    held.add(tag);
+                    job.finish(State.FAILED, "No publish confirm within " + confirmTimeout);
+                    return;
+                }
+                channel.basicAck(tag, false);
+                job.redriven++;
+            }
+        } finally {
+            for (long tag : held) {
+                channel.basicNack(tag, false, true);
+            }
+        }
+    }
+
+    /**
+     * Lý do dừng, null nếu còn chạy được.
+     * - consumer replica này: lỗi / (xử lý xong + lỗi) từ lúc bắt đầu
+     * - toàn cluster: message mới vào DLQ / số đã redrive (chậm hơn do vòng retry 5s + 30s)
+     */
+    private String errorRateExceeded(Channel channel, Job job, long initial, long baseProcessed, long baseFailed)
+            throws IOException {
+        long failed = consumerHealth.failedCount() - baseFailed;
+        long total = failed + consumerHealth.processedCount() - baseProcessed;
+        job.consumerErrorRate = total > 0 ? (double) failed / total : 0;
+        if (total >= minSamples && job.consumerErrorRate > job.maxErrorRate) {
+            return String.format("consumer error rate %.2f over %.2f (%d of %d messages)",
+                    job.consumerErrorRate, job.maxErrorRate, failed, total);
+        }
+        long now = System.nanoTime();
+        if (now - job.lastDepthCheck < TimeUnit.SECONDS.toNanos(1)) {
+            return null;
+        }
+        job.lastDepthCheck = now;
+        // ready = phần chưa quét của lượt đầu + message mới chết
+        long returned = Math.max(depth(channel) - (initial - job.scanned), 0);
+        job.returnRate = job.redriven > 0 ? (double) returned / job.redriven : 0;
+        if (job.redriven >= minSamples && job.returnRate > job.maxErrorRate) {
+            return String.format("%d of %d redriven messages dead-lettered again", returned, job.redriven);
+        }
+        return null;
+    }
+
+    private boolean publish(Message dead) throws InterruptedException {
+        MessageProperties props = dead.getMessageProperties();
+        String routingKey = routingKeyFor(dead);
+        int redrives = header(dead, REDRIVE_COUNT_HEADER) + 1;
+        STRIPPED_HEADERS.forEach(props.getHeaders()::remove);
+        props.setHeader(REDRIVE_COUNT_HEADER, redrives);
+        CorrelationData cd = new CorrelationData("redrive-" + UUID.randomUUID());
+        confirmingTemplate.send(RabbitConfig.EXCHANGE, routingKey, dead, cd);
+        try {
+            return cd.getFuture().get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS).isAck();
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    // Request đăng ký quay về partition của bài (giữ thứ tự theo post); còn lại theo routing key lúc chết
+    private String routingKeyFor(Message dead) {
+        String received = dead.getMessageProperties().getReceivedRoutingKey();
+        if (RabbitConfig.ROUTING_KEY.equals(received)) {
+            try {
+                if (messageConverter.fromMessage(dead) instanceof VolunteerRequestMessage m && m.getPostId() != null) {
+                    return partitions.routingKeyFor(m.getPostId());
+                }
+            } catch (Exception e) {
+                // không đọc được: gửi về queue cũ, consumer sẽ đưa lại vào DLQ kèm lý do
+            }
+        }
+        return received != null ? received : RabbitConfig.ROUTING_KEY;
+    }
+
+    // --- tiện ích ---
+
+    private static long depth(Channel channel) throws IOException {
+        return channel.queueDeclarePassive(RabbitConfig.DLQ).getMessageCount();
+    }
+
+    private static void requeueUpTo(Channel channel, long lastTag) throws IOException {
+        if (lastTag >= 0) {
+            channel.basicNack(lastTag, true, true);
+        }
+    }
+
+    private Message toMessage(GetResponse r) {
+        MessageProperties props = propertiesConverter.toMessageProperties(r.getProps(), r.getEnvelope(),
+                StandardCharsets.UTF_8.name());
+        return new Message(r.getBody(), props);
+    }
+
+    private Entry toEntry(int position, Message m) {
+        MessageProperties props = m.getMessageProperties();
+        String payload = new String(m.getBody(), StandardCharsets.UTF_8);
+        if (payload.length() > PAYLOAD_PREVIEW) {
+            payload = payload.substring(0, PAYLOAD_PREVIEW) + "...";
+        }
+        return new Entry(position, fingerprint(m.getBody()), props.getReceivedRoutingKey(), causeOf(m),
+                header(m, RabbitConfig.RETRY_COUNT_HEADER), header(m, REDRIVE_COUNT_HEADER),
+                props.getTimestamp() != null ? props.getTimestamp().toInstant() : null, payload);
+    }
+
+    static String causeOf(Message m) {
+        Object cause = m.getMessageProperties().getHeader(RabbitConfig.FAILURE_CAUSE_HEADER);
+        String text = cause != null ? cause.toString() : null;
+        if (text == null) {
+            Object reason = m.getMessageProperties().getHeader("x-first-death-reason");
+            text = reason != null ? "broker: " + reason : "unknown";
+        }
+        int newline = text.indexOf('\n');
+        if (newline >= 0) {
+            text = text.substring(0, newline);
+        }
+        text = text.replaceAll("\\d+", "#");
+        return text.length() > CAUSE_LENGTH ? text.substring(0, CAUSE_LENGTH) : text;
+    }
+
+    static String fingerprint(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int header(Message m, String name) {
+        Object v = m.getMessageProperties().getHeader(name);
+        return v instanceof Number n ? n.intValue() : 0;
+    }
+
+    // trạng thái 1 job; chỉ thread job ghi, API đọc
+    private static final class Job {
+        final String id = UUID.randomUUID().toString().substring(0, 8);
+        final Set<String> fingerprints;
+        final Set<String> causes;
+        final double rate;
+        final int burst;
+        final double maxErrorRate;
+        final int max;
+        final Instant startedAt = Instant.now();
+        volatile State state = State.RUNNING;
+        volatile boolean cancelled;
+        volatile long scanned;
+        volatile long matched;
+        volatile long redriven;
+        volatile long skipped;
+        volatile double consumerErrorRate;
+        volatile double returnRate;
+        volatile String reason;
+        volatile Instant finishedAt;
+        long lastDepthCheck;
+
+        Job(RedriveRequest request, double rate, int burst, double maxErrorRate, int max) {
+            this.fingerprints = request.fingerprints() != null ? Set.copyOf(request.fingerprints()) : Set.of();
+            this.causes = request.causes() != null ? Set.copyOf(request.causes()) : Set.of();
+            this.rate = rate;
+            this.burst = burst;
+            this.maxErrorRate = maxErrorRate;
+            this.max = max;
+        }
+
+        boolean matches(String fingerprint, String cause) {
+            return (fingerprints.isEmpty() || fingerprints.contains(fingerprint))
+                    && (causes.isEmpty() || causes.contains(cause));
+        }
+
+        void finish(State state, String reason) {
+            this.reason = reason;
+            this.finishedAt = Instant.now();
+            this.state = state;
+        }
+
+        JobStatus status() {
+            return new JobStatus(id, state, scanned, matched, redriven, skipped, consumerErrorRate, returnRate,
+                    reason, startedAt, finishedAt);
+        }
+    }
+}
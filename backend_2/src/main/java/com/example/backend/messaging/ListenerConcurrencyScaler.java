@@ -0,0 +1,178 @@
+package com.example.backend.messaging;
+
+import com.example.backend.config.ListenerScalingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chỉnh số consumer của listener xóa request theo độ sâu queue và utilization.
+ *
+ * Mỗi chu kỳ: mục tiêu = ceil(depth / messagesPerConsumer), +1 nếu consumer bận
+ * trên scaleUpUtilization; tăng ngay, giảm từng consumer một sau scaleDownCycles
+ * chu kỳ dư liên tiếp (SimpleMessageListenerContainer cho consumer bị bớt xử lý
+ * xong message đang cầm rồi mới dừng). Tổng consumer mọi listener không vượt
+ * maxDbConnections để pool DB còn chỗ cho HTTP thread.
+ *
+ * Listener đăng ký không scale ở đây: mỗi queue partition có x-single-active-consumer
+ * nên thêm consumer chỉ thêm consumer đứng chờ, còn queue cũ không partition chỉ xả
+ * message tồn (thêm consumer sẽ phá thứ tự theo bài). Thông lượng đăng ký chỉnh bằng
+ * số partition (app.messaging.request-partitions.count) và kích thước lô; các consumer
+ * đó (1 / partition + 1 queue cũ) được trừ sẵn khỏi maxDbConnections.
+ */
+@Component
+public class ListenerConcurrencyScaler {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final RabbitListenerEndpointRegistry registry;
+    private final AmqpAdmin amqpAdmin;
+    private final ListenerUtilization utilization;
+    private final ListenerScalingProperties properties;
+    private final RequestPartitions partitions;
+    private final List<Pool> pools;
+
+    // trạng thái scale của 1 listener
+    private final class Pool {
+        final String listenerId;
+        final String queue;
+        final ListenerScalingProperties.Pool limits;
+        volatile int concurrency;
+        volatile long depth;
+        volatile double utilization;
+        long lastBusyNanos;
+        long lastTick = System.nanoTime();
+        int idleCycles;
+
+        Pool(String listenerId, String queue, ListenerScalingProperties.Pool limits) {
+            this.listenerId = listenerId;
+            this.queue = queue;
+            this.limits = limits;
+            this.concurrency = limits.getMin();
+        }
+    }
+
+    public ListenerConcurrencyScaler(RabbitListenerEndpointRegistry registry,
+                                     AmqpAdmin amqpAdmin,
+                                     ListenerUtilization utilization,
+                                     ListenerScalingProperties properties,
+                                     RequestPartitions partitions,
+                                     MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.amqpAdmin = amqpAdmin;
+        this.utilization = utilization;
+        this.properties = properties;
+        this.partitions = partitions;
+        this.pools = List.of(
+                new Pool(RabbitConfig.DELETE_LISTENER_ID, RabbitConfig.DELETE_QUEUE, properties.getDeletes()));
+        int fixed = requestConsumers();
+        int floor = fixed + pools.stream().mapToInt(p -> p.limits.getMin()).sum();
+        if (floor > properties.getMaxDbConnections()) {
+            logger.warn("{} request consumers (partitions + legacy queue) plus scaled listener minimums exceed "
+                    + "app.messaging.scaling.max-db-connections={}; lower app.messaging.request-partitions.count",
+                    fixed, properties.getMaxDbConnections());
+        }
+        for (Pool pool : pools) {
+            Gauge.builder("messaging.listener.concurrency", pool, p -> p.concurrency)
+                    .description("Consumers chosen by the queue-depth scaler")
+                    .tag("listener", pool.listenerId)
+                    .register(meterRegistry);
+            Gauge.builder("messaging.listener.queue.depth", pool, p -> p.depth)
+                    .description("Ready messages seen at the last scaling tick")
+                    .tag("listener", pool.listenerId)
+                    .register(meterRegistry);
+            Gauge.builder("messaging.listener.utilization", pool, p -> p.utilization)
+                    .description("Share of the last tick consumers spent inside the listener")
+                    .tag("listener", pool.listenerId)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.scaling.interval:5s}")
+    public void scale() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (Pool pool : pools) {
+            try {
+                scale(pool);
+            } catch (Exception e) {
+                logger.warn("Scaling listener {} failed: {}", pool.listenerId, e.getMessage());
+            }
+        }
+    }
+
+    private void scale(Pool pool) {
+        MessageListenerContainer container = registry.getListenerContainer(pool.listenerId);
+        if (!(container instanceof SimpleMessageListenerContainer smlc) || !smlc.isRunning()) {
+            return;
+        }
+        QueueInformation info = amqpAdmin.getQueueInfo(pool.queue);
+        if (info == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long busy = utilization.busyNanos(pool.queue);
+        int current = pool.concurrency;
+        double util = (double) (busy - pool.lastBusyNanos) / ((now - pool.lastTick) * (double) Math.max(current, 1));
+        pool.lastBusyNanos = busy;
+        pool.lastTick = now;
+        pool.depth = info.getMessageCount();
+        pool.utilization = Math.min(util, 1.0);
+
+        int target = (int) Math.ceil((double) pool.depth / properties.getMessagesPerConsumer());
+        if (pool.utilization >= properties.getScaleUpUtilization()) {
+            target = Math.max(target, current + 1);
+        }
+        int desired = clamp(target, pool.limits.getMin(), Math.min(pool.limits.getMax(), budgetFor(pool)));
+
+        if (desired > current) {
+            pool.idleCycles = 0;
+            apply(pool, smlc, desired);
+        } else if (desired < current && pool.utilization < properties.getScaleDownUtilization()) {
+            if (++pool.idleCycles >= properties.getScaleDownCycles()) {
+                pool.idleCycles = 0;
+                apply(pool, smlc, current - 1);
+            }
+        } else {
+            pool.idleCycles = 0;
+        }
+    }
+
+    // consumer cố định của listener đăng ký: 1 / partition + 1 cho queue cũ
+    private int requestConsumers() {
+        return partitions.consumed() + RabbitConfig.LEGACY_REQUEST_CONSUMERS;
+    }
+
+    // số consumer tối đa pool này được giữ, sau khi trừ phần các listener khác đang dùng
+    private int budgetFor(Pool pool) {
+        int others = requestConsumers();
+        for (Pool p : pools) {
+            if (p != pool) {
+                others += p.concurrency;
+            }
+        }
+        return Math.max(properties.getMaxDbConnections() - others, pool.limits.getMin());
+    }
+
+    private void apply(Pool pool, SimpleMessageListenerContainer container, int concurrency) {
+        logger.info("Scaling listener {}: {} -> {} consumers (depth={}, utilization={})",
+                pool.listenerId, pool.concurrency, concurrency, pool.depth,
+                String.format("%.2f", pool.utilization));
+        container.setConcurrentConsumers(concurrency);
+        pool.concurrency = concurrency;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
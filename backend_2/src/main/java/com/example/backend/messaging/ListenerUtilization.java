@@ -0,0 +1,49 @@
+package com.example.backend.messaging;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.core.Message;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Advice trên container: cộng dồn thời gian listener bận theo queue.
+ * ListenerConcurrencyScaler lấy phần chênh mỗi chu kỳ / (chu kỳ * số consumer) = utilization.
+ */
+public class ListenerUtilization implements MethodInterceptor {
+
+    private final Map<String, LongAdder> busyNanos = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            String queue = queueOf(invocation.getArguments());
+            if (queue != null) {
+                busyNanos.computeIfAbsent(queue, q -> new LongAdder()).add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    public long busyNanos(String queue) {
+        LongAdder adder = busyNanos.get(queue);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    // invokeListener(Channel, Object data): data là Message hoặc List<Message> (batch)
+    private static String queueOf(Object[] args) {
+        if (args == null || args.length < 2) {
+            return null;
+        }
+        Object data = args[1];
+        if (data instanceof List<?> list && !list.isEmpty()) {
+            data = list.get(0);
+        }
+        return data instanceof Message m ? m.getMessageProperties().getConsumerQueue() : null;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.backend.messaging;
+
+import com.example.backend.entity.OutboxEvent;
+import com.example.backend.entity.OutboxRelayState;
+import com.example.backend.repo.OutboxEventRepository;
+import com.example.backend.repo.OutboxRelayStateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đẩy bảng outbox sang RabbitMQ theo lô, đúng thứ tự id.
+ *
+ * Chỉ replica giữ lease trên dòng outbox_relay_state mới relay (lấy / gia hạn
+ * bằng 1 UPDATE có điều kiện trước mỗi lô, hết hạn sau lease-duration nếu
+ * replica chết). Mỗi lô: đọc tối đa batch-size event, gửi trên 1 channel với
+ * publisher confirm và chờ confirm ngoài transaction (không giữ khóa hay
+ * connection DB trong lúc chờ), rồi 1 transaction ngắn xóa phần đầu liên tiếp
+ * đã được ack và đẩy high-water mark lên id cuối của phần đó.
+ *
+ * Dừng ở event đầu tiên bị nack / quá confirm-timeout: nó và mọi event sau nó
+ * ở lại bảng và được gửi lại vòng sau, nên event sau không bao giờ bị xóa
+ * trước event trước (event đã ack phía sau bị gửi trùng; consumer idempotent
+ * theo volunteerEmail + postId). lease-duration phải lớn hơn thời gian gửi +
+ * confirm-timeout của 1 lô; giờ so theo đồng hồ từng replica.
+ *
+ * Backlog (backpressure ở OutboxWriter, gauge) mọi replica tự đếm lại định kỳ,
+ * không phụ thuộc lease.
+ *
+ * Không lọc "id > lastId": transaction cấp id nhỏ hơn có thể commit muộn hơn,
+ * nên relay luôn đọc từ đầu bảng (chỉ còn event chưa gửi) và xóa theo id.
+ */
+@Component
+public class OutboxRelay {
+
+    static final String RELAY_NAME = "volunteer-request";
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final OutboxEventRepository outboxRepository;
+    private final OutboxRelayStateRepository stateRepository;
+    private final RabbitTemplate template;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration confirmTimeout;
+    private final Duration leaseDuration;
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final Timer confirmAck;
+    private final Timer confirmNack;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       OutboxRelayStateRepository stateRepository,
+                       @Qualifier(RabbitConfig.CONFIRMING_TEMPLATE) RabbitTemplate template,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry registry,
+                       @Value("${app.outbox.batch-size:200}") int batchSize,
+                       @Value("${app.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${app.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+                       @Value("${app.outbox.lease-duration:30s}") Duration leaseDuration) {
+        this.outboxRepository = outboxRepository;
+        this.stateRepository = stateRepository;
+        this.template = template;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.confirmTimeout = confirmTimeout;
+        this.leaseDuration = leaseDuration;
+        Gauge.builder("messaging.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events not yet confirmed by the broker")
+                .register(registry);
+        Gauge.builder("messaging.outbox.high.water.mark", highWaterMark, AtomicLong::get)
+                .description("Highest outbox id confirmed by the broker")
+                .register(registry);
+        this.confirmAck = Timer.builder("messaging.publisher.confirm.latency")
+                .description("Time from send to broker confirm")
+                .tag("result", "ack")
+                .register(registry);
+        this.confirmNack = Timer.builder("messaging.publisher.confirm.latency")
+                .description("Time from send to broker confirm")
+                .tag("result", "nack")
+                .register(registry);
+    }
+
+    // Số event còn chờ (dùng cho backpressure ở OutboxWriter); đúng trên mọi replica, không riêng replica giữ lease
+    public long backlog() {
+        return backlog.get();
+    }
+
+    // Mọi replica đếm lại bảng outbox: replica không giữ lease cũng phải thấy backlog để trả 503 khi broker down lâu
+    @Scheduled(fixedDelayString = "${app.outbox.backlog-refresh-interval:1s}")
+    public void refreshBacklog() {
+        try {
+            backlog.set(outboxRepository.count());
+            stateRepository.findById(RELAY_NAME).ifPresent(state -> highWaterMark.set(state.getLastId()));
+        } catch (Exception e) {
+            logger.warn("Refreshing outbox backlog failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:200ms}")
+    public void relay() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (!claimLease() || !relayBatch()) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    // Tắt máy: nhả lease để replica khác relay ngay, không chờ hết hạn
+    @PreDestroy
+    public void releaseLease() {
+        try {
+            tx.executeWithoutResult(status -> stateRepository.releaseLease(RELAY_NAME, owner));
+        } catch (Exception e) {
+            logger.warn("Releasing outbox relay lease failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean claimLease() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = tx.execute(status ->
+                stateRepository.claimLease(RELAY_NAME, owner, now, now.plus(leaseDuration)));
+        if (claimed != null && claimed > 0) {
+            return true;
+        }
+        if (!stateRepository.existsById(RELAY_NAME)) {
+            // lần đầu: tạo dòng lease; replica khác tạo cùng lúc thì vòng này lỗi, vòng sau chạy bình thường
+            OutboxRelayState state = new OutboxRelayState();
+            state.setName(RELAY_NAME);
+            stateRepository.saveAndFlush(state);
+        }
+        return false;
+    }
+
+    // true nếu lô đầy và được ack hết -> chạy tiếp lô sau ngay
+    private boolean relayBatch() {
+        List<OutboxEvent> events = outboxRepository.findBatch(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            backlog.set(0);
+            return false;
+        }
+
+        int acked = publish(events);
+        if (acked > 0) {
+            List<Long> ids = new ArrayList<>(acked);
+            for (OutboxEvent e : events.subList(0, acked)) {
+                ids.add(e.getId());
+            }
+            long max = ids.get(ids.size() - 1);
+            tx.executeWithoutResult(status -> {
+                outboxRepository.deleteByIds(ids);
+                stateRepository.advance(RELAY_NAME, max, LocalDateTime.now());
+            });
+            highWaterMark.accumulateAndGet(max, Math::max);
+        }
+
+        // lô đầy: bảng còn có thể nhiều hơn -> đếm lại (đã trừ các dòng vừa xóa)
+        backlog.set(events.size() == batchSize ? outboxRepository.count() : events.size() - acked);
+        return events.size() == batchSize && acked == events.size();
+    }
+
+    // Gửi cả lô trên 1 channel, trả về số event đầu lô được ack liên tiếp
+    private int publish(List<OutboxEvent> events) {
+        List<CorrelationData> confirms = new ArrayList<>(events.size());
+        long start = System.nanoTime();
+        try {
+            template.invoke(ops -> {
+                for (OutboxEvent e : events) {
+                    CorrelationData cd = new CorrelationData("outbox-" + e.getId());
+                    confirms.add(cd);
+                    ops.send(e.getExchangeName(), e.getRoutingKey(), toMessage(e), cd);
+                }
+                return null;
+            });
+        } catch (Exception ex) {
+            logger.warn("Publishing {} outbox events failed: {}", events.size(), ex.getMessage());
+        }
+
+        long deadline = start + confirmTimeout.toNanos();
+        for (int i = 0; i < confirms.size(); i++) {
+            boolean ack = false;
+            try {
+                long wait = Math.max(deadline - System.nanoTime(), 0);
+                CorrelationData.Confirm confirm = confirms.get(i).getFuture().get(wait, TimeUnit.NANOSECONDS);
+                ack = confirm.isAck();
+                if (!ack) {
+                    logger.warn("Outbox event {} nacked: {}", events.get(i).getId(), confirm.getReason());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                logger.warn("No publish confirm for outbox event {} within {}", events.get(i).getId(), confirmTimeout);
+            }
+            (ack ? confirmAck : confirmNack).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!ack) {
+                // phần sau gửi lại vòng sau cùng event này, không xóa vượt qua nó
+                return i;
+            }
+        }
+        return confirms.size();
+    }
+
+    private static Message toMessage(OutboxEvent e) {
+        MessageProperties props = new MessageProperties();
+        props.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        props.setContentEncoding(StandardCharsets.UTF_8.name());
+        props.setMessageId("outbox-" + e.getId());
+        props.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, e.getPayloadType());
+        return new Message(e.getPayload().getBytes(StandardCharsets.UTF_8), props);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.backend.messaging;
+
+import com.example.backend.entity.OutboxEvent;
+import com.example.backend.exception.PublishBackpressureException;
+import com.example.backend.repo.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ghi message vào bảng outbox trong transaction nghiệp vụ đang chạy (MANDATORY):
+ * rollback thì message cũng biến mất, commit thì {@link OutboxRelay} chắc chắn gửi.
+ * Payload được serialize bằng chính MessageConverter của Rabbit nên consumer đọc như cũ.
+ *
+ * Thread HTTP không chạm broker (chỉ INSERT 1 dòng). Backpressure: backlog vượt
+ * app.outbox.max-backlog thì ném {@link PublishBackpressureException} (503 QUEUE_BUSY
+ * + Retry-After); backlog lấy từ {@link OutboxRelay#backlog()}, được mọi replica đếm
+ * lại định kỳ nên replica không giữ lease relay cũng từ chối ghi đúng lúc.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepository;
+    private final MessageConverter messageConverter;
+    private final OutboxRelay relay;
+    private final long maxBacklog;
+    private final Counter rejected;
+
+    public OutboxWriter(OutboxEventRepository outboxRepository,
+                        MessageConverter messageConverter,
+                        OutboxRelay relay,
+                        MeterRegistry registry,
+                        @Value("${app.outbox.max-backlog:50000}") long maxBacklog) {
+        this.outboxRepository = outboxRepository;
+        this.messageConverter = messageConverter;
+        this.relay = relay;
+        this.maxBacklog = maxBacklog;
+        this.rejected = Counter.builder("messaging.outbox.rejected")
+                .description("Writes refused because the outbox backlog was over max-backlog")
+                .register(registry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String exchange, String routingKey, Object payload) {
+        // relay không theo kịp (broker down lâu): trả 503 sớm thay vì để bảng outbox phình vô hạn
+        if (relay.backlog() >= maxBacklog) {
+            rejected.increment();
+            throw new PublishBackpressureException("Request queue is busy, please retry shortly");
+        }
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        Object type = message.getMessageProperties().getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+
+        OutboxEvent event = new OutboxEvent();
+        event.setExchangeName(exchange);
+        event.setRoutingKey(routingKey);
+        event.setPayloadType(type != null ? type.toString() : payload.getClass().getName());
+        event.setPayload(new String(message.getBody(), StandardCharsets.UTF_8));
+        outboxRepository.save(event);
+    }
+}
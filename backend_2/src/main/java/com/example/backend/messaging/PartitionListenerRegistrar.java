@@ -0,0 +1,47 @@
+package com.example.backend.messaging;
+
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 1 container / partition, mỗi container 1 consumer (queue có x-single-active-consumer
+ * nên mỗi partition chỉ 1 consumer active trên mọi replica; replica khác đứng chờ
+ * thay thế). Không dùng 1 container nhiều consumer nghe mọi queue: broker sẽ chọn
+ * cùng 1 consumer làm active cho tất cả partition.
+ */
+@Component
+public class PartitionListenerRegistrar implements RabbitListenerConfigurer {
+
+    static final String LISTENER_ID_PREFIX = RabbitConfig.REQUEST_LISTENER_ID + "-p";
+
+    private final RequestPartitions partitions;
+    private final VolunteerRequestConsumer consumer;
+    private final SimpleRabbitListenerContainerFactory batchFactory;
+
+    public PartitionListenerRegistrar(RequestPartitions partitions,
+                                      VolunteerRequestConsumer consumer,
+                                      @Qualifier(RabbitConfig.REQUEST_BATCH_FACTORY)
+                                      SimpleRabbitListenerContainerFactory batchFactory) {
+        this.partitions = partitions;
+        this.consumer = consumer;
+        this.batchFactory = batchFactory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        BatchMessageListener listener = consumer::handleVolunteerRequests;
+        for (int i = 0; i < partitions.consumed(); i++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(LISTENER_ID_PREFIX + i);
+            endpoint.setQueueNames(partitions.queue(i));
+            endpoint.setConcurrency("1");
+            endpoint.setMessageListener(listener);
+            registrar.registerEndpoint(endpoint, batchFactory);
+        }
+    }
+}
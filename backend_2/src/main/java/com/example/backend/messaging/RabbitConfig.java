@@ -5,14 +5,20 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import com.example.backend.config.ListenerScalingProperties;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.retry.interceptor.RetryOperationsInterceptor;
 import org.springframework.retry.interceptor.RetryInterceptorBuilder;
 import org.springframework.retry.interceptor.MethodInvocationRecoverer;
 import com.example.backend.messaging.VolunteerRequestMessage;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitConfig {
 
@@ -37,6 +43,16 @@ public class RabbitConfig {
     public static final String DELETE_RETRY_QUEUE_2 = "volunteer.request.delete.retry.queue.2"; // 30s
     public static final String DLQ = "volunteer.request.dlq";
     public static final String DLX = "volunteer.request.dlx";
+    // Header do consumer batch tự đặt khi republish 1 message lỗi
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String FAILURE_CAUSE_HEADER = "x-failure-cause";
+    public static final String REQUEST_BATCH_FACTORY = "requestBatchContainerFactory";
+    public static final String CONFIRMING_TEMPLATE = "confirmingRabbitTemplate";
+    // id container, ListenerConcurrencyScaler tìm container theo id
+    public static final String REQUEST_LISTENER_ID = "volunteerRequests";
+    public static final String DELETE_LISTENER_ID = "volunteerRequestDeletes";
+    // queue cũ không partition: consumer cố định, không scale (ListenerConcurrencyScaler)
+    static final int LEGACY_REQUEST_CONSUMERS = 1;
 
     @Bean
     public TopicExchange volunteerRequestExchange() {
@@ -141,6 +157,42 @@ public class RabbitConfig {
         return BindingBuilder.bind(volunteerRequestQueue).to(volunteerRequestExchange).with(ROUTING_KEY);
     }
 
+    // Partition theo postId: queue p{i} (1 consumer active) + retry 5s / 30s riêng, quay về đúng partition
+    @Bean
+    public Declarables requestPartitionTopology(RequestPartitions partitions) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int i = 0; i < partitions.consumed(); i++) {
+            var mainArgs = new java.util.HashMap<String, Object>();
+            mainArgs.put("x-single-active-consumer", true);
+            mainArgs.put("x-dead-letter-exchange", RETRY_EXCHANGE);
+            mainArgs.put("x-dead-letter-routing-key", partitions.retryRoutingKey1(i));
+            Queue main = new Queue(partitions.queue(i), true, false, false, mainArgs);
+
+            var retry1Args = new java.util.HashMap<String, Object>();
+            retry1Args.put("x-message-ttl", 5000); // 5 seconds
+            retry1Args.put("x-dead-letter-exchange", RETRY_EXCHANGE);
+            retry1Args.put("x-dead-letter-routing-key", partitions.retryRoutingKey2(i));
+            Queue retry1 = new Queue(partitions.retryQueue1(i), true, false, false, retry1Args);
+
+            var retry2Args = new java.util.HashMap<String, Object>();
+            retry2Args.put("x-message-ttl", 30000); // 30 seconds
+            retry2Args.put("x-dead-letter-exchange", EXCHANGE);
+            retry2Args.put("x-dead-letter-routing-key", partitions.routingKey(i));
+            Queue retry2 = new Queue(partitions.retryQueue2(i), true, false, false, retry2Args);
+
+            declarables.add(main);
+            declarables.add(retry1);
+            declarables.add(retry2);
+            declarables.add(new Binding(main.getName(), Binding.DestinationType.QUEUE, EXCHANGE,
+                    partitions.routingKey(i), null));
+            declarables.add(new Binding(retry1.getName(), Binding.DestinationType.QUEUE, RETRY_EXCHANGE,
+                    partitions.retryRoutingKey1(i), null));
+            declarables.add(new Binding(retry2.getName(), Binding.DestinationType.QUEUE, RETRY_EXCHANGE,
+                    partitions.retryRoutingKey2(i), null));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public Queue volunteerRequestDeleteQueue() {
         // Simple durable queue for delete messages, dead-letter to DLX on failure
@@ -162,21 +214,42 @@ public class RabbitConfig {
     }
 
     @Bean
+    @Primary
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter);
         return template;
     }
 
+    // Template riêng cho OutboxRelay: publisher connection tách khỏi connection của consumer
+    // (broker flow-control publisher không chặn consumer), confirm correlated (spring.rabbitmq.publisher-confirm-type)
+    @Bean(CONFIRMING_TEMPLATE)
+    public RabbitTemplate confirmingRabbitTemplate(ConnectionFactory connectionFactory, MessageConverter jsonMessageConverter) {
+        RabbitTemplate template = new RabbitTemplate(connectionFactory);
+        template.setMessageConverter(jsonMessageConverter);
+        template.setUsePublisherConnection(true);
+        return template;
+    }
+
+    @Bean
+    public ListenerUtilization listenerUtilization() {
+        return new ListenerUtilization();
+    }
+
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
             RabbitTemplate rabbitTemplate,
-            MessageConverter jsonMessageConverter) {
+            MessageConverter jsonMessageConverter,
+            ListenerUtilization listenerUtilization,
+            ListenerScalingProperties scaling) {
 
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter);
+        // delete queue; số consumer do ListenerConcurrencyScaler chỉnh trong [min, max]
+        factory.setConcurrentConsumers(scaling.getDeletes().getMin());
+        factory.setPrefetchCount(scaling.getDeletes().getPrefetch());
 
         // Retry interceptor: maxAttempts = 3, exponential backoff (initial 500ms, multiplier 2.0, max 5s)
         RetryOperationsInterceptor retryInterceptor = RetryInterceptorBuilder.stateless()
@@ -189,11 +262,17 @@ public class RabbitConfig {
                         if (args != null) {
                             for (Object a : args) {
                                 try {
+                                    // ghi nguyên nhân để /admin/dlq nhóm message theo lỗi
+                                    MessagePostProcessor withCause = m -> {
+                                        m.getMessageProperties().setHeader(FAILURE_CAUSE_HEADER,
+                                                cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                                        return m;
+                                    };
                                     if (a instanceof VolunteerRequestMessage) {
-                                        rabbitTemplate.convertAndSend(DLX, ROUTING_KEY, a);
+                                        rabbitTemplate.convertAndSend(DLX, ROUTING_KEY, a, withCause);
                                         break;
                                     } else if (a instanceof com.example.backend.messaging.DeleteVolunteerRequestMessage) {
-                                        rabbitTemplate.convertAndSend(DLX, DELETE_ROUTING_KEY, a);
+                                        rabbitTemplate.convertAndSend(DLX, DELETE_ROUTING_KEY, a, withCause);
                                         break;
                                     }
                                 } catch (Exception e) {
@@ -206,7 +285,33 @@ public class RabbitConfig {
                 })
                 .build();
 
-        factory.setAdviceChain(retryInterceptor);
+        factory.setAdviceChain(listenerUtilization, retryInterceptor);
+        return factory;
+    }
+
+    // Consumer batch cho volunteer.request.queue: nhận tối đa batch-size message hoặc chờ receive-timeout,
+    // ack cả lô 1 lần. Không dùng retry advice: message lỗi được consumer tự chuyển sang retry/DLX từng cái.
+    @Bean(REQUEST_BATCH_FACTORY)
+    public SimpleRabbitListenerContainerFactory requestBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${app.messaging.request-batch.size:50}") int batchSize,
+            @Value("${app.messaging.request-batch.receive-timeout:200ms}") java.time.Duration receiveTimeout,
+            @Value("${app.messaging.request-batch.prefetch:100}") int prefetch,
+            ListenerUtilization listenerUtilization) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeout.toMillis());
+        // prefetch >= batch để lô đầy không phải chờ broker đẩy tiếp
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        // queue cũ chỉ xả message tồn: 1 consumer giữ thứ tự theo bài; partition tự đặt concurrency 1
+        factory.setConcurrentConsumers(LEGACY_REQUEST_CONSUMERS);
+        factory.setAdviceChain(listenerUtilization);
+        // lô ném lỗi (vd republish thất bại) -> dead-letter sang retry exchange thay vì requeue vòng lặp
+        factory.setDefaultRequeueRejected(false);
         return factory;
     }
 }
@@ -0,0 +1,103 @@
+package com.example.backend.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chia volunteer request thành N partition theo postId (jump consistent hash).
+ *
+ * Mỗi partition i có: routing key "volunteer.request.created.p{i}", queue
+ * "volunteer.request.queue.p{i}" (x-single-active-consumer) và 2 retry queue
+ * riêng (5s, 30s) quay về đúng partition. Mọi request của 1 bài đi cùng 1 queue
+ * với 1 consumer active -> giữ thứ tự theo bài, các bài khác nhau chạy song song
+ * trên các queue khác nhau mà không tranh khóa cùng dòng volunteer_post.
+ *
+ * Đổi N: jump hash chỉ chuyển ~1/N số bài sang partition khác. Khi giảm N, đặt
+ * retired = N cũ để các queue p{N}..p{retired-1} vẫn được consume cho tới khi
+ * rỗng (không còn publish vào). Lúc chuyển, message cũ của 1 bài bị chuyển có
+ * thể chạy song song với message mới ở partition mới; consumer vẫn đúng nhờ
+ * unique (volunteerEmail, postId).
+ */
+@Component
+public class RequestPartitions {
+
+    static final String ROUTING_KEY_PREFIX = RabbitConfig.ROUTING_KEY + ".p";
+    static final String QUEUE_PREFIX = RabbitConfig.QUEUE + ".p";
+    static final String RETRY_KEY_1_PREFIX = RabbitConfig.RETRY_ROUTING_KEY_1 + ".p";
+    static final String RETRY_KEY_2_PREFIX = RabbitConfig.RETRY_ROUTING_KEY_2 + ".p";
+    static final String RETRY_QUEUE_1_PREFIX = RabbitConfig.RETRY_QUEUE_1 + ".p";
+    static final String RETRY_QUEUE_2_PREFIX = RabbitConfig.RETRY_QUEUE_2 + ".p";
+
+    private final int count;
+    // số queue được khai báo / consume (>= count), phần dư chỉ để xả khi giảm N
+    private final int consumed;
+
+    public RequestPartitions(@Value("${app.messaging.request-partitions.count:4}") int count,
+                             @Value("${app.messaging.request-partitions.retired:0}") int retired) {
+        if (count < 1) {
+            throw new IllegalArgumentException("app.messaging.request-partitions.count must be >= 1");
+        }
+        this.count = count;
+        this.consumed = Math.max(count, retired);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int consumed() {
+        return consumed;
+    }
+
+    public int partitionOf(long postId) {
+        return jumpHash(postId, count);
+    }
+
+    public String routingKeyFor(long postId) {
+        return routingKey(partitionOf(postId));
+    }
+
+    public String routingKey(int partition) {
+        return ROUTING_KEY_PREFIX + partition;
+    }
+
+    public String queue(int partition) {
+        return QUEUE_PREFIX + partition;
+    }
+
+    public String retryRoutingKey1(int partition) {
+        return RETRY_KEY_1_PREFIX + partition;
+    }
+
+    public String retryRoutingKey2(int partition) {
+        return RETRY_KEY_2_PREFIX + partition;
+    }
+
+    public String retryQueue1(int partition) {
+        return RETRY_QUEUE_1_PREFIX + partition;
+    }
+
+    public String retryQueue2(int partition) {
+        return RETRY_QUEUE_2_PREFIX + partition;
+    }
+
+    // Message lấy từ queue nào thì retry về nhánh retry của queue đó (queue cũ không partition -> nhánh cũ)
+    public String retryRoutingKeyForQueue(String consumerQueue) {
+        if (consumerQueue != null && consumerQueue.startsWith(QUEUE_PREFIX)) {
+            return RETRY_KEY_1_PREFIX + consumerQueue.substring(QUEUE_PREFIX.length());
+        }
+        return RabbitConfig.RETRY_ROUTING_KEY_1;
+    }
+
+    // Lamping & Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
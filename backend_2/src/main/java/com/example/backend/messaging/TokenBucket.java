@@ -0,0 +1,34 @@
+package com.example.backend.messaging;
+
+/**
+ * Token bucket cho redrive DLQ: nạp ratePerSecond token / giây, tối đa burst token.
+ * Chỉ 1 thread dùng (job redrive) nên không cần đồng bộ.
+ */
+final class TokenBucket {
+
+    private final double ratePerNano;
+    private final double capacity;
+    private double tokens;
+    private long last = System.nanoTime();
+
+    TokenBucket(double ratePerSecond, int burst) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = Math.max(burst, 1);
+        this.tokens = this.capacity;
+    }
+
+    // Chờ tới khi có 1 token
+    void acquire() throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * ratePerNano);
+            last = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / ratePerNano);
+            Thread.sleep(Math.max(1, waitNanos / 1_000_000), (int) (waitNanos % 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.backend.messaging;
+
+import com.example.backend.cache.RequestCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.cache.VolunteerRegistrations;
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.repo.VolunteerPostRepository;
+import com.example.backend.repo.VolunteerRepository;
+import com.example.backend.repo.VolunteerRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ghi 1 lô request đăng ký trong 1 transaction:
+ *   1. 1 truy vấn IN lấy bài, 1 truy vấn IN lấy volunteer có tài khoản
+ *   2. 1 truy vấn lấy các cặp (volunteer, post) đã có: đó là "đã đăng ký"
+ *   3. INSERT thường theo batch JDBC cho phần còn lại. Không dùng INSERT IGNORE: nó đổi cả lỗi FK,
+ *      dữ liệu quá dài... thành warning và dòng bị bỏ sẽ bị báo nhầm là đã đăng ký. Lỗi (kể cả
+ *      trùng do ghi đồng thời) làm hỏng cả lô; consumer ghi lại từng message, lúc đó bước 2 thấy dòng đã có
+ *   4. 1 truy vấn lấy id các dòng vừa ghi
+ * Bộ đếm Redis, tập bài đã đăng ký của volunteer và cache "request của tôi" cập nhật sau commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class VolunteerRequestBatchWriter {
+
+    static final String INSERT_SQL =
+            "INSERT INTO volunteer_request (postId, volunteerEmail, suggestion, status, requestDate) "
+                    + "VALUES (?, ?, ?, 'Pending', ?)";
+
+    private final VolunteerPostRepository postRepository;
+    private final VolunteerRepository volunteerRepository;
+    private final VolunteerRequestRepository requestRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RequestStatusCounters requestStatusCounters;
+    private final VolunteerRegistrations volunteerRegistrations;
+    private final RequestCacheEvictHelper requestCacheEvictHelper;
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public record Created(Long requestId, VolunteerPostDto post, String volunteerEmail, String correlationId) {
+    }
+
+    public record Duplicate(VolunteerPostDto post, String volunteerEmail, String correlationId) {
+    }
+
+    // volunteerMissing: email không có tài khoản, bỏ qua không báo notification
+    public record Result(List<Created> created, List<Duplicate> duplicates, List<VolunteerRequestMessage> postMissing,
+                         List<VolunteerRequestMessage> volunteerMissing) {
+    }
+
+    @Transactional
+    public Result write(List<VolunteerRequestMessage> messages) {
+        List<Created> created = new ArrayList<>();
+        List<Duplicate> duplicates = new ArrayList<>();
+        List<VolunteerRequestMessage> postMissing = new ArrayList<>();
+        List<VolunteerRequestMessage> volunteerMissing = new ArrayList<>();
+        if (messages.isEmpty()) {
+            return new Result(created, duplicates, postMissing, volunteerMissing);
+        }
+
+        Set<Long> postIds = new LinkedHashSet<>();
+        Set<String> emails = new LinkedHashSet<>();
+        for (VolunteerRequestMessage m : messages) {
+            postIds.add(m.getPostId());
+            emails.add(m.getVolunteerEmail());
+        }
+        Map<Long, VolunteerPostDto> posts = new HashMap<>();
+        for (VolunteerPostDto p : postRepository.findCardsByIds(postIds)) {
+            posts.put(p.getId(), p);
+        }
+        // email so khớp không phân biệt hoa thường; ghi đúng giá trị đang có trong bảng volunteer (FK)
+        Map<String, String> volunteers = new HashMap<>();
+        for (String email : volunteerRepository.findExistingEmails(emails)) {
+            volunteers.put(key(email), email);
+        }
+
+        // Lọc message hợp lệ, bỏ trùng (volunteer, post) trong cùng lô: lần sau chỉ là "đã đăng ký"
+        Map<String, VolunteerRequestMessage> rows = new LinkedHashMap<>();
+        for (VolunteerRequestMessage m : messages) {
+            VolunteerPostDto post = posts.get(m.getPostId());
+            if (post == null) {
+                logger.warn("Dropping volunteer request message: post not found (postId={})", m.getPostId());
+                postMissing.add(m);
+                continue;
+            }
+            String email = volunteers.get(key(m.getVolunteerEmail()));
+            if (email == null) {
+                logger.warn("Dropping volunteer request message: volunteer not found (email={})", m.getVolunteerEmail());
+                volunteerMissing.add(m);
+                continue;
+            }
+            String rowKey = key(email) + ":" + post.getId();
+            if (rows.containsKey(rowKey)) {
+                duplicates.add(new Duplicate(post, email, m.getCorrelationId()));
+                continue;
+            }
+            rows.put(rowKey, new VolunteerRequestMessage(post.getId(), email, m.getSuggestion(),
+                    m.getCreatedAt(), m.getIdempotentKey(), m.getCorrelationId()));
+        }
+        if (rows.isEmpty()) {
+            return new Result(created, duplicates, postMissing, volunteerMissing);
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (var k : requestRepository.findKeys(rowPosts(rows.values()), rowEmails(rows.values()))) {
+            existing.add(key(k.getVolunteerEmail()) + ":" + k.getPostId());
+        }
+        List<VolunteerRequestMessage> inserted = new ArrayList<>();
+        for (Map.Entry<String, VolunteerRequestMessage> row : rows.entrySet()) {
+            VolunteerRequestMessage m = row.getValue();
+            if (existing.contains(row.getKey())) {
+                logger.info("Duplicate volunteer request ignored (key={})", m.getIdempotentKey());
+                duplicates.add(new Duplicate(posts.get(m.getPostId()), m.getVolunteerEmail(), m.getCorrelationId()));
+            } else {
+                inserted.add(m);
+            }
+        }
+        if (inserted.isEmpty()) {
+            return new Result(created, duplicates, postMissing, volunteerMissing);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(inserted.size());
+        for (VolunteerRequestMessage m : inserted) {
+            args.add(new Object[]{m.getPostId(), m.getVolunteerEmail(), m.getSuggestion(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+
+        Set<Long> insertedPosts = rowPosts(inserted);
+        Set<String> insertedEmails = rowEmails(inserted);
+        Map<String, Long> ids = new HashMap<>();
+        for (var k : requestRepository.findKeys(insertedPosts, insertedEmails)) {
+            ids.put(key(k.getVolunteerEmail()) + ":" + k.getPostId(), k.getId());
+        }
+        for (VolunteerRequestMessage m : inserted) {
+            Long postId = m.getPostId();
+            created.add(new Created(ids.get(key(m.getVolunteerEmail()) + ":" + postId), posts.get(postId),
+                    m.getVolunteerEmail(), m.getCorrelationId()));
+            requestStatusCounters.requestCreated(postId);
+            volunteerRegistrations.requestCreated(m.getVolunteerEmail(), postId);
+        }
+        for (String email : insertedEmails) {
+            requestCacheEvictHelper.evictOwner(email);
+        }
+        return new Result(created, duplicates, postMissing, volunteerMissing);
+    }
+
+    private static Set<Long> rowPosts(Collection<VolunteerRequestMessage> rows) {
+        Set<Long> postIds = new LinkedHashSet<>();
+        for (VolunteerRequestMessage m : rows) {
+            postIds.add(m.getPostId());
+        }
+        return postIds;
+    }
+
+    private static Set<String> rowEmails(Collection<VolunteerRequestMessage> rows) {
+        Set<String> emails = new LinkedHashSet<>();
+        for (VolunteerRequestMessage m : rows) {
+            emails.add(m.getVolunteerEmail());
+        }
+        return emails;
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
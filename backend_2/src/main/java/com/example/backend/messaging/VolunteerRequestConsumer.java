@@ -1,137 +1,219 @@
 package com.example.backend.messaging;
 
-import com.example.backend.config.RedisCacheConfig;
-import com.example.backend.entity.Volunteer;
-import com.example.backend.entity.VolunteerPost;
+import com.example.backend.cache.RegistrationGuard;
+import com.example.backend.cache.RegistrationStatusStore;
+import com.example.backend.cache.RequestCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.cache.VolunteerRegistrations;
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.entity.Notification;
 import com.example.backend.entity.VolunteerRequest;
 import com.example.backend.repo.VolunteerPostRepository;
-import com.example.backend.repo.VolunteerRepository;
 import com.example.backend.repo.VolunteerRequestRepository;
 import lombok.RequiredArgsConstructor;
 import com.example.backend.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.cache.CacheManager;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 public class VolunteerRequestConsumer {
 
+    // republish lỗi: tối đa 2 vòng retry (5s, 30s) rồi vào DLX
+    static final int MAX_RETRIES = 2;
+
     private final VolunteerPostRepository postRepository;
-    private final VolunteerRepository volunteerRepository;
     private final VolunteerRequestRepository requestRepository;
-    private final CacheManager cacheManager;
+    private final VolunteerRequestBatchWriter batchWriter;
+    private final RequestCacheEvictHelper requestCacheEvictHelper;
+    private final RequestStatusCounters requestStatusCounters;
     private final NotificationService notificationService;
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final RequestPartitions requestPartitions;
+    private final RegistrationGuard registrationGuard;
+    private final RegistrationStatusStore registrationStatusStore;
+    private final VolunteerRegistrations volunteerRegistrations;
+    private final ConsumerHealth consumerHealth;
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    @RabbitListener(queues = RabbitConfig.QUEUE)
-    @Transactional
-    public void handleVolunteerRequest(VolunteerRequestMessage message) {
-        if (message == null || message.getPostId() == null || message.getVolunteerEmail() == null) {
-            return; // drop invalid
-        }
-        // Use primitive id to match custom repository method; fall back to Optional if needed
-        Long postId = message.getPostId();
-        VolunteerPost post = (postId != null) ? postRepository.findById(postId.longValue()) : null;
-        if (post == null) {
-            // Post not found: try to notify the volunteer (by email in message) and drop message
-            logger.warn("Dropping volunteer request message: post not found (postId={})", postId);
+    // Queue cũ (không partition): xả message còn tồn / đang retry từ trước khi chia partition.
+    // Các queue partition gọi cùng hàm này qua PartitionListenerRegistrar.
+    // Lô message đăng ký: ghi chung 1 transaction, ack cả lô; lô lỗi thì ghi lại từng message
+    // để chỉ message hỏng đi sang retry / DLX
+    @RabbitListener(id = RabbitConfig.REQUEST_LISTENER_ID, queues = RabbitConfig.QUEUE,
+            containerFactory = RabbitConfig.REQUEST_BATCH_FACTORY)
+    public void handleVolunteerRequests(List<Message> batch) {
+        List<VolunteerRequestMessage> messages = new ArrayList<>(batch.size());
+        List<Message> raws = new ArrayList<>(batch.size());
+        for (Message raw : batch) {
+            VolunteerRequestMessage message;
             try {
-                if (message.getVolunteerEmail() != null) {
-                    notificationService.createAndSend(
-                            message.getVolunteerEmail(),
-                            "Event Removed or Invalid",
-                            "The event you tried to register for may have been removed or the registration information is invalid.",
-                            java.util.Map.of("postId", postId),
-                            null
-                    );
-                }
+                message = (VolunteerRequestMessage) messageConverter.fromMessage(raw);
             } catch (Exception e) {
-                logger.warn("Failed to send post-not-found notification to {}: {}", message.getVolunteerEmail(), e.getMessage());
+                // không đọc được thì retry cũng vô ích
+                consumerHealth.failed();
+                deadLetter(raw, null, e);
+                continue;
             }
-            return;
+            if (message == null || message.getPostId() == null || message.getVolunteerEmail() == null) {
+                continue; // drop invalid
+            }
+            messages.add(message);
+            raws.add(raw);
         }
-
-        // Require an existing Volunteer record in DB for the provided email; if missing, drop message
-        var volunteerOpt = volunteerRepository.findByVolunteerEmail(message.getVolunteerEmail());
-        if (volunteerOpt.isEmpty()) {
-            logger.warn("Dropping volunteer request message: volunteer not found (email={})", message.getVolunteerEmail());
+        if (messages.isEmpty()) {
             return;
         }
-        Volunteer volunteer = volunteerOpt.get();
 
-        // Rely on DB uniqueness to enforce single request per user/post (idempotent by DB)
-
-        VolunteerRequest request = new VolunteerRequest();
-        request.setVolunteerPost(post);
-        request.setVolunteer(volunteer);
-        request.setSuggestion(message.getSuggestion());
-        request.setStatus("Pending");
-        request.setRequestDate(LocalDateTime.now());
-
-        // Idempotent create: rely on DB unique constraint (volunteerEmail, postId)
+        // Chỉ lỗi ghi DB mới ghi lại từng message; lỗi báo kết quả sau khi đã commit thì không ghi lại
+        // (ghi lại sẽ biến request vừa tạo thành "đã đăng ký")
+        VolunteerRequestBatchWriter.Result result = null;
         try {
-            requestRepository.save(request);
-        } catch (org.springframework.dao.DataIntegrityViolationException ex) {
-            // Duplicate insert prevented by DB uniqueness -> notify volunteer that they already registered
-            logger.info("Duplicate volunteer request prevented by DB (key={}): {}", message.getIdempotentKey(), ex.getMessage());
+            result = batchWriter.write(messages);
+        } catch (Exception e) {
+            logger.warn("Volunteer request batch of {} failed, retrying one by one: {}", messages.size(), e.getMessage());
+        }
+        if (result != null) {
+            consumerHealth.processed(messages.size());
+            notify(result);
+            return;
+        }
+        for (int i = 0; i < messages.size(); i++) {
             try {
-                String volunteerEmail = message.getVolunteerEmail();
-                String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
-                if (volunteerEmail != null) {
-                    notificationService.createAndSend(
-                            volunteerEmail,
-                            "Already Registered",
-                            "You have already registered for the event: " + postTitle + ".",
-                            java.util.Map.of("postId", post.getId()),
-                            "/posts/" + post.getId()
-                    );
-                }
+                result = batchWriter.write(List.of(messages.get(i)));
             } catch (Exception e) {
-                logger.warn("Failed to send duplicate-registration notification for key={}: {}", message.getIdempotentKey(), e.getMessage());
+                consumerHealth.failed();
+                retryOrDeadLetter(raws.get(i), messages.get(i), e);
+                continue;
             }
-            return;
+            consumerHealth.processed(1);
+            notify(result);
         }
+    }
 
-        // create notifications: persist + push
-            try {
-                // notify volunteer who made the request
-                String volunteerEmail = volunteer.getVolunteerEmail();
-                String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
-                notificationService.createAndSend(volunteerEmail,
-                        "Request Submitted",
-                        "Your request has been submitted for post: " + postTitle,
-                        java.util.Map.of("postId", post.getId(), "requestId", request.getId()),
-                        "/posts/" + post.getId());
+    // Request đã commit: lỗi Redis / notification chỉ log, không ảnh hưởng ack
+    private void notify(VolunteerRequestBatchWriter.Result result) {
+        // không tạo được dòng nào: nhả chỗ giữ của RegistrationGuard để người dùng gửi lại ngay
+        for (VolunteerRequestMessage m : result.postMissing()) {
+            registrationGuard.forget(m.getVolunteerEmail(), m.getPostId());
+        }
+        for (VolunteerRequestMessage m : result.volunteerMissing()) {
+            registrationGuard.forget(m.getVolunteerEmail(), m.getPostId());
+        }
+        try {
+            recordOutcomes(result);
+        } catch (Exception e) {
+            logger.warn("Failed to record registration outcomes: {}", e.getMessage());
+        }
+        try {
+            sendNotifications(result);
+        } catch (Exception e) {
+            logger.warn("Failed to send volunteer request notifications: {}", e.getMessage());
+        }
+    }
 
-                // notify post owner (orgEmail) if present and different
-                String ownerEmail = post.getOrgEmail();
-                if (ownerEmail != null && !ownerEmail.equalsIgnoreCase(volunteerEmail)) {
-                    notificationService.createAndSend(ownerEmail,
-                            "New Volunteer Request",
-                            "User " + volunteerEmail + " has requested to join your post: " + postTitle,
-                            java.util.Map.of("postId", post.getId(), "requestId", request.getId()),
-                            "/manage/posts/" + post.getId());
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to create/send notifications for request id={}: {}", request.getId(), e.getMessage());
+    private void sendNotifications(VolunteerRequestBatchWriter.Result result) {
+        List<Notification> drafts = new ArrayList<>();
+        for (VolunteerRequestBatchWriter.Created c : result.created()) {
+            VolunteerPostDto post = c.post();
+            String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
+            Map<String, Object> data = c.requestId() != null
+                    ? Map.of("postId", post.getId(), "requestId", c.requestId())
+                    : Map.of("postId", post.getId());
+            // notify volunteer who made the request
+            drafts.add(notificationService.draft(c.volunteerEmail(),
+                    "Request Submitted",
+                    "Your request has been submitted for post: " + postTitle,
+                    data,
+                    "/posts/" + post.getId()));
+            // notify post owner (orgEmail) if present and different
+            String ownerEmail = post.getOrgEmail();
+            if (ownerEmail != null && !ownerEmail.equalsIgnoreCase(c.volunteerEmail())) {
+                drafts.add(notificationService.draft(ownerEmail,
+                        "New Volunteer Request",
+                        "User " + c.volunteerEmail() + " has requested to join your post: " + postTitle,
+                        data,
+                        "/manage/posts/" + post.getId()));
             }
+        }
+        for (VolunteerRequestBatchWriter.Duplicate d : result.duplicates()) {
+            VolunteerPostDto post = d.post();
+            String postTitle = post.getPostTitle() != null ? post.getPostTitle() : "(unknown)";
+            drafts.add(notificationService.draft(d.volunteerEmail(),
+                    "Already Registered",
+                    "You have already registered for the event: " + postTitle + ".",
+                    Map.of("postId", post.getId()),
+                    "/posts/" + post.getId()));
+        }
+        for (VolunteerRequestMessage m : result.postMissing()) {
+            drafts.add(notificationService.draft(m.getVolunteerEmail(),
+                    "Event Removed or Invalid",
+                    "The event you tried to register for may have been removed or the registration information is invalid.",
+                    Map.of("postId", m.getPostId()),
+                    null));
+        }
+        notificationService.createAndSendAll(drafts);
+    }
 
-        // Evict cache of this volunteer's requests so next read is fresh
-        if (cacheManager != null) {
-            var cache = cacheManager.getCache(RedisCacheConfig.MY_REQUESTS_BY_EMAIL);
-            if (cache != null) {
-                cache.evict(volunteer.getVolunteerEmail().toLowerCase());
-            }
+    // Kết quả cho client đang chờ theo correlationId (GET /request-volunteer/status/{id})
+    private void recordOutcomes(VolunteerRequestBatchWriter.Result result) {
+        List<RegistrationStatusStore.Outcome> outcomes = new ArrayList<>();
+        for (VolunteerRequestBatchWriter.Created c : result.created()) {
+            outcomes.add(new RegistrationStatusStore.Outcome(c.correlationId(), RegistrationStatusStore.Status.CREATED,
+                    c.requestId()));
+        }
+        for (VolunteerRequestBatchWriter.Duplicate d : result.duplicates()) {
+            outcomes.add(new RegistrationStatusStore.Outcome(d.correlationId(), RegistrationStatusStore.Status.DUPLICATE,
+                    null));
         }
+        for (VolunteerRequestMessage m : result.postMissing()) {
+            outcomes.add(new RegistrationStatusStore.Outcome(m.getCorrelationId(),
+                    RegistrationStatusStore.Status.POST_MISSING, null));
+        }
+        for (VolunteerRequestMessage m : result.volunteerMissing()) {
+            outcomes.add(new RegistrationStatusStore.Outcome(m.getCorrelationId(), RegistrationStatusStore.Status.INVALID,
+                    null));
+        }
+        registrationStatusStore.record(outcomes);
+    }
+
+    // Message lỗi: quay lại luồng retry 5s -> 30s (tối đa MAX_RETRIES lần), sau đó vào DLX kèm nguyên nhân
+    private void retryOrDeadLetter(Message raw, VolunteerRequestMessage message, Exception cause) {
+        Object header = raw.getMessageProperties().getHeader(RabbitConfig.RETRY_COUNT_HEADER);
+        int retries = header instanceof Number n ? n.intValue() : 0;
+        if (retries >= MAX_RETRIES) {
+            deadLetter(raw, message, cause);
+            return;
+        }
+        logger.warn("Volunteer request message failed (retry {}), scheduling retry: {}", retries + 1, cause.getMessage());
+        raw.getMessageProperties().setHeader(RabbitConfig.RETRY_COUNT_HEADER, retries + 1);
+        rabbitTemplate.send(RabbitConfig.RETRY_EXCHANGE,
+                requestPartitions.retryRoutingKeyForQueue(raw.getMessageProperties().getConsumerQueue()), raw);
     }
 
-    @RabbitListener(queues = RabbitConfig.DELETE_QUEUE)
+    // message null = không đọc được, không biết cặp (email, postId) để nhả chỗ giữ
+    private void deadLetter(Message raw, VolunteerRequestMessage message, Exception cause) {
+        logger.error("Sending volunteer request message to DLX: {}", cause.getMessage());
+        if (message != null) {
+            registrationGuard.forget(message.getVolunteerEmail(), message.getPostId());
+        }
+        raw.getMessageProperties().setHeader(RabbitConfig.FAILURE_CAUSE_HEADER,
+                cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        rabbitTemplate.send(RabbitConfig.DLX, RabbitConfig.ROUTING_KEY, raw);
+    }
+
+    @RabbitListener(id = RabbitConfig.DELETE_LISTENER_ID, queues = RabbitConfig.DELETE_QUEUE)
     @Transactional
     public void handleDeleteVolunteerRequest(DeleteVolunteerRequestMessage message) {
         if (message == null || message.getRequestId() == null) {
@@ -161,12 +243,17 @@ public class VolunteerRequestConsumer {
         }
 
         requestRepository.delete(req);
+        if (req.getVolunteerPost() != null) {
+            requestStatusCounters.requestRemoved(req.getVolunteerPost().getId(), req.getStatus());
+        }
 
-        // Evict cache for this volunteer's requests
-        if (cacheManager != null && req.getVolunteer() != null) {
-            var cache = cacheManager.getCache(RedisCacheConfig.MY_REQUESTS_BY_EMAIL);
-            if (cache != null) {
-                cache.evict(req.getVolunteer().getVolunteerEmail().toLowerCase());
+        // Evict every cached page of this volunteer's requests (after commit)
+        if (req.getVolunteer() != null) {
+            requestCacheEvictHelper.evictOwner(req.getVolunteer().getVolunteerEmail());
+            if (req.getVolunteerPost() != null) {
+                // cho phép đăng ký lại bài này
+                registrationGuard.forget(req.getVolunteer().getVolunteerEmail(), req.getVolunteerPost().getId());
+                volunteerRegistrations.requestRemoved(req.getVolunteer().getVolunteerEmail(), req.getVolunteerPost().getId());
             }
         }
     }
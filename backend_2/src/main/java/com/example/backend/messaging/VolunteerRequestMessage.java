@@ -17,4 +17,6 @@ public class VolunteerRequestMessage implements Serializable {
     private Instant createdAt;
     // Idempotent key format: "userId:eventId" -> here "volunteerEmail:postId"
     private String idempotentKey;
+    // Trả cho client lúc gửi; consumer ghi kết quả theo id này (RegistrationStatusStore). Message cũ: null
+    private String correlationId;
 }
@@ -1,20 +1,22 @@
 package com.example.backend.messaging;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
+// Không gửi thẳng lên broker: ghi outbox trong transaction của caller, OutboxRelay gửi sau commit
 @Component
 @RequiredArgsConstructor
 public class VolunteerRequestPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OutboxWriter outboxWriter;
+    private final RequestPartitions partitions;
 
+    // Routing key theo partition của bài: mọi request của 1 bài vào cùng 1 queue
     public void publish(VolunteerRequestMessage message) {
-        rabbitTemplate.convertAndSend(RabbitConfig.EXCHANGE, RabbitConfig.ROUTING_KEY, message);
+        outboxWriter.append(RabbitConfig.EXCHANGE, partitions.routingKeyFor(message.getPostId()), message);
     }
 
     public void publishDelete(DeleteVolunteerRequestMessage message) {
-        rabbitTemplate.convertAndSend(RabbitConfig.EXCHANGE, RabbitConfig.DELETE_ROUTING_KEY, message);
+        outboxWriter.append(RabbitConfig.EXCHANGE, RabbitConfig.DELETE_ROUTING_KEY, message);
     }
 }
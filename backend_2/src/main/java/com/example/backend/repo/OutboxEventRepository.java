@@ -0,0 +1,23 @@
+package com.example.backend.repo;
+
+import com.example.backend.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  // Relay: lô kế tiếp theo thứ tự ghi (bảng chỉ còn event chưa gửi)
+  @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+  List<OutboxEvent> findBatch(Pageable pageable);
+
+  // Xóa đúng các event đã được confirm
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,29 @@
+package com.example.backend.repo;
+
+import com.example.backend.entity.OutboxRelayState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface OutboxRelayStateRepository extends JpaRepository<OutboxRelayState, String> {
+
+  // Lấy / gia hạn lease: 1 = được relay (lease trống, hết hạn hoặc đang là của owner)
+  @Modifying
+  @Query("UPDATE OutboxRelayState s SET s.owner = :owner, s.leaseUntil = :until "
+      + "WHERE s.name = :name AND (s.owner = :owner OR s.leaseUntil IS NULL OR s.leaseUntil < :now)")
+  int claimLease(@Param("name") String name, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+  @Modifying
+  @Query("UPDATE OutboxRelayState s SET s.leaseUntil = NULL WHERE s.name = :name AND s.owner = :owner")
+  int releaseLease(@Param("name") String name, @Param("owner") String owner);
+
+  // Đẩy high-water mark lên (không bao giờ lùi)
+  @Modifying
+  @Query("UPDATE OutboxRelayState s SET s.lastId = :lastId, s.updatedAt = :now "
+      + "WHERE s.name = :name AND s.lastId < :lastId")
+  int advance(@Param("name") String name, @Param("lastId") Long lastId, @Param("now") LocalDateTime now);
+}
@@ -1,31 +1,77 @@
 package com.example.backend.repo;
 
 
+import com.example.backend.dto.VolunteerPostDto;
 import com.example.backend.entity.VolunteerPost;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface VolunteerPostRepository extends JpaRepository<VolunteerPost, Long> {
 
+  // Thẻ bài cho các màn danh sách: chỉ các cột thẻ cần, không description (TEXT), không dựng entity
+  String CARD = "SELECT new com.example.backend.dto.VolunteerPostDto(p.id, p.postTitle, p.category, p.deadline,"
+      + " p.location, p.thumbnail, p.noOfVolunteer, p.orgName, p.orgEmail) FROM VolunteerPost p";
+
+  String TITLE_LIKE = " WHERE LOWER(p.postTitle) LIKE LOWER(CONCAT('%', :title, '%'))";
+
   // Lấy 6 bài sắp hết hạn (deadline ASC)
   List<VolunteerPost> findTop6ByOrderByDeadlineAsc();
 
+  @Query(CARD + " ORDER BY p.deadline ASC")
+  List<VolunteerPostDto> findCardsOrderByDeadline(Pageable pageable);
+
+  @Query(value = CARD, countQuery = "SELECT COUNT(p) FROM VolunteerPost p")
+  Page<VolunteerPostDto> findCards(Pageable pageable);
+
   // Tìm kiếm bằng postTitle (LIKE) có phân trang
   Page<VolunteerPost> findByPostTitleContainingIgnoreCase(String postTitle, Pageable pageable);
 
+  @Query(value = CARD + TITLE_LIKE, countQuery = "SELECT COUNT(p) FROM VolunteerPost p" + TITLE_LIKE)
+  Page<VolunteerPostDto> findCardsByTitle(@Param("title") String title, Pageable pageable);
+
+  // Kết quả FULLTEXT: id đã xếp hạng -> thẻ bài (thứ tự do service giữ)
+  @Query(CARD + " WHERE p.id IN :ids")
+  List<VolunteerPostDto> findCardsByIds(@Param("ids") Collection<Long> ids);
+
   // Lấy bài đăng theo email của tổ chức (API bị comment)
   List<VolunteerPost> findByOrgEmail(String orgEmail);
 
   Page<VolunteerPost> findByOrgEmail(String orgEmail, Pageable pageable);
 
+  @Query(CARD + " WHERE p.orgEmail = :orgEmail")
+  List<VolunteerPostDto> findCardsByOrgEmail(@Param("orgEmail") String orgEmail);
+
+  @Query(value = CARD + " WHERE p.orgEmail = :orgEmail",
+      countQuery = "SELECT COUNT(p) FROM VolunteerPost p WHERE p.orgEmail = :orgEmail")
+  Page<VolunteerPostDto> findCardsByOrgEmail(@Param("orgEmail") String orgEmail, Pageable pageable);
+
+  // Keyset (cursor): id > id cuối trang trước, Slice lấy size + 1 dòng, không chạy COUNT
+  @Query(CARD + " WHERE p.id > :afterId ORDER BY p.id")
+  Slice<VolunteerPostDto> findCardsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(CARD + TITLE_LIKE + " AND p.id > :afterId ORDER BY p.id")
+  Slice<VolunteerPostDto> findCardsByTitleAfter(@Param("title") String title, @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+  // dùng index (orgEmail, id)
+  @Query(CARD + " WHERE p.orgEmail = :orgEmail AND p.id > :afterId ORDER BY p.id")
+  Slice<VolunteerPostDto> findCardsByOrgEmailAfter(@Param("orgEmail") String orgEmail, @Param("afterId") Long afterId,
+                                                   Pageable pageable);
+
   VolunteerPost findById(long id);
+
+  @Query("SELECT vp.noOfVolunteer FROM VolunteerPost vp WHERE vp.id = :id")
+  Integer findVolunteerCount(@Param("id") Long id);
+
   // API: update-volunteer-count/:id
   @Modifying
   @Query("UPDATE VolunteerPost vp SET vp.noOfVolunteer = vp.noOfVolunteer - 1 WHERE vp.id = :id AND vp.noOfVolunteer > 0")
   int decrementVolunteerCount(@Param("id") Long id);
-}
\ No newline at end of file
+}
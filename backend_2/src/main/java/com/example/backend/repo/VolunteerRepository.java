@@ -2,7 +2,11 @@ package com.example.backend.repo;
 
 import com.example.backend.entity.Volunteer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface VolunteerRepository extends JpaRepository<Volunteer, Long> {
@@ -10,4 +14,8 @@ public interface VolunteerRepository extends JpaRepository<Volunteer, Long> {
   // Phương thức tìm kiếm Tình nguyện viên theo Email
   Optional<Volunteer> findByVolunteerEmail(String volunteerEmail);
 
+  // Consumer batch: email nào trong lô có tài khoản (1 truy vấn IN)
+  @Query("SELECT v.volunteerEmail FROM Volunteer v WHERE v.volunteerEmail IN :emails")
+  List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
 }
\ No newline at end of file
@@ -1,44 +1,172 @@
 package com.example.backend.repo;
 
 
+import com.example.backend.dto.VolunteerRequestDto;
 import com.example.backend.entity.VolunteerRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface VolunteerRequestRepository extends JpaRepository<VolunteerRequest, Long> {
 
+  // Dòng danh sách request: 1 SELECT request JOIN post; email volunteer lấy thẳng từ cột FK
+  String ROW = "SELECT new com.example.backend.dto.VolunteerRequestDto(vr.id, vr.status, p.id,"
+      + " vr.volunteer.volunteerEmail, p.postTitle, p.orgEmail, p.deadline, p.location, p.category)"
+      + " FROM VolunteerRequest vr JOIN vr.volunteerPost p";
+
+  String BY_VOLUNTEER = " WHERE vr.volunteer.volunteerEmail = :email";
+  String BY_VOLUNTEER_AND_POST = BY_VOLUNTEER + " AND p.id = :postId";
+  String BY_ORG = " WHERE p.orgEmail = :orgEmail";
+  String BY_POST = " WHERE p.id = :postId";
+  String COUNT = "SELECT COUNT(vr) FROM VolunteerRequest vr JOIN vr.volunteerPost p";
+
+  // Fetch plan cho các truy vấn trả entity: post + volunteer nạp trong cùng SELECT (JOIN),
+  // tránh N+1 khi map từng dòng. Chỉ to-one nên phân trang vẫn ở SQL; COUNT vẫn tách riêng, không JOIN fetch.
+  String WITH_POST_AND_VOLUNTEER = "VolunteerRequest.withPostAndVolunteer";
+
   // API: get-volunteer-request/:email (Lấy các request đã đăng ký)
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
   List<VolunteerRequest> findByVolunteerVolunteerEmail(String volunteerEmail);
 
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
   Page<VolunteerRequest> findByVolunteerVolunteerEmail(String volunteerEmail, Pageable pageable);
 
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
   Page<VolunteerRequest> findByVolunteerVolunteerEmailAndVolunteerPostId(String volunteerEmail, Long postId, Pageable pageable);
 
   // API: get-volunteer-requests-for-org/:email (Lấy các request gửi tới các post của organizer)
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
   List<VolunteerRequest> findByVolunteerPostOrgEmail(String orgEmail);
 
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
   Page<VolunteerRequest> findByVolunteerPostOrgEmail(String orgEmail, Pageable pageable);
 
   // Paged requests for a specific post
-  org.springframework.data.domain.Page<VolunteerRequest> findByVolunteerPostId(Long postId, org.springframework.data.domain.Pageable pageable);
+  @EntityGraph(WITH_POST_AND_VOLUNTEER)
+  Page<VolunteerRequest> findByVolunteerPostId(Long postId, Pageable pageable);
+
+  @Query(ROW + BY_VOLUNTEER)
+  List<VolunteerRequestDto> findRowsByVolunteerEmail(@Param("email") String volunteerEmail);
+
+  @Query(value = ROW + BY_VOLUNTEER, countQuery = COUNT + BY_VOLUNTEER)
+  Page<VolunteerRequestDto> findRowsByVolunteerEmail(@Param("email") String volunteerEmail, Pageable pageable);
+
+  @Query(value = ROW + BY_VOLUNTEER_AND_POST, countQuery = COUNT + BY_VOLUNTEER_AND_POST)
+  Page<VolunteerRequestDto> findRowsByVolunteerEmailAndPostId(@Param("email") String volunteerEmail,
+                                                              @Param("postId") Long postId, Pageable pageable);
+
+  @Query(value = ROW + BY_ORG, countQuery = COUNT + BY_ORG)
+  Page<VolunteerRequestDto> findRowsByOrgEmail(@Param("orgEmail") String orgEmail, Pageable pageable);
+
+  @Query(value = ROW + BY_POST, countQuery = COUNT + BY_POST)
+  Page<VolunteerRequestDto> findRowsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+  // Keyset (cursor) theo id, không COUNT: index (volunteerEmail, id) / FK postId (InnoDB kèm PK)
+  @Query(ROW + BY_VOLUNTEER + " AND vr.id > :afterId ORDER BY vr.id")
+  Slice<VolunteerRequestDto> findRowsByVolunteerEmailAfter(@Param("email") String volunteerEmail,
+                                                           @Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(ROW + BY_VOLUNTEER_AND_POST + " AND vr.id > :afterId ORDER BY vr.id")
+  Slice<VolunteerRequestDto> findRowsByVolunteerEmailAndPostIdAfter(@Param("email") String volunteerEmail,
+                                                                    @Param("postId") Long postId,
+                                                                    @Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(ROW + BY_ORG + " AND vr.id > :afterId ORDER BY vr.id")
+  Slice<VolunteerRequestDto> findRowsByOrgEmailAfter(@Param("orgEmail") String orgEmail,
+                                                     @Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(ROW + BY_POST + " AND vr.id > :afterId ORDER BY vr.id")
+  Slice<VolunteerRequestDto> findRowsByPostIdAfter(@Param("postId") Long postId,
+                                                   @Param("afterId") Long afterId, Pageable pageable);
 
   // Count pending requests for a specific post
   long countByVolunteerPostIdAndStatusIgnoreCase(Long postId, String status);
   // (Removed) uniqueness enforced by DB unique constraint; consumer handles DataIntegrityViolationException
 
+  // CAS trạng thái: chỉ đổi khi còn Pending, trả số dòng đổi (0 = đã được quyết định / không tồn tại)
+  @Modifying
+  @Query("UPDATE VolunteerRequest vr SET vr.status = 'Accepted' "
+      + "WHERE vr.id = :id AND vr.volunteerPost.id = :postId AND vr.status = 'Pending'")
+  int markAccepted(@Param("id") Long id, @Param("postId") Long postId);
+
+  @Modifying
+  @Query("UPDATE VolunteerRequest vr SET vr.status = 'Rejected' WHERE vr.id = :id AND vr.status = 'Pending'")
+  int markRejected(@Param("id") Long id);
+
+  // So sánh trực tiếp (collation *_ci của MySQL đã không phân biệt hoa thường) để dùng được index
   @Query("SELECT vr.volunteerPost.id AS postId, COUNT(vr) AS pendingCount "
       + "FROM VolunteerRequest vr "
-      + "WHERE LOWER(vr.status) = 'pending' "
-      + "AND LOWER(vr.volunteerPost.orgEmail) = LOWER(:orgEmail) "
+      + "WHERE vr.status = 'Pending' "
+      + "AND vr.volunteerPost.orgEmail = :orgEmail "
       + "AND vr.volunteerPost.id IN :postIds "
       + "GROUP BY vr.volunteerPost.id")
   List<PendingCountView> countPendingForPosts(@Param("orgEmail") String orgEmail,
                                               @Param("postIds") List<Long> postIds);
 
+  // Nạp / đối soát bộ đếm trạng thái theo bài (index postId, status)
+  @Query("SELECT vr.volunteerPost.id AS postId, vr.status AS status, COUNT(vr) AS total "
+      + "FROM VolunteerRequest vr "
+      + "WHERE vr.volunteerPost.id IN :postIds "
+      + "GROUP BY vr.volunteerPost.id, vr.status")
+  List<StatusCountView> countByStatusForPosts(@Param("postIds") Collection<Long> postIds);
+
+  // VolunteerRegistrations: mọi bài volunteer đã gửi request + trạng thái (nạp hash Redis)
+  @Query("SELECT vr.volunteerPost.id AS postId, vr.status AS status FROM VolunteerRequest vr "
+      + "WHERE vr.volunteer.volunteerEmail = :email")
+  List<PostStatusView> findPostStatusesByVolunteerEmail(@Param("email") String volunteerEmail);
+
+  interface PostStatusView {
+    Long getPostId();
+    String getStatus();
+  }
+
+  // RegistrationGuard: xác nhận khi Bloom filter báo "có thể đã đăng ký" (unique index volunteerEmail, postId)
+  @Query("SELECT COUNT(vr) > 0 FROM VolunteerRequest vr "
+      + "WHERE vr.volunteer.volunteerEmail = :email AND vr.volunteerPost.id = :postId")
+  boolean existsRegistration(@Param("email") String volunteerEmail, @Param("postId") Long postId);
+
+  // Consumer batch: id các request vừa ghi (lọc đúng cặp email/post ở phía gọi)
+  @Query("SELECT vr.id AS id, vr.volunteerPost.id AS postId, vr.volunteer.volunteerEmail AS volunteerEmail "
+      + "FROM VolunteerRequest vr "
+      + "WHERE vr.volunteerPost.id IN :postIds AND vr.volunteer.volunteerEmail IN :emails")
+  List<RequestKeyView> findKeys(@Param("postIds") Collection<Long> postIds,
+                                @Param("emails") Collection<String> volunteerEmails);
+
+  // Duyệt / từ chối: đủ dữ liệu kiểm tra quyền + thông báo trong 1 query, không lazy-load sau CAS
+  @Query("SELECT vr.id AS id, p.id AS postId, p.postTitle AS postTitle, p.orgEmail AS orgEmail, "
+      + "v.volunteerEmail AS volunteerEmail "
+      + "FROM VolunteerRequest vr LEFT JOIN vr.volunteerPost p LEFT JOIN vr.volunteer v "
+      + "WHERE vr.id = :id")
+  Optional<DecisionView> findDecisionView(@Param("id") Long id);
+
+  interface DecisionView {
+    Long getId();
+    Long getPostId();
+    String getPostTitle();
+    String getOrgEmail();
+    String getVolunteerEmail();
+  }
+
+  interface RequestKeyView {
+    Long getId();
+    Long getPostId();
+    String getVolunteerEmail();
+  }
+
+  interface StatusCountView {
+    Long getPostId();
+    String getStatus();
+    long getTotal();
+  }
+
   interface PendingCountView {
     Long getPostId();
     long getPendingCount();
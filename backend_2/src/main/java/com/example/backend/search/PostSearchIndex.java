@@ -0,0 +1,240 @@
+package com.example.backend.search;
+
+import com.example.backend.entity.VolunteerPost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index tìm kiếm bài đăng trên MySQL: bảng volunteer_post_search chứa text đã
+ * bỏ dấu (title_text; body_text = mô tả + danh mục + địa điểm + tên tổ chức)
+ * với FULLTEXT WITH PARSER ngram, nên khớp được cả tiền tố / một phần từ,
+ * không phân biệt dấu, và xếp hạng theo độ liên quan (title nặng gấp đôi).
+ *
+ * - Bảng + index tạo lúc khởi động, sau đó đối soát toàn bộ volunteer_post với index
+ *   (thêm bài thiếu, ghi lại dòng lệch - vd. bài sửa lúc index tắt hoặc trên replica
+ *   chưa tạo xong bảng) và lặp lại định kỳ.
+ * - Service cập nhật index trong cùng transaction với thao tác ghi bài.
+ * - Chưa sẵn sàng (đang backfill / không phải MySQL) thì {@link #search} trả null
+ *   để service dùng truy vấn LIKE cũ.
+ */
+@Component
+public class PostSearchIndex {
+
+  static final String TABLE = "volunteer_post_search";
+  // = ngram_token_size mặc định của MySQL; token ngắn hơn không tìm được qua FULLTEXT
+  static final int MIN_TOKEN_LENGTH = 2;
+  private static final int BACKFILL_BATCH = 500;
+
+  static final String DDL = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+      + " post_id BIGINT NOT NULL PRIMARY KEY,"
+      + " title_text VARCHAR(512) NOT NULL,"
+      + " body_text MEDIUMTEXT NOT NULL,"
+      + " updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,"
+      + " FULLTEXT KEY ft_post_search_title (title_text) WITH PARSER ngram,"
+      + " FULLTEXT KEY ft_post_search_all (title_text, body_text) WITH PARSER ngram"
+      + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+  private static final String UPSERT = "INSERT INTO " + TABLE + " (post_id, title_text, body_text) VALUES (?, ?, ?)"
+      + " ON DUPLICATE KEY UPDATE title_text = VALUES(title_text), body_text = VALUES(body_text)";
+
+  // Đối soát: dòng được ghi trực tiếp (index()) từ lúc bắt đầu lượt đối soát thì giữ nguyên,
+  // tránh đè bản mới bằng dữ liệu đã đọc trước đó. Giá trị không đổi thì MySQL không ghi.
+  static final String RECONCILE_UPSERT = "INSERT INTO " + TABLE + " (post_id, title_text, body_text) VALUES (?, ?, ?)"
+      + " ON DUPLICATE KEY UPDATE"
+      + " title_text = IF(updated_at >= ?, title_text, VALUES(title_text)),"
+      + " body_text = IF(updated_at >= ?, body_text, VALUES(body_text))";
+
+  static final String SEARCH = "SELECT post_id FROM " + TABLE
+      + " WHERE MATCH(title_text, body_text) AGAINST (? IN BOOLEAN MODE)"
+      + " ORDER BY MATCH(title_text) AGAINST (? IN BOOLEAN MODE) * 2"
+      + " + MATCH(title_text, body_text) AGAINST (? IN BOOLEAN MODE) DESC, post_id DESC"
+      + " LIMIT ? OFFSET ?";
+
+  // Cursor: seek theo post_id (PK) thay vì OFFSET; thứ tự theo id, không theo độ liên quan
+  static final String SEARCH_AFTER = "SELECT post_id FROM " + TABLE
+      + " WHERE MATCH(title_text, body_text) AGAINST (? IN BOOLEAN MODE) AND post_id > ?"
+      + " ORDER BY post_id LIMIT ?";
+
+  static final String COUNT = "SELECT COUNT(*) FROM " + TABLE
+      + " WHERE MATCH(title_text, body_text) AGAINST (? IN BOOLEAN MODE)";
+
+  private final Logger logger = LoggerFactory.getLogger(getClass());
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean enabled;
+  // Bảng đã tạo được -> các thao tác ghi bắt đầu cập nhật index
+  private final AtomicBoolean tableReady = new AtomicBoolean(false);
+  // Backfill xong -> dùng được cho tìm kiếm
+  private final AtomicBoolean searchReady = new AtomicBoolean(false);
+  private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+  public PostSearchIndex(JdbcTemplate jdbcTemplate,
+                         @Value("${app.search.fulltext.enabled:true}") boolean enabled) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+  }
+
+  public boolean isReady() {
+    return searchReady.get();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (!enabled) {
+      return;
+    }
+    try {
+      jdbcTemplate.execute(DDL);
+      tableReady.set(true);
+    } catch (Exception e) {
+      logger.warn("Full-text search index unavailable, keeping LIKE search: {}", e.getMessage());
+      return;
+    }
+    startReconcile();
+  }
+
+  // Lượt đối soát định kỳ: sửa các dòng lệch do ghi trên replica chưa sẵn sàng
+  @Scheduled(fixedDelayString = "${app.search.reconcile-interval:6h}",
+      initialDelayString = "${app.search.reconcile-interval:6h}")
+  public void scheduledReconcile() {
+    if (tableReady.get()) {
+      startReconcile();
+    }
+  }
+
+  // Chạy trên thread riêng: không giữ thread scheduler dùng chung
+  private void startReconcile() {
+    Thread t = new Thread(this::backfill, "post-search-backfill");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  // Ghi lại index của mọi bài (theo id tăng dần, bài thiếu được thêm) và xóa dòng của bài đã bị xóa
+  void backfill() {
+    if (!reconciling.compareAndSet(false, true)) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    // TIMESTAMP lưu theo giây: làm tròn xuống để không bỏ sót dòng ghi trong cùng giây
+    Timestamp since = new Timestamp(start / 1000 * 1000);
+    int indexed = 0;
+    try {
+      long lastId = 0;
+      while (true) {
+        List<Object[]> rows = jdbcTemplate.query(
+            "SELECT p.id, p.postTitle, p.description, p.category, p.location, p.orgName"
+                + " FROM volunteer_post p WHERE p.id > ? ORDER BY p.id LIMIT ?",
+            (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getString(5), rs.getString(6)},
+            lastId, BACKFILL_BATCH);
+        if (rows.isEmpty()) {
+          break;
+        }
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Object[] r : rows) {
+          args.add(new Object[]{r[0], titleText((String) r[1]),
+              bodyText((String) r[2], (String) r[3], (String) r[4], (String) r[5]), since, since});
+          lastId = (Long) r[0];
+        }
+        jdbcTemplate.batchUpdate(RECONCILE_UPSERT, args);
+        indexed += rows.size();
+      }
+      jdbcTemplate.update("DELETE s FROM " + TABLE + " s LEFT JOIN volunteer_post p ON p.id = s.post_id"
+          + " WHERE p.id IS NULL");
+      searchReady.set(true);
+      logger.info("Post search index ready: reconciled {} posts in {} ms", indexed, System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      logger.warn("Post search backfill failed after {} posts, keeping LIKE search: {}", indexed, e.getMessage());
+    } finally {
+      reconciling.set(false);
+    }
+  }
+
+  public void index(VolunteerPost post) {
+    if (!tableReady.get() || post == null || post.getId() == null) {
+      return;
+    }
+    jdbcTemplate.update(UPSERT, post.getId(), titleText(post.getPostTitle()),
+        bodyText(post.getDescription(), post.getCategory(), post.getLocation(), post.getOrgName()));
+  }
+
+  public void remove(Long postId) {
+    if (!tableReady.get() || postId == null) {
+      return;
+    }
+    jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE post_id = ?", postId);
+  }
+
+  /**
+   * @return trang id bài theo độ liên quan, hoặc null nếu index chưa dùng được
+   *         cho từ khóa này (service sẽ dùng LIKE)
+   */
+  public Page<Long> search(String text, Pageable pageable) {
+    if (!searchReady.get()) {
+      return null;
+    }
+    String query = booleanQuery(text);
+    if (query == null) {
+      return null;
+    }
+    List<Long> ids = jdbcTemplate.queryForList(SEARCH, Long.class,
+        query, query, query, pageable.getPageSize(), pageable.getOffset());
+    Long total = jdbcTemplate.queryForObject(COUNT, Long.class, query);
+    return new PageImpl<>(ids, pageable, total != null ? total : 0);
+  }
+
+  /**
+   * Id bài khớp từ khóa có id > afterId, tối đa limit dòng, không COUNT.
+   *
+   * @return null nếu index chưa dùng được cho từ khóa này (service sẽ dùng LIKE)
+   */
+  public List<Long> searchAfter(String text, long afterId, int limit) {
+    if (!searchReady.get()) {
+      return null;
+    }
+    String query = booleanQuery(text);
+    if (query == null) {
+      return null;
+    }
+    return jdbcTemplate.queryForList(SEARCH_AFTER, Long.class, query, afterId, limit);
+  }
+
+  // Mỗi token thành 1 phrase bắt buộc: với parser ngram, phrase = chuỗi con liên tiếp
+  // nên "tinh ngu" khớp "tình nguyện". Ký tự toán tử của boolean mode đã bị loại khi fold.
+  static String booleanQuery(String text) {
+    StringBuilder sb = new StringBuilder();
+    for (String token : TextFolding.tokens(text)) {
+      if (token.length() < MIN_TOKEN_LENGTH) {
+        continue;
+      }
+      if (sb.length() > 0) {
+        sb.append(' ');
+      }
+      sb.append("+\"").append(token).append('"');
+    }
+    return sb.length() > 0 ? sb.toString() : null;
+  }
+
+  static String titleText(String title) {
+    String folded = TextFolding.fold(title);
+    return folded.length() > 512 ? folded.substring(0, 512) : folded;
+  }
+
+  static String bodyText(String description, String category, String location, String orgName) {
+    return String.join(" ", TextFolding.fold(description), TextFolding.fold(category),
+        TextFolding.fold(location), TextFolding.fold(orgName)).trim();
+  }
+}
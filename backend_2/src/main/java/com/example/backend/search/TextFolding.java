@@ -0,0 +1,46 @@
+package com.example.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa text cho tìm kiếm: bỏ dấu tiếng Việt (NFD + bỏ dấu kết hợp, đ -> d),
+ * lowercase, gộp khoảng trắng. Dùng cho cả dữ liệu được index lẫn từ khóa tìm kiếm
+ * nên "Hà Nội", "ha noi", "HA NOI" đều khớp nhau.
+ */
+public final class TextFolding {
+
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private TextFolding() {
+  }
+
+  public static String fold(String text) {
+    if (text == null || text.isEmpty()) {
+      return "";
+    }
+    String s = text.replace('đ', 'd').replace('Đ', 'D');
+    s = Normalizer.normalize(s, Normalizer.Form.NFD);
+    s = MARKS.matcher(s).replaceAll("");
+    s = NON_WORD.matcher(s.toLowerCase(Locale.ROOT)).replaceAll(" ");
+    return s.trim();
+  }
+
+  public static List<String> tokens(String text) {
+    String folded = fold(text);
+    List<String> tokens = new ArrayList<>();
+    if (folded.isEmpty()) {
+      return tokens;
+    }
+    for (String t : folded.split(" ")) {
+      if (!t.isEmpty()) {
+        tokens.add(t);
+      }
+    }
+    return tokens;
+  }
+}
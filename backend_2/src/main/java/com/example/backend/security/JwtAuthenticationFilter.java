@@ -1,7 +1,7 @@
 package com.example.backend.security;
 
+import com.example.backend.cache.VolunteerLookup;
 import com.example.backend.entity.Volunteer;
-import com.example.backend.repo.VolunteerRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -26,7 +26,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private JwtService jwtService;
 
   @Autowired
-  private VolunteerRepository volunteerRepository;
+  private VolunteerLookup volunteerLookup;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -42,7 +42,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         System.out.println("DEBUG JWT: Extracted Email: " + userEmail); 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
           UserDetails userDetails = new User(userEmail, "", Collections.emptyList());
-          Volunteer volunteerDetails = volunteerRepository.findByVolunteerEmail(userEmail).orElseThrow();
+          Volunteer volunteerDetails = volunteerLookup.findByEmail(userEmail).orElseThrow();
           if (volunteerDetails != null) {
             System.out.println("DEBUG JWT: Volunteer Entity loaded successfully: " + volunteerDetails.getVolunteerEmail()); 
 
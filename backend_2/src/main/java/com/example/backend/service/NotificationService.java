@@ -13,6 +13,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -27,14 +28,7 @@ public class NotificationService {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Notification createAndSend(String recipientEmail, String title, String body, Map<String, Object> data, String link) {
         try {
-            Notification n = new Notification();
-            n.setRecipientEmail(recipientEmail.toLowerCase());
-            n.setTitle(title);
-            n.setBody(body);
-            if (data != null) {
-                n.setDataJson(objectMapper.writeValueAsString(data));
-            }
-            n.setLink(link);
+            Notification n = draft(recipientEmail, title, body, data, link);
             repo.save(n);
 
             // Persisted to DB. We no longer push realtime via SSE.
@@ -45,6 +39,36 @@ public class NotificationService {
         }
     }
 
+    // Tạo notification chưa lưu, dùng cho createAndSendAll
+    public Notification draft(String recipientEmail, String title, String body, Map<String, Object> data, String link) {
+        Notification n = new Notification();
+        n.setRecipientEmail(recipientEmail.toLowerCase());
+        n.setTitle(title);
+        n.setBody(body);
+        if (data != null) {
+            try {
+                n.setDataJson(objectMapper.writeValueAsString(data));
+            } catch (Exception ex) {
+                logger.warn("Cannot serialize notification data for {}: {}", recipientEmail, ex.getMessage());
+            }
+        }
+        n.setLink(link);
+        return n;
+    }
+
+    // Lưu cả lô trong 1 transaction (consumer batch) thay vì 1 REQUIRES_NEW mỗi notification
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createAndSendAll(List<Notification> drafts) {
+        if (drafts == null || drafts.isEmpty()) {
+            return;
+        }
+        try {
+            repo.saveAll(drafts);
+        } catch (Exception ex) {
+            logger.error("Failed to create/send {} notifications: {}", drafts.size(), ex.getMessage());
+        }
+    }
+
     public Page<Notification> getNotifications(String recipientEmail, Pageable pageable) {
         return repo.findByRecipientEmailOrderByCreatedAtDesc(recipientEmail.toLowerCase(), pageable);
     }
@@ -0,0 +1,18 @@
+package com.example.backend.service;
+
+public interface SlotReservationService {
+
+    enum Outcome {
+        ACCEPTED,
+        REJECTED,
+        // request không còn ở trạng thái Pending (đã duyệt / từ chối / bị xóa)
+        NOT_PENDING,
+        NO_SLOTS
+    }
+
+    // PUT /volunteer-request/{id}/approve: Pending -> Accepted và giảm 1 slot của bài, cùng 1 CAS
+    Outcome approve(Long requestId, Long postId);
+
+    // PUT /volunteer-request/{id}/reject: Pending -> Rejected (CAS)
+    Outcome reject(Long requestId);
+}
@@ -1,5 +1,6 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorSlice;
 import com.example.backend.dto.VolunteerPostDto;
 import com.example.backend.entity.VolunteerPost;
 
@@ -14,6 +15,9 @@ public interface VolunteerPostService {
     // GET /need-volunteers?search=&page=&size=  (dùng cache + phân trang)
     Page<VolunteerPostDto> getAllVolunteers(String search, Pageable pageable);
 
+    // GET /need-volunteers/cursor?search=&cursor=  (keyset theo id, không COUNT)
+    CursorSlice<VolunteerPostDto> getAllVolunteers(String search, long afterId, int size);
+
     // GET /post/{id} (dùng cache)
     VolunteerPostDto getVolunteerPostDetails(Long id);
 
@@ -33,4 +37,7 @@ public interface VolunteerPostService {
     Page<VolunteerPostDto> getMyVolunteerPosts(String email, Pageable pageable);
 
     List<VolunteerPostDto> getMyVolunteerPosts(String email);
+
+    // GET /get-volunteer-post/{email}/cursor
+    CursorSlice<VolunteerPostDto> getMyVolunteerPosts(String email, long afterId, int size);
 }
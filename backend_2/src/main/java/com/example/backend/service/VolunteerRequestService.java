@@ -1,5 +1,6 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorSlice;
 import com.example.backend.dto.VolunteerRequestDto;
 import com.example.backend.entity.Volunteer;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -9,13 +10,17 @@ import org.springframework.data.domain.Pageable;
 
 public interface VolunteerRequestService {
     // POST /request-volunteer  (body: JsonNode, user: @AuthenticationPrincipal)
-    Long requestVolunteer(JsonNode body, Volunteer currentVolunteer);
+    // trả correlationId để client hỏi kết quả qua /request-volunteer/status/{id}
+    String requestVolunteer(JsonNode body, Volunteer currentVolunteer);
 
     // GET /get-volunteer-request/{email}
     Page<VolunteerRequestDto> getMyVolunteerRequests(String email, Long postId, Pageable pageable);
 
     List<VolunteerRequestDto> getMyVolunteerRequests(String email);
 
+    // GET /get-volunteer-request/{email}/cursor
+    CursorSlice<VolunteerRequestDto> getMyVolunteerRequests(String email, Long postId, long afterId, int size);
+
     // DELETE /my-volunteer-request/{id}
     void removeVolunteerRequest(Long id);
 }
\ No newline at end of file
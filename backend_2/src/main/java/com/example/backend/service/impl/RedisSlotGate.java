@@ -0,0 +1,80 @@
+package com.example.backend.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cổng giữ chỗ trước CAS MySQL cho bài đông người duyệt: số slot còn lại nằm
+ * ở "vhub::slots::{postId}", giảm bằng Lua (DECR chỉ khi > 0) nên hết slot thì
+ * các lượt duyệt còn lại bị từ chối ngay trong Redis, không xếp hàng chờ khóa
+ * dòng volunteer_post.
+ *
+ * MySQL vẫn là nguồn đúng (CAS có điều kiện noOfVolunteer > 0): Redis lệch hay
+ * mất dữ liệu chỉ làm cổng kém hiệu quả, không gây nhận quá số slot.
+ */
+@Component
+@ConditionalOnProperty(name = "app.slots.redis-gate.enabled", havingValue = "true", matchIfMissing = true)
+public class RedisSlotGate {
+
+  static final String KEY_PREFIX = "vhub::slots::";
+
+  // ARGV[1] = số slot từ DB để khởi tạo ('' = chưa đọc DB), ARGV[2] = TTL ms
+  // -1: key chưa có, cần số từ DB; 0: hết slot; 1: đã giữ 1 slot
+  private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+      "local v = redis.call('GET', KEYS[1]) "
+          + "if not v then "
+          + "  if ARGV[1] == '' then return -1 end "
+          + "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) "
+          + "  v = ARGV[1] "
+          + "end "
+          + "if tonumber(v) <= 0 then return 0 end "
+          + "redis.call('DECR', KEYS[1]) "
+          + "return 1",
+      Long.class);
+
+  private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCR', KEYS[1]) end return -1",
+      Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final Duration ttl;
+
+  public RedisSlotGate(StringRedisTemplate redisTemplate,
+                       @Value("${app.slots.redis-gate.ttl:30s}") Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.ttl = ttl;
+  }
+
+  /**
+   * @param dbSlots đọc noOfVolunteer từ DB, chỉ gọi khi key chưa có
+   * @return true nếu giữ được 1 slot
+   */
+  public boolean tryReserve(Long postId, Supplier<Integer> dbSlots) {
+    List<String> keys = List.of(KEY_PREFIX + postId);
+    String ttlMs = String.valueOf(ttl.toMillis());
+    Long result = redisTemplate.execute(RESERVE_SCRIPT, keys, "", ttlMs);
+    if (result != null && result == -1) {
+      Integer slots = dbSlots.get();
+      result = redisTemplate.execute(RESERVE_SCRIPT, keys, String.valueOf(slots != null ? slots : 0), ttlMs);
+    }
+    return result != null && result == 1;
+  }
+
+  // CAS không thành (request đã được quyết định) -> trả slot đã giữ
+  public void release(Long postId) {
+    redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + postId));
+  }
+
+  // Redis còn slot nhưng DB đã hết -> bỏ key để lần sau nạp lại từ DB
+  public void invalidate(Long postId) {
+    redisTemplate.delete(KEY_PREFIX + postId);
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.repo.VolunteerPostRepository;
+import com.example.backend.repo.VolunteerRequestRepository;
+import com.example.backend.service.SlotReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Duyệt request = 2 UPDATE có điều kiện trong 1 transaction ngắn (REQUIRES_NEW: caller có
+ * transaction thì CAS vẫn commit riêng; controller duyệt / từ chối chạy NOT_SUPPORTED nên
+ * đây là connection duy nhất lượt duyệt giữ):
+ *   1. request: status Pending -> Accepted (WHERE status = 'Pending')
+ *   2. bài: noOfVolunteer - 1 (WHERE noOfVolunteer > 0), 0 dòng -> rollback cả 2
+ * Không có bước đọc-kiểm tra-ghi, khóa dòng volunteer_post chỉ giữ tới commit
+ * ngay sau câu UPDATE. Với bài đông, {@link RedisSlotGate} chặn trước các lượt
+ * duyệt khi đã hết slot.
+ */
+@Service
+public class SlotReservationServiceImpl implements SlotReservationService {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final VolunteerRequestRepository requestRepository;
+    private final VolunteerPostRepository postRepository;
+    private final TransactionTemplate tx;
+    private final RedisSlotGate gate;
+
+    @Autowired
+    public SlotReservationServiceImpl(VolunteerRequestRepository requestRepository,
+                                      VolunteerPostRepository postRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      ObjectProvider<RedisSlotGate> gate) {
+        this(requestRepository, postRepository, transactionManager, gate.getIfAvailable());
+    }
+
+    SlotReservationServiceImpl(VolunteerRequestRepository requestRepository,
+                               VolunteerPostRepository postRepository,
+                               PlatformTransactionManager transactionManager,
+                               RedisSlotGate gate) {
+        this.requestRepository = requestRepository;
+        this.postRepository = postRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.gate = gate;
+    }
+
+    @Override
+    public Outcome approve(Long requestId, Long postId) {
+        boolean reserved = false;
+        if (gate != null) {
+            try {
+                if (!gate.tryReserve(postId, () -> postRepository.findVolunteerCount(postId))) {
+                    return Outcome.NO_SLOTS;
+                }
+                reserved = true;
+            } catch (Exception e) {
+                // Redis lỗi: chỉ dùng CAS MySQL, vẫn không nhận quá số slot
+                logger.warn("Slot gate unavailable for post {}: {}", postId, e.getMessage());
+            }
+        }
+        Outcome outcome;
+        try {
+            outcome = tx.execute(status -> {
+                if (requestRepository.markAccepted(requestId, postId) == 0) {
+                    return Outcome.NOT_PENDING;
+                }
+                if (postRepository.decrementVolunteerCount(postId) == 0) {
+                    status.setRollbackOnly();
+                    return Outcome.NO_SLOTS;
+                }
+                return Outcome.ACCEPTED;
+            });
+        } catch (RuntimeException e) {
+            if (reserved) {
+                releaseQuietly(postId);
+            }
+            throw e;
+        }
+        if (reserved && outcome == Outcome.NOT_PENDING) {
+            releaseQuietly(postId);
+        } else if (reserved && outcome == Outcome.NO_SLOTS) {
+            invalidateQuietly(postId);
+        }
+        return outcome;
+    }
+
+    @Override
+    public Outcome reject(Long requestId) {
+        Integer updated = tx.execute(status -> requestRepository.markRejected(requestId));
+        return updated != null && updated > 0 ? Outcome.REJECTED : Outcome.NOT_PENDING;
+    }
+
+    private void releaseQuietly(Long postId) {
+        try {
+            gate.release(postId);
+        } catch (Exception e) {
+            // slot bị giữ thừa tới khi key hết TTL
+            logger.warn("Failed to release slot for post {}: {}", postId, e.getMessage());
+        }
+    }
+
+    private void invalidateQuietly(Long postId) {
+        try {
+            gate.invalidate(postId);
+        } catch (Exception e) {
+            logger.warn("Failed to reset slot gate for post {}: {}", postId, e.getMessage());
+        }
+    }
+}
@@ -7,9 +7,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import com.example.backend.cache.PostCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.search.PostSearchIndex;
 import static com.example.backend.config.RedisCacheConfig.*;
+import com.example.backend.dto.CursorSlice;
+import com.example.backend.dto.PageCursor;
 import com.example.backend.dto.VolunteerPostDto;
 import java.util.stream.Collectors;
 import com.example.backend.exception.BadRequestException;
@@ -19,7 +22,10 @@ import com.example.backend.exception.DownstreamServiceException;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 @Service
@@ -31,6 +37,8 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
 
     private final VolunteerPostRepository postRepository;
     private final PostCacheEvictHelper postCacheEvictHelper;
+    private final PostSearchIndex postSearchIndex;
+    private final RequestStatusCounters requestStatusCounters;
 
     private static final String LEGACY_DEFAULT_THUMBNAIL = "https://demofree.sirv.com/nope-not-here.jpg";
     private static final Map<String, String> CATEGORY_THUMBNAILS = Map.of(
@@ -60,6 +68,12 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
         );
     }
 
+    // Thẻ bài từ projection: chỉ cần chuẩn hóa thumbnail như toDto
+    private VolunteerPostDto card(VolunteerPostDto card) {
+        card.setThumbnail(resolveThumbnail(card.getThumbnail(), card.getCategory()));
+        return card;
+    }
+
     private String resolveThumbnail(String currentThumbnail, String category) {
         if (currentThumbnail != null) {
             String trimmed = currentThumbnail.trim();
@@ -79,12 +93,10 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
     @Override
     @Retry(name = "volunteerPostService")
     @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
-    @Cacheable(cacheNames = HOME_TOP6, key = "'top6'",
-        unless = "#result == null || #result.isEmpty()")
+    @Cacheable(cacheNames = HOME_TOP6, key = "'g' + @cacheGenerations.current('postLists') + ':top6'", sync = true)
     public List<VolunteerPostDto> getLatestVolunteers() {
-        List<VolunteerPost> posts = postRepository.findTop6ByOrderByDeadlineAsc();
-        return posts.stream()
-            .map(this::toDto)
+        return postRepository.findCardsOrderByDeadline(PageRequest.of(0, 6)).stream()
+            .map(this::card)
             .collect(Collectors.toList());
     }
 
@@ -92,22 +104,62 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
     @Retry(name = "volunteerPostService")
     @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
     @Cacheable(cacheNames = POSTS,
-        key = "'q:' + (#search == null ? '' : #search.trim().toLowerCase()) + ':p:' + #pageable.pageNumber",
-        unless = "#result == null || #result.isEmpty()")
+        key = "'g' + @cacheGenerations.current('postLists') + ':q:' + (#search == null ? '' : #search.trim().toLowerCase()) + ':p:' + #pageable.pageNumber", sync = true)
     public Page<VolunteerPostDto> getAllVolunteers(String search, Pageable pageable) {
-        Page<VolunteerPost> page;
+        Page<VolunteerPostDto> page;
         if (search != null && !search.isBlank()) {
-            page = postRepository.findByPostTitleContainingIgnoreCase(search.trim(), pageable);
+            // FULLTEXT (bỏ dấu, theo độ liên quan); index chưa sẵn sàng / từ khóa quá ngắn -> LIKE
+            Page<Long> ids = postSearchIndex.search(search, pageable);
+            if (ids != null) {
+                return new PageImpl<>(cardsInOrder(ids.getContent()), pageable, ids.getTotalElements());
+            }
+            page = postRepository.findCardsByTitle(search.trim(), pageable);
         } else {
-            page = postRepository.findAll(pageable);
+            page = postRepository.findCards(pageable);
         }
-        return page.map(this::toDto);
+        return page.map(this::card);
     }
 
+    // Không cache: seek theo PK rẻ, cache theo cursor chỉ làm phình số key
     @Override
     @Retry(name = "volunteerPostService")
     @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
-    @Cacheable(cacheNames = POST_BY_ID, key = "#id", unless = "#result == null")
+    public CursorSlice<VolunteerPostDto> getAllVolunteers(String search, long afterId, int size) {
+        if (search != null && !search.isBlank()) {
+            // lấy dư 1 dòng để biết còn trang sau
+            List<Long> ids = postSearchIndex.searchAfter(search, afterId, size + 1);
+            if (ids != null) {
+                boolean hasNext = ids.size() > size;
+                List<Long> pageIds = hasNext ? ids.subList(0, size) : ids;
+                List<VolunteerPostDto> content = cardsInOrder(pageIds);
+                String next = hasNext ? PageCursor.encode(pageIds.get(pageIds.size() - 1)) : null;
+                return new CursorSlice<>(content, size, hasNext, next);
+            }
+            return CursorSlice.from(postRepository.findCardsByTitleAfter(search.trim(), afterId, PageRequest.of(0, size)),
+                VolunteerPostDto::getId, this::card);
+        }
+        return CursorSlice.from(postRepository.findCardsAfter(afterId, PageRequest.of(0, size)),
+            VolunteerPostDto::getId, this::card);
+    }
+
+    // Giữ thứ tự id (theo độ liên quan) trả về từ index tìm kiếm
+    private List<VolunteerPostDto> cardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, VolunteerPostDto> byId = postRepository.findCardsByIds(ids).stream()
+            .collect(Collectors.toMap(VolunteerPostDto::getId, p -> p));
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .map(this::card)
+            .toList();
+    }
+
+    @Override
+    @Retry(name = "volunteerPostService")
+    @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
+    @Cacheable(cacheNames = POST_BY_ID, key = "#id", sync = true)
     public VolunteerPostDto getVolunteerPostDetails(Long id) {
         return postRepository.findById(id)
             .map(this::toDto)
@@ -116,7 +168,6 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {POSTS, HOME_TOP6}, allEntries = true) // danh sách & top6 bẩn → xóa hết
     public Long addVolunteerPost(VolunteerPost post) {
         post.setId(null);
 
@@ -134,24 +185,34 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
         post.setThumbnail(resolveThumbnail(post.getThumbnail(), post.getCategory()));
 
         var saved = postRepository.saveAndFlush(post);
+        postSearchIndex.index(saved);
+        postCacheEvictHelper.evictNewPost(saved.getId());
+        // danh sách & top6 đổi cấu trúc -> sang generation mới
+        postCacheEvictHelper.bumpPostListGeneration();
         return saved.getId();
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {POSTS, HOME_TOP6}, allEntries = true)
     public int decrementVolunteerCount(Long id) {
         int n = postRepository.decrementVolunteerCount(id);
         postCacheEvictHelper.evictPostById(id);
+        // chỉ noOfVolunteer đổi -> chỉ xóa các trang đang chứa bài này
+        postCacheEvictHelper.evictListPagesContaining(id);
         return n;
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {POSTS, HOME_TOP6}, allEntries = true)
     public void updateVolunteerPost(Long id, VolunteerPost updatedData) {
         var existing = postRepository.findById(id).orElse(null);
         if (existing == null) return;
+        // Field được index tìm kiếm đổi -> kết quả tìm kiếm đổi; deadline đổi -> thứ tự top6 đổi
+        boolean membershipChanged = !Objects.equals(existing.getPostTitle(), updatedData.getPostTitle())
+            || !Objects.equals(existing.getDescription(), updatedData.getDescription())
+            || !Objects.equals(existing.getCategory(), updatedData.getCategory())
+            || !Objects.equals(existing.getLocation(), updatedData.getLocation())
+            || !Objects.equals(existing.getDeadline(), updatedData.getDeadline());
         existing.setPostTitle(updatedData.getPostTitle());
         existing.setDeadline(updatedData.getDeadline());
         existing.setLocation(updatedData.getLocation());
@@ -161,28 +222,36 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
         existing.setThumbnail(resolveThumbnail(existing.getThumbnail(), existing.getCategory()));
         // Lưu ý: orgEmail/orgName/noOfVolunteer KHÔNG cập nhật ở API này
         postRepository.save(existing);
+        postSearchIndex.index(existing);
         postCacheEvictHelper.evictPostById(id);
+        postCacheEvictHelper.evictRequestPagesForPost(id);
+        if (membershipChanged) {
+            postCacheEvictHelper.bumpPostListGeneration();
+        } else {
+            postCacheEvictHelper.evictListPagesContaining(id);
+        }
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {POSTS, HOME_TOP6}, allEntries = true)
     public void deleteVolunteerPost(Long id) {
         if (postRepository.existsById(id)) {
             postRepository.deleteById(id);
+            postSearchIndex.remove(id);
+            requestStatusCounters.forget(id);
             postCacheEvictHelper.evictPostById(id);
+            postCacheEvictHelper.evictRequestPagesForPost(id);
+            postCacheEvictHelper.bumpPostListGeneration();
         }
     }
 
     @Override
     @Retry(name = "volunteerPostService")
     @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
-    @Cacheable(cacheNames = MY_POSTS_BY_EMAIL, key = "#email",
-        unless = "#result == null || #result.isEmpty()")
+    @Cacheable(cacheNames = MY_POSTS_BY_EMAIL, key = "#email", sync = true)
     public List<VolunteerPostDto> getMyVolunteerPosts(String email) {
-        List<VolunteerPost> posts = postRepository.findByOrgEmail(email);
-        return posts.stream()
-            .map(this::toDto)
+        return postRepository.findCardsByOrgEmail(email).stream()
+            .map(this::card)
             .collect(Collectors.toList());
     }
 
@@ -190,10 +259,16 @@ public class VolunteerPostServiceImpl implements VolunteerPostService {
     @Retry(name = "volunteerPostService")
     @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
     @Cacheable(cacheNames = MY_POSTS_BY_EMAIL,
-        key = "#email + ':p:' + #pageable.pageNumber",
-        unless = "#result == null || #result.isEmpty()")
+        key = "#email + ':p:' + #pageable.pageNumber", sync = true)
     public Page<VolunteerPostDto> getMyVolunteerPosts(String email, Pageable pageable) {
-        Page<VolunteerPost> page = postRepository.findByOrgEmail(email, pageable);
-        return page.map(this::toDto);
+        return postRepository.findCardsByOrgEmail(email, pageable).map(this::card);
+    }
+
+    @Override
+    @Retry(name = "volunteerPostService")
+    @Bulkhead(name = "volunteerPostService", type = Bulkhead.Type.SEMAPHORE)
+    public CursorSlice<VolunteerPostDto> getMyVolunteerPosts(String email, long afterId, int size) {
+        return CursorSlice.from(postRepository.findCardsByOrgEmailAfter(email, afterId, PageRequest.of(0, size)),
+            VolunteerPostDto::getId, this::card);
     }
 }
@@ -1,8 +1,10 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.cache.RegistrationGuard;
+import com.example.backend.cache.RegistrationStatusStore;
+import com.example.backend.dto.CursorSlice;
 import com.example.backend.dto.VolunteerRequestDto;
 import com.example.backend.entity.Volunteer;
-import com.example.backend.entity.VolunteerRequest;
 import com.example.backend.messaging.VolunteerRequestMessage;
 import com.example.backend.messaging.VolunteerRequestPublisher;
 import com.example.backend.repo.VolunteerRequestRepository;
@@ -12,7 +14,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import com.example.backend.exception.BadRequestException;
 // ResourceNotFoundException not needed after deferring post existence check to consumer
 import io.github.resilience4j.bulkhead.annotation.Bulkhead;
@@ -33,8 +34,12 @@ public class VolunteerRequestServiceImpl implements VolunteerRequestService {
 
     private final VolunteerRequestRepository requestRepository;
     private final VolunteerRequestPublisher requestPublisher;
+    private final RegistrationGuard registrationGuard;
+    private final RegistrationStatusStore registrationStatusStore;
 
-    public Long requestVolunteer(JsonNode body, Volunteer currentVolunteer) {
+    @Transactional
+    // message được ghi vào outbox trong transaction này, relay gửi sang RabbitMQ sau commit
+    public String requestVolunteer(JsonNode body, Volunteer currentVolunteer) {
         if (currentVolunteer == null) {
             throw new IllegalStateException("Unauthorized: missing volunteer principal");
         }
@@ -52,15 +57,21 @@ public class VolunteerRequestServiceImpl implements VolunteerRequestService {
             throw new BadRequestException("'volunteerPost.id' must be a positive number");
         }
         
+        // trùng (double-click, retry, đã đăng ký) -> 409 ở đây, không ghi outbox
+        registrationGuard.claim(currentVolunteer.getVolunteerEmail(), postId);
+
         String idempotentKey = currentVolunteer.getVolunteerEmail() + ":" + postId;
+        String correlationId = java.util.UUID.randomUUID().toString();
         VolunteerRequestMessage msg = new VolunteerRequestMessage(postId,
             currentVolunteer.getVolunteerEmail(),
             suggestion,
             java.time.Instant.now(),
-            idempotentKey);
+            idempotentKey,
+            correlationId);
         requestPublisher.publish(msg);
+        registrationStatusStore.queued(correlationId, currentVolunteer.getVolunteerEmail(), postId);
 
-        return -1L;
+        return correlationId;
     }
 
     @Override
@@ -69,7 +80,7 @@ public class VolunteerRequestServiceImpl implements VolunteerRequestService {
     @Cacheable(
         cacheNames = MY_REQUESTS_BY_EMAIL,
         key = "#email.toLowerCase() + ':' + (#postId != null ? #postId : 'all') + ':p:' + #pageable.pageNumber",
-        unless = "#result == null || #result.isEmpty()"
+        sync = true
     )
     public Page<VolunteerRequestDto> getMyVolunteerRequests(String email, Long postId, Pageable pageable) {
         if (email == null || email.isBlank()) {
@@ -77,41 +88,34 @@ public class VolunteerRequestServiceImpl implements VolunteerRequestService {
         }
 
         Pageable effective = pageable != null ? pageable : PageRequest.of(0, 10);
-        Page<VolunteerRequest> requests = (postId != null)
-            ? requestRepository.findByVolunteerVolunteerEmailAndVolunteerPostId(email, postId, effective)
-            : requestRepository.findByVolunteerVolunteerEmail(email, effective);
-
-        return requests.map(this::toDto);
+        // projection: request + post trong 1 SELECT (cộng COUNT), không lazy-load từng dòng
+        return (postId != null)
+            ? requestRepository.findRowsByVolunteerEmailAndPostId(email, postId, effective)
+            : requestRepository.findRowsByVolunteerEmail(email, effective);
     }
 
     @Deprecated
     public List<VolunteerRequestDto> getMyVolunteerRequests(String email) {
-        return requestRepository.findByVolunteerVolunteerEmail(email).stream()
-            .map(this::toDto)
-            .toList();
+        return requestRepository.findRowsByVolunteerEmail(email);
     }
 
-    private VolunteerRequestDto toDto(VolunteerRequest request) {
-        var dto = new VolunteerRequestDto();
-        var post = request.getVolunteerPost();
-        var volunteer = request.getVolunteer();
-        dto.setId(request.getId());
-        dto.setPostId(post != null ? post.getId() : null);
-        dto.setStatus(request.getStatus());
-        dto.setVolunteerEmail(volunteer != null ? volunteer.getVolunteerEmail() : null);
-        if (post != null) {
-            dto.setPostTitle(post.getPostTitle());
-            dto.setOrgEmail(post.getOrgEmail());
-            dto.setDeadline(post.getDeadline() != null ? post.getDeadline().toString() : null);
-            dto.setLocation(post.getLocation());
-            dto.setCategory(post.getCategory());
+    @Override
+    @Retry(name = "volunteerRequestService")
+    @Bulkhead(name = "volunteerRequestService", type = Bulkhead.Type.SEMAPHORE)
+    public CursorSlice<VolunteerRequestDto> getMyVolunteerRequests(String email, Long postId, long afterId, int size) {
+        if (email == null || email.isBlank()) {
+            return new CursorSlice<>(List.of(), size, false, null);
         }
-        return dto;
+        Pageable limit = PageRequest.of(0, size);
+        var slice = (postId != null)
+            ? requestRepository.findRowsByVolunteerEmailAndPostIdAfter(email, postId, afterId, limit)
+            : requestRepository.findRowsByVolunteerEmailAfter(email, afterId, limit);
+        return CursorSlice.from(slice, VolunteerRequestDto::getId);
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = MY_REQUESTS_BY_EMAIL, allEntries = true) // cache eviction will also be handled in consumer
+    // cache eviction for the owner's pages is handled in the consumer after the delete commits
     public void removeVolunteerRequest(Long id) {
         if (id == null || id <= 0) {
             return;
@@ -0,0 +1,43 @@
+package com.example.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Không có âm tính giả; tỉ lệ dương tính giả ở đúng số phần tử dự kiến nằm quanh fpp cấu hình.
+ */
+class BloomFilterTest {
+
+  private static final int INSERTIONS = 50_000;
+  private static final int PROBES = 200_000;
+
+  @Test
+  void neverReportsInsertedKeyAsMissing() {
+    BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+    for (int i = 0; i < INSERTIONS; i++) {
+      filter.put(RegistrationGuard.key("vol" + i + "@example.com", i));
+    }
+    for (int i = 0; i < INSERTIONS; i++) {
+      assertTrue(filter.mightContain(RegistrationGuard.key("vol" + i + "@example.com", i)));
+    }
+  }
+
+  @Test
+  void falsePositiveRateStaysNearConfiguredRate() {
+    for (double fpp : new double[]{0.01, 0.001}) {
+      BloomFilter filter = new BloomFilter(INSERTIONS, fpp);
+      for (int i = 0; i < INSERTIONS; i++) {
+        filter.put(RegistrationGuard.key("vol" + i + "@example.com", i));
+      }
+      int falsePositives = 0;
+      for (int i = 0; i < PROBES; i++) {
+        if (filter.mightContain(RegistrationGuard.key("other" + i + "@example.com", i))) {
+          falsePositives++;
+        }
+      }
+      double rate = (double) falsePositives / PROBES;
+      assertTrue(rate <= fpp * 1.5, "fpp=" + fpp + " measured " + rate);
+    }
+  }
+}
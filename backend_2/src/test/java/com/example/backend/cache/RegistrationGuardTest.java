@@ -0,0 +1,105 @@
+package com.example.backend.cache;
+
+import com.example.backend.exception.DuplicateRegistrationException;
+import com.example.backend.repo.VolunteerRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chỗ giữ Redis của RegistrationGuard: nhả khi transaction của caller rollback hoặc kiểm tra DB lỗi,
+ * giữ nguyên khi commit.
+ */
+class RegistrationGuardTest {
+
+  private static final String KEY = RegistrationGuard.KEY_PREFIX + "a@example.com:7";
+
+  private StringRedisTemplate redis;
+  private VolunteerRequestRepository requestRepository;
+  private RegistrationGuard guard;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redis = mock(StringRedisTemplate.class);
+    ValueOperations<String, String> values = mock(ValueOperations.class);
+    when(redis.opsForValue()).thenReturn(values);
+    when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    requestRepository = mock(VolunteerRequestRepository.class);
+    // Bloom chưa nạp -> mọi lần claim đều kiểm tra DB
+    guard = new RegistrationGuard(redis, requestRepository, null, Duration.ofDays(1), 1_000, 0.01);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  void rollbackReleasesClaim() {
+    guard.claim("A@example.com", 7);
+
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    verify(redis).delete(KEY);
+  }
+
+  @Test
+  void commitKeepsClaim() {
+    guard.claim("a@example.com", 7);
+
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    verify(redis, never()).delete(anyString());
+  }
+
+  @Test
+  void failedDbCheckReleasesClaimImmediately() {
+    when(requestRepository.existsRegistration("a@example.com", 7L)).thenThrow(new IllegalStateException("db down"));
+
+    assertThrows(IllegalStateException.class, () -> guard.claim("a@example.com", 7));
+
+    verify(redis).delete(KEY);
+    assertNoSynchronizations();
+  }
+
+  @Test
+  void existingRowKeepsClaimSoNextAttemptSkipsDb() {
+    when(requestRepository.existsRegistration("a@example.com", 7L)).thenReturn(true);
+
+    assertThrows(DuplicateRegistrationException.class, () -> guard.claim("a@example.com", 7));
+
+    verify(redis, never()).delete(eq(KEY));
+    assertNoSynchronizations();
+  }
+
+  private static void complete(int status) {
+    List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    for (TransactionSynchronization s : synchronizations) {
+      s.afterCompletion(status);
+    }
+  }
+
+  private static void assertNoSynchronizations() {
+    if (!TransactionSynchronizationManager.getSynchronizations().isEmpty()) {
+      throw new AssertionError("claim registered a rollback hook although it did not keep the key");
+    }
+  }
+}
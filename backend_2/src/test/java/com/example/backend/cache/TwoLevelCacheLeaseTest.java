@@ -0,0 +1,120 @@
+package com.example.backend.cache;
+
+import com.example.backend.config.AppCacheProperties;
+import com.example.backend.dto.VolunteerPostDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 2 replica (2 TwoLevelCache) dùng chung L2 và load lease: replica thua lease chờ giá trị
+ * replica kia ghi vào L2 và phải nhận giá trị đã bóc (không phải StampedValue / NegativeEntry).
+ */
+class TwoLevelCacheLeaseTest {
+
+  // Lease trong bộ nhớ thay cho SET NX Redis
+  private static final class InMemoryLease extends CacheLoadLease {
+    private final Map<String, String> held = new ConcurrentHashMap<>();
+
+    InMemoryLease() {
+      super(null);
+    }
+
+    @Override
+    public String tryAcquire(String cacheName, Object key, Duration leaseTime) {
+      String token = cacheName + "::" + key + "::" + System.nanoTime();
+      return held.putIfAbsent(cacheName + "::" + key, token) == null ? token : null;
+    }
+
+    @Override
+    public void release(String cacheName, Object key, String token) {
+      held.remove(cacheName + "::" + key, token);
+    }
+  }
+
+  private static AppCacheProperties.Spec spec(Duration softTtl, Duration negativeTtl) {
+    AppCacheProperties.Spec spec = new AppCacheProperties.Spec();
+    spec.setTtl(Duration.ofMinutes(5));
+    spec.setLoadLease(Duration.ofSeconds(3));
+    spec.setSoftTtl(softTtl);
+    spec.setNegativeTtl(negativeTtl);
+    return spec;
+  }
+
+  private static TwoLevelCache replica(Cache l2, AppCacheProperties.Spec spec, CacheLoadLease lease) {
+    // refresh nền không chạy trong test
+    return new TwoLevelCache("posts", l2, spec, null, null, null, lease, task -> { },
+        new CacheMetrics("posts", new SimpleMeterRegistry()));
+  }
+
+  private static VolunteerPostDto post(long id) {
+    VolunteerPostDto dto = new VolunteerPostDto();
+    dto.setId(id);
+    dto.setPostTitle("Post " + id);
+    return dto;
+  }
+
+  /** Replica A giữ lease và load chậm; trả về kết quả của replica B (thua lease) và số lần B gọi loader. */
+  private static Object[] raceForLease(AppCacheProperties.Spec spec, Object loadedValue) throws Exception {
+    Cache l2 = new ConcurrentMapCache("posts", false);
+    CacheLoadLease lease = new InMemoryLease();
+    TwoLevelCache a = replica(l2, spec, lease);
+    TwoLevelCache b = replica(l2, spec, lease);
+    CountDownLatch aLoading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger bLoads = new AtomicInteger();
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Object> fa = pool.submit(() -> a.get("42", () -> {
+        aLoading.countDown();
+        release.await(5, TimeUnit.SECONDS);
+        return loadedValue;
+      }));
+      assertTrue(aLoading.await(5, TimeUnit.SECONDS));
+      Future<Object> fb = pool.submit(() -> b.get("42", () -> {
+        bLoads.incrementAndGet();
+        return loadedValue;
+      }));
+      Thread.sleep(100); // B đang chờ trong vòng poll L2
+      release.countDown();
+      fa.get(5, TimeUnit.SECONDS);
+      return new Object[]{fb.get(5, TimeUnit.SECONDS), bLoads.get()};
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void leaseWaiterUnwrapsStampedValue() throws Exception {
+    VolunteerPostDto value = post(42);
+    Object[] result = raceForLease(spec(Duration.ofSeconds(50), Duration.ZERO), value);
+
+    assertSame(value, result[0]);
+    assertEquals(0, result[1], "waiter must reuse the value loaded by the lease holder");
+  }
+
+  @Test
+  void leaseWaiterSeesNegativeEntryAsNull() throws Exception {
+    Object[] result = raceForLease(spec(Duration.ZERO, Duration.ofSeconds(30)), null);
+
+    assertNull(result[0]);
+    assertEquals(0, result[1], "waiter must reuse the negative entry instead of querying the DB");
+  }
+}
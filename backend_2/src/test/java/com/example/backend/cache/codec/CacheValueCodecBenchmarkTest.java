@@ -0,0 +1,176 @@
+package com.example.backend.cache.codec;
+
+import com.example.backend.cache.StampedValue;
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.dto.VolunteerRequestDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh codec mới với JdkSerializationRedisSerializer: bytes / entry và thời gian encode/decode.
+ * Benchmark chỉ chạy khi bật: mvn -Dtest=CacheValueCodecBenchmarkTest -Dbench.codec=true test
+ * (kết quả in ra stdout); mvn test thường chỉ chạy kiểm tra round-trip.
+ */
+class CacheValueCodecBenchmarkTest {
+
+  private static final int ITERATIONS = 20_000;
+
+  private static final String[] CATEGORIES = {"healthcare", "education", "environmental"};
+
+  private static VolunteerPostDto post(long id) {
+    String category = CATEGORIES[(int) (id % CATEGORIES.length)];
+    return new VolunteerPostDto(id,
+        "Tình nguyện dọn rác bãi biển #" + id,
+        category,
+        LocalDate.of(2025, 12, 1).plusDays(id % 30),
+        "Hà Nội",
+        "Cùng chung tay làm sạch bãi biển, hỗ trợ cộng đồng địa phương. ".repeat(6),
+        "https://files.catbox.moe/chl5ml.png",
+        (int) (id % 50),
+        "Green Hanoi",
+        "org" + (id % 3) + "@example.com");
+  }
+
+  private static VolunteerRequestDto request(long id) {
+    VolunteerRequestDto dto = new VolunteerRequestDto();
+    dto.setId(id);
+    dto.setPostId(id % 7);
+    dto.setPostTitle("Tình nguyện dọn rác bãi biển #" + (id % 7));
+    dto.setOrgEmail("org@example.com");
+    dto.setDeadline("2025-12-01");
+    dto.setLocation("Hà Nội");
+    dto.setCategory("environmental");
+    dto.setStatus("Pending");
+    dto.setVolunteerEmail("user@example.com");
+    return dto;
+  }
+
+  private static Page<VolunteerPostDto> postPage() {
+    List<VolunteerPostDto> content = new ArrayList<>();
+    for (long i = 1; i <= 15; i++) {
+      content.add(post(i));
+    }
+    return new PageImpl<>(content, PageRequest.of(2, 15), 1_000);
+  }
+
+  private static Page<VolunteerRequestDto> requestPage() {
+    List<VolunteerRequestDto> content = new ArrayList<>();
+    for (long i = 1; i <= 10; i++) {
+      content.add(request(i));
+    }
+    return new PageImpl<>(content, PageRequest.of(0, 10), 42);
+  }
+
+  @Test
+  void binaryCodecRoundTripsDtosAndPages() {
+    RedisSerializer<Object> serializer = new CodecRedisSerializer(new BinaryCacheValueCodec(), 512);
+
+    VolunteerPostDto original = post(7);
+    VolunteerPostDto decoded = (VolunteerPostDto) serializer.deserialize(serializer.serialize(original));
+    assertPostEquals(original, decoded);
+
+    Page<VolunteerPostDto> page = postPage();
+    @SuppressWarnings("unchecked")
+    Page<VolunteerPostDto> decodedPage = (Page<VolunteerPostDto>) serializer.deserialize(serializer.serialize(page));
+    assertEquals(page.getNumber(), decodedPage.getNumber());
+    assertEquals(page.getSize(), decodedPage.getSize());
+    assertEquals(page.getTotalElements(), decodedPage.getTotalElements());
+    assertEquals(page.getNumberOfElements(), decodedPage.getNumberOfElements());
+    for (int i = 0; i < page.getNumberOfElements(); i++) {
+      assertPostEquals(page.getContent().get(i), decodedPage.getContent().get(i));
+    }
+
+    Page<VolunteerRequestDto> requests = requestPage();
+    Object decodedRequests = serializer.deserialize(serializer.serialize(requests));
+    assertEquals(requests.getContent(), ((Page<?>) decodedRequests).getContent());
+
+    // Value refresh-ahead giữ nguyên timestamp và thời gian tính toán
+    StampedValue stamped = new StampedValue(page, 1_700_000_000_000L, 35);
+    StampedValue decodedStamped = (StampedValue) serializer.deserialize(serializer.serialize(stamped));
+    assertEquals(stamped.getWrittenAt(), decodedStamped.getWrittenAt());
+    assertEquals(stamped.getComputeMillis(), decodedStamped.getComputeMillis());
+    assertEquals(page.getTotalElements(), ((Page<?>) decodedStamped.getValue()).getTotalElements());
+
+    // Entry cũ ghi bằng JDK serializer vẫn đọc được sau khi đổi codec
+    byte[] legacy = new JdkSerializationRedisSerializer().serialize(original);
+    assertPostEquals(original, (VolunteerPostDto) serializer.deserialize(legacy));
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "bench.codec", matches = "true")
+  void benchmarkAgainstJdkSerializer() {
+    RedisSerializer<Object> jdk = new JdkSerializationRedisSerializer();
+    RedisSerializer<Object> binary = new CodecRedisSerializer(new BinaryCacheValueCodec(), 0);
+    RedisSerializer<Object> binaryLz4 = new CodecRedisSerializer(new BinaryCacheValueCodec(), 512);
+
+    Object[][] samples = {
+        {"VolunteerPostDto", post(1)},
+        {"Page<VolunteerPostDto>(15)", postPage()},
+        {"Page<VolunteerRequestDto>(10)", requestPage()},
+    };
+
+    System.out.printf("%-30s %-12s %10s %12s %12s%n", "value", "codec", "bytes", "encode(us)", "decode(us)");
+    for (Object[] sample : samples) {
+      String label = (String) sample[0];
+      Object value = sample[1];
+      Result j = measure(jdk, value);
+      Result b = measure(binary, value);
+      Result bz = measure(binaryLz4, value);
+      print(label, "jdk", j);
+      print(label, "binary", b);
+      print(label, "binary+lz4", bz);
+      assertTrue(b.bytes < j.bytes, label + ": binary should be smaller than JDK serialization");
+      assertTrue(bz.bytes <= b.bytes + 1, label + ": compression must never grow the value");
+    }
+  }
+
+  private static void print(String label, String codec, Result r) {
+    System.out.printf("%-30s %-12s %10d %12.2f %12.2f%n", label, codec, r.bytes, r.encodeMicros, r.decodeMicros);
+  }
+
+  private static Result measure(RedisSerializer<Object> serializer, Object value) {
+    byte[] bytes = serializer.serialize(value);
+    // warm-up JIT
+    for (int i = 0; i < ITERATIONS / 4; i++) {
+      serializer.deserialize(serializer.serialize(value));
+    }
+    long t0 = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      bytes = serializer.serialize(value);
+    }
+    long t1 = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      serializer.deserialize(bytes);
+    }
+    long t2 = System.nanoTime();
+    return new Result(bytes.length, (t1 - t0) / 1000.0 / ITERATIONS, (t2 - t1) / 1000.0 / ITERATIONS);
+  }
+
+  private record Result(int bytes, double encodeMicros, double decodeMicros) {
+  }
+
+  private static void assertPostEquals(VolunteerPostDto expected, VolunteerPostDto actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getPostTitle(), actual.getPostTitle());
+    assertEquals(expected.getCategory(), actual.getCategory());
+    assertEquals(expected.getDeadline(), actual.getDeadline());
+    assertEquals(expected.getLocation(), actual.getLocation());
+    assertEquals(expected.getDescription(), actual.getDescription());
+    assertEquals(expected.getThumbnail(), actual.getThumbnail());
+    assertEquals(expected.getNoOfVolunteer(), actual.getNoOfVolunteer());
+    assertEquals(expected.getOrgName(), actual.getOrgName());
+    assertEquals(expected.getOrgEmail(), actual.getOrgEmail());
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.backend.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Chuẩn hóa nguyên nhân để gom nhóm: bỏ stack trace, số -> "#", header broker làm dự phòng, cắt độ dài.
+ */
+class DlqRedriverCauseTest {
+
+  @Test
+  void failureCauseHeaderIsNormalised() {
+    Message m = message(Map.of(RabbitConfig.FAILURE_CAUSE_HEADER,
+        "DataIntegrityViolationException: post 123 missing (code 1452)\n\tat com.example.Foo.bar(Foo.java:42)"));
+
+    assertEquals("DataIntegrityViolationException: post # missing (code #)", DlqRedriver.causeOf(m));
+  }
+
+  @Test
+  void messagesDifferingOnlyInIdsGroupTogether() {
+    assertEquals(
+        DlqRedriver.causeOf(message(Map.of(RabbitConfig.FAILURE_CAUSE_HEADER, "Timeout after 5000 ms on request 17"))),
+        DlqRedriver.causeOf(message(Map.of(RabbitConfig.FAILURE_CAUSE_HEADER, "Timeout after 30000 ms on request 9"))));
+  }
+
+  @Test
+  void fallsBackToBrokerDeathReason() {
+    assertEquals("broker: expired", DlqRedriver.causeOf(message(Map.of("x-first-death-reason", "expired"))));
+    assertEquals("unknown", DlqRedriver.causeOf(message(Map.of())));
+  }
+
+  @Test
+  void longCauseIsTruncated() {
+    Message m = message(Map.of(RabbitConfig.FAILURE_CAUSE_HEADER, "x".repeat(1_000)));
+
+    assertEquals(200, DlqRedriver.causeOf(m).length());
+  }
+
+  private static Message message(Map<String, Object> headers) {
+    MessageProperties props = new MessageProperties();
+    headers.forEach(props::setHeader);
+    return new Message(new byte[0], props);
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.backend.messaging;
+
+import com.example.backend.entity.OutboxEvent;
+import com.example.backend.entity.OutboxRelayState;
+import com.example.backend.exception.PublishBackpressureException;
+import com.example.backend.repo.OutboxEventRepository;
+import com.example.backend.repo.OutboxRelayStateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replica không giữ lease relay (replica khác đang relay) vẫn phải thấy backlog
+ * và trả 503 khi vượt max-backlog, thay vì tiếp tục ghi outbox lúc broker down.
+ */
+class OutboxBackpressureTest {
+
+  private static final long MAX_BACKLOG = 50_000;
+
+  private OutboxEventRepository outboxRepository;
+  private RabbitTemplate template;
+  private OutboxRelay relay;
+  private OutboxWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository = mock(OutboxEventRepository.class);
+    OutboxRelayStateRepository stateRepository = mock(OutboxRelayStateRepository.class);
+    // lease đang thuộc replica khác
+    when(stateRepository.claimLease(anyString(), anyString(), any(), any())).thenReturn(0);
+    when(stateRepository.existsById(OutboxRelay.RELAY_NAME)).thenReturn(true);
+    OutboxRelayState state = new OutboxRelayState();
+    state.setName(OutboxRelay.RELAY_NAME);
+    state.setLastId(1_000L);
+    when(stateRepository.findById(OutboxRelay.RELAY_NAME)).thenReturn(Optional.of(state));
+    template = mock(RabbitTemplate.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    relay = new OutboxRelay(outboxRepository, stateRepository, template, mock(PlatformTransactionManager.class),
+        registry, 200, 20, Duration.ofSeconds(5), Duration.ofSeconds(30));
+    writer = new OutboxWriter(outboxRepository, new Jackson2JsonMessageConverter(), relay, registry, MAX_BACKLOG);
+  }
+
+  @Test
+  void nonLeaderRefusesWritesOverMaxBacklog() {
+    when(outboxRepository.count()).thenReturn(MAX_BACKLOG + 1);
+
+    relay.relay();
+    relay.refreshBacklog();
+
+    verifyNoInteractions(template);
+    assertEquals(MAX_BACKLOG + 1, relay.backlog());
+    assertThrows(PublishBackpressureException.class, () -> writer.append(
+        RabbitConfig.EXCHANGE, RabbitConfig.ROUTING_KEY, message()));
+    verify(outboxRepository, never()).save(any(OutboxEvent.class));
+  }
+
+  @Test
+  void nonLeaderAcceptsWritesOnceBacklogDrains() {
+    when(outboxRepository.count()).thenReturn(MAX_BACKLOG + 1, 10L);
+
+    relay.refreshBacklog();
+    relay.refreshBacklog();
+
+    assertEquals(10, relay.backlog());
+    writer.append(RabbitConfig.EXCHANGE, RabbitConfig.ROUTING_KEY, message());
+    verify(outboxRepository).save(any(OutboxEvent.class));
+  }
+
+  private static VolunteerRequestMessage message() {
+    return new VolunteerRequestMessage(7L, "a@example.com", "hi", Instant.now(), "a@example.com:7", "c1");
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.backend.messaging;
+
+import com.example.backend.cache.RegistrationGuard;
+import com.example.backend.cache.RegistrationStatusStore;
+import com.example.backend.cache.RegistrationStatusStore.Outcome;
+import com.example.backend.cache.RegistrationStatusStore.Receipt;
+import com.example.backend.cache.RegistrationStatusStore.Status;
+import com.example.backend.cache.RequestCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.cache.VolunteerRegistrations;
+import com.example.backend.entity.Volunteer;
+import com.example.backend.entity.VolunteerPost;
+import com.example.backend.repo.VolunteerPostRepository;
+import com.example.backend.repo.VolunteerRepository;
+import com.example.backend.repo.VolunteerRequestRepository;
+import com.example.backend.service.NotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Giao lại cùng 1 message đăng ký (at-least-once): lần 2 writer thấy dòng vừa tạo và báo
+ * DUPLICATE, nhưng receipt của correlationId đó phải giữ CREATED kèm requestId.
+ *
+ * Cần Redis thật (script Lua):
+ *   mvn test -Dtest=RegistrationRedeliveryTest -Dbench.redis.host=localhost
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:redelivery;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "bench.redis.host", matches = ".+")
+class RegistrationRedeliveryTest {
+
+  private static final String EMAIL = "a@example.com";
+
+  @Autowired
+  private VolunteerPostRepository postRepository;
+  @Autowired
+  private VolunteerRepository volunteerRepository;
+  @Autowired
+  private VolunteerRequestRepository requestRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private LettuceConnectionFactory factory;
+  private StringRedisTemplate redis;
+  private RegistrationStatusStore store;
+  private VolunteerRequestConsumer consumer;
+  private final Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+  private Long postId;
+  private String correlationId;
+
+  @BeforeEach
+  void setUp() {
+    factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+        System.getProperty("bench.redis.host"), Integer.getInteger("bench.redis.port", 6379)));
+    factory.afterPropertiesSet();
+    redis = new StringRedisTemplate(factory);
+    store = new RegistrationStatusStore(redis, "vhub:regstatus:test", Duration.ofMinutes(1));
+    correlationId = UUID.randomUUID().toString();
+
+    requestRepository.deleteAll();
+    VolunteerPost post = new VolunteerPost();
+    post.setPostTitle("Beach cleanup");
+    post.setOrgEmail("org@example.com");
+    post.setNoOfVolunteer(10);
+    postId = postRepository.save(post).getId();
+    Volunteer volunteer = new Volunteer();
+    volunteer.setVolunteerEmail(EMAIL);
+    volunteerRepository.save(volunteer);
+
+    // chỉ DB (H2) và RegistrationStatusStore (Redis) là thật
+    VolunteerRequestBatchWriter writer = new VolunteerRequestBatchWriter(postRepository, volunteerRepository,
+        requestRepository, jdbcTemplate, mock(RequestStatusCounters.class), mock(VolunteerRegistrations.class),
+        mock(RequestCacheEvictHelper.class));
+    consumer = new VolunteerRequestConsumer(postRepository, requestRepository, writer,
+        mock(RequestCacheEvictHelper.class), mock(RequestStatusCounters.class), mock(NotificationService.class),
+        mock(RabbitTemplate.class), converter, new RequestPartitions(4, 0), mock(RegistrationGuard.class),
+        store, mock(VolunteerRegistrations.class), new ConsumerHealth(new SimpleMeterRegistry()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    redis.delete("vhub::regstatus::" + correlationId);
+    factory.destroy();
+  }
+
+  @Test
+  void redeliveredMessageKeepsCreatedReceipt() {
+    store.queued(correlationId, EMAIL, postId);
+    Message raw = converter.toMessage(
+        new VolunteerRequestMessage(postId, EMAIL, "hi", Instant.now(), EMAIL + ":" + postId, correlationId),
+        new MessageProperties());
+
+    consumer.handleVolunteerRequests(List.of(raw));
+    Receipt first = store.find(correlationId, EMAIL).orElseThrow();
+    assertEquals(Status.CREATED, first.status());
+    assertNotNull(first.requestId());
+
+    // outbox gửi lại sau khi mất confirm / broker giao lại sau khi consumer chết trước ack
+    consumer.handleVolunteerRequests(List.of(raw));
+    Receipt second = store.find(correlationId, EMAIL).orElseThrow();
+    assertEquals(Status.CREATED, second.status());
+    assertEquals(first.requestId(), second.requestId());
+    assertEquals(1, requestRepository.count());
+  }
+
+  @Test
+  void finalStatusIsNeverReplacedButQueuedIs() {
+    store.queued(correlationId, EMAIL, postId);
+    store.record(List.of(new Outcome(correlationId, Status.POST_MISSING, null)));
+    store.record(List.of(new Outcome(correlationId, Status.CREATED, 42L)));
+    // queued() chạy muộn (sau khi consumer đã ghi) cũng không đưa về QUEUED
+    store.queued(correlationId, EMAIL, postId);
+
+    Receipt receipt = store.find(correlationId, EMAIL).orElseThrow();
+    assertEquals(Status.POST_MISSING, receipt.status());
+    assertNull(receipt.requestId());
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.backend.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Jump hash: cùng postId luôn về cùng partition, phân bố đều, và tăng N -> N+1
+ * chỉ chuyển ~1/(N+1) số bài, toàn bộ sang partition mới.
+ */
+class RequestPartitionsTest {
+
+  private static final int KEYS = 100_000;
+
+  @Test
+  void sameKeyAlwaysMapsToSamePartition() {
+    RequestPartitions partitions = new RequestPartitions(4, 0);
+    for (long postId = 1; postId <= 1_000; postId++) {
+      int p = partitions.partitionOf(postId);
+      assertTrue(p >= 0 && p < 4);
+      assertEquals(p, partitions.partitionOf(postId));
+      assertEquals(p, RequestPartitions.jumpHash(postId, 4));
+    }
+  }
+
+  @Test
+  void keysSpreadEvenlyAcrossPartitions() {
+    int[] counts = new int[8];
+    for (long postId = 1; postId <= KEYS; postId++) {
+      counts[RequestPartitions.jumpHash(postId, 8)]++;
+    }
+    for (int c : counts) {
+      assertEquals(KEYS / 8.0, c, KEYS / 8.0 * 0.05);
+    }
+  }
+
+  @Test
+  void growingPartitionsMovesAboutOneOverNKeysOnlyToNewPartition() {
+    for (int n = 1; n <= 16; n++) {
+      int moved = 0;
+      for (long postId = 1; postId <= KEYS; postId++) {
+        int before = RequestPartitions.jumpHash(postId, n);
+        int after = RequestPartitions.jumpHash(postId, n + 1);
+        if (before != after) {
+          assertEquals(n, after, "key " + postId + " moved between old partitions");
+          moved++;
+        }
+      }
+      double expected = 1.0 / (n + 1);
+      assertEquals(expected, (double) moved / KEYS, expected * 0.1, "n=" + n);
+    }
+  }
+}
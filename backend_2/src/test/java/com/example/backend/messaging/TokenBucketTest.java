@@ -0,0 +1,48 @@
+package com.example.backend.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Burst lấy ngay, phần sau đi đúng nhịp rate (cận dưới chặt, cận trên rộng cho máy CI chậm).
+ *
+ * Cận dưới đo từ lúc tạo bucket: tới lúc lấy token thứ n đã có burst + rate * t token,
+ * nên t >= (n - burst) / rate bất kể phần nạp thêm trong lúc lấy burst.
+ */
+class TokenBucketTest {
+
+  @Test
+  void burstIsImmediateThenPacedAtRate() throws InterruptedException {
+    long created = System.nanoTime();
+    TokenBucket bucket = new TokenBucket(100, 10);
+
+    for (int i = 0; i < 10; i++) {
+      bucket.acquire();
+    }
+    long burstMillis = (System.nanoTime() - created) / 1_000_000;
+    assertTrue(burstMillis < 50, "burst took " + burstMillis + " ms");
+
+    for (int i = 0; i < 30; i++) {
+      bucket.acquire();
+    }
+    double totalMillis = (System.nanoTime() - created) / 1_000_000d;
+    // 10 token sẵn + 30 token ở 100/s = 300 ms (trừ sai số làm tròn double)
+    assertTrue(totalMillis >= 299.9, "40 tokens with burst 10 at 100/s took only " + totalMillis + " ms");
+    assertTrue(totalMillis < 1_500, "40 tokens with burst 10 at 100/s took " + totalMillis + " ms");
+  }
+
+  @Test
+  void idleTimeRefillsAtMostBurst() throws InterruptedException {
+    TokenBucket bucket = new TokenBucket(1_000, 5);
+    Thread.sleep(50); // đủ nạp 50 token nếu không chặn ở burst
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 15; i++) {
+      bucket.acquire();
+    }
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    // 5 token có sẵn, 10 token còn lại phải chờ ~10 ms
+    assertTrue(millis >= 8, "15 tokens with burst 5 took only " + millis + " ms");
+  }
+}
@@ -0,0 +1,144 @@
+package com.example.backend.messaging;
+
+import com.example.backend.cache.RequestCacheEvictHelper;
+import com.example.backend.cache.RequestStatusCounters;
+import com.example.backend.cache.VolunteerRegistrations;
+import com.example.backend.entity.Volunteer;
+import com.example.backend.entity.VolunteerPost;
+import com.example.backend.repo.VolunteerPostRepository;
+import com.example.backend.repo.VolunteerRepository;
+import com.example.backend.repo.VolunteerRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Ghi lô request đăng ký trên H2 chế độ MySQL (IGNORECASE như collation mặc định của MySQL):
+ * bỏ trùng trong lô, dòng đã có báo "đã đăng ký", bài / volunteer không tồn tại tách riêng,
+ * lỗi dữ liệu phải ném ra (không bị nuốt thành trùng).
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:batchwriter;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class VolunteerRequestBatchWriterTest {
+
+  @Autowired
+  private VolunteerPostRepository postRepository;
+  @Autowired
+  private VolunteerRepository volunteerRepository;
+  @Autowired
+  private VolunteerRequestRepository requestRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private VolunteerRequestBatchWriter writer;
+  private Long postId;
+
+  @BeforeEach
+  void setUp() {
+    requestRepository.deleteAll();
+    VolunteerPost post = new VolunteerPost();
+    post.setPostTitle("Beach cleanup");
+    post.setOrgEmail("org@example.com");
+    post.setNoOfVolunteer(10);
+    postId = postRepository.save(post).getId();
+    for (String email : List.of("a@example.com", "b@example.com", "c@example.com")) {
+      Volunteer volunteer = new Volunteer();
+      volunteer.setVolunteerEmail(email);
+      volunteerRepository.save(volunteer);
+    }
+    // bộ đếm / tập đăng ký / cache nằm trên Redis, không thuộc phạm vi test này
+    writer = new VolunteerRequestBatchWriter(postRepository, volunteerRepository, requestRepository, jdbcTemplate,
+        mock(RequestStatusCounters.class), mock(VolunteerRegistrations.class), mock(RequestCacheEvictHelper.class));
+  }
+
+  @Test
+  void batchCreatesRowsAndDedupesWithinBatch() {
+    var result = write(List.of(
+        message(postId, "a@example.com", "c1"),
+        message(postId, "B@example.com", "c2"),
+        message(postId, "A@EXAMPLE.com", "c3")));
+
+    assertEquals(List.of("c1", "c2"), result.created().stream().map(VolunteerRequestBatchWriter.Created::correlationId).toList());
+    result.created().forEach(c -> assertNotNull(c.requestId()));
+    // email ghi đúng giá trị trong bảng volunteer (FK), không phải giá trị client gửi
+    assertEquals("b@example.com", result.created().get(1).volunteerEmail());
+    assertEquals(List.of("c3"), result.duplicates().stream().map(VolunteerRequestBatchWriter.Duplicate::correlationId).toList());
+    assertEquals(2, requestRepository.count());
+  }
+
+  @Test
+  void existingRowIsReportedAsDuplicate() {
+    write(List.of(message(postId, "a@example.com", "first")));
+
+    var result = write(List.of(
+        message(postId, "a@example.com", "again"),
+        message(postId, "c@example.com", "new")));
+
+    assertEquals(List.of("new"), result.created().stream().map(VolunteerRequestBatchWriter.Created::correlationId).toList());
+    assertEquals(List.of("again"), result.duplicates().stream().map(VolunteerRequestBatchWriter.Duplicate::correlationId).toList());
+    assertEquals(2, requestRepository.count());
+  }
+
+  @Test
+  void missingPostAndVolunteerAreSeparated() {
+    var result = write(List.of(
+        message(postId + 1000, "a@example.com", "no-post"),
+        message(postId, "ghost@example.com", "no-volunteer"),
+        message(postId, "a@example.com", "ok")));
+
+    assertEquals(1, result.created().size());
+    assertEquals("no-post", result.postMissing().get(0).getCorrelationId());
+    assertEquals("no-volunteer", result.volunteerMissing().get(0).getCorrelationId());
+    assertTrue(result.duplicates().isEmpty());
+  }
+
+  @Test
+  void dataErrorFailsBatchInsteadOfBeingReportedAsDuplicate() {
+    VolunteerRequestMessage tooLong = message(postId, "a@example.com", "bad");
+    tooLong.setSuggestion("x".repeat(10_000));
+
+    assertThrows(DataAccessException.class, () -> write(List.of(message(postId, "b@example.com", "ok"), tooLong)));
+    // lô rollback toàn bộ: consumer sẽ ghi lại từng message
+    assertEquals(0, requestRepository.count());
+
+    var retry = write(List.of(message(postId, "b@example.com", "ok")));
+    assertEquals(1, retry.created().size());
+    assertTrue(retry.duplicates().isEmpty());
+  }
+
+  private VolunteerRequestBatchWriter.Result write(List<VolunteerRequestMessage> messages) {
+    return new TransactionTemplate(transactionManager).execute(status -> writer.write(messages));
+  }
+
+  private static VolunteerRequestMessage message(Long postId, String email, String correlationId) {
+    return new VolunteerRequestMessage(postId, email, "hi", Instant.now(), email + ":" + postId, correlationId);
+  }
+}
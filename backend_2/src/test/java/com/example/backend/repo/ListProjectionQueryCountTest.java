@@ -0,0 +1,140 @@
+package com.example.backend.repo;
+
+import com.example.backend.dto.VolunteerPostDto;
+import com.example.backend.dto.VolunteerRequestDto;
+import com.example.backend.entity.Volunteer;
+import com.example.backend.entity.VolunteerPost;
+import com.example.backend.entity.VolunteerRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mỗi trang danh sách = 1 SELECT projection (+ 1 COUNT với Page), không phụ thuộc số dòng.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ListProjectionQueryCountTest {
+
+  private static final String ORG = "org@example.com";
+  private static final String VOLUNTEER = "vol@example.com";
+  private static final int POSTS = 12;
+
+  @Autowired
+  private TestEntityManager em;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private VolunteerPostRepository postRepository;
+  @Autowired
+  private VolunteerRequestRepository requestRepository;
+
+  private StatementCounter statements;
+  private Long firstPostId;
+
+  @BeforeEach
+  void seed() {
+    Volunteer volunteer = new Volunteer();
+    volunteer.setVolunteerEmail(VOLUNTEER);
+    em.persist(volunteer);
+    for (int i = 0; i < POSTS; i++) {
+      VolunteerPost post = new VolunteerPost();
+      post.setPostTitle("Clean beach " + i);
+      post.setCategory("environmental");
+      post.setDeadline(LocalDate.of(2030, 1, 1).plusDays(i));
+      post.setLocation("Da Nang");
+      post.setDescription("long description ".repeat(50));
+      post.setNoOfVolunteer(5);
+      post.setOrgName("Org");
+      post.setOrgEmail(ORG);
+      em.persist(post);
+      if (firstPostId == null) {
+        firstPostId = post.getId();
+      }
+      VolunteerRequest request = new VolunteerRequest();
+      request.setVolunteerPost(post);
+      request.setVolunteer(volunteer);
+      request.setSuggestion("hi");
+      em.persist(request);
+    }
+    em.flush();
+    em.clear();
+    statements = new StatementCounter(entityManagerFactory);
+    statements.reset();
+  }
+
+  @Test
+  void postCardPagesRunOneSelectPlusCount() {
+    Page<VolunteerPostDto> page = postRepository.findCards(PageRequest.of(0, 5));
+    statements.assertStatements(2, "findCards");
+    assertEquals(POSTS, page.getTotalElements());
+    VolunteerPostDto card = page.getContent().get(0);
+    assertNotNull(card.getPostTitle());
+    assertNull(card.getDescription());
+
+    postRepository.findCardsByTitle("beach", PageRequest.of(1, 5));
+    statements.assertStatements(2, "findCardsByTitle");
+
+    postRepository.findCardsByOrgEmail(ORG, PageRequest.of(0, 5));
+    statements.assertStatements(2, "findCardsByOrgEmail(page)");
+
+    assertEquals(POSTS, postRepository.findCardsByOrgEmail(ORG).size());
+    statements.assertStatements(1, "findCardsByOrgEmail(list)");
+
+    assertEquals(6, postRepository.findCardsOrderByDeadline(PageRequest.of(0, 6)).size());
+    statements.assertStatements(1, "findCardsOrderByDeadline");
+
+    Slice<VolunteerPostDto> slice = postRepository.findCardsAfter(0L, PageRequest.of(0, 5));
+    statements.assertStatements(1, "findCardsAfter");
+    assertTrue(slice.hasNext());
+  }
+
+  @Test
+  void requestRowsCarryPostColumnsWithoutLazyLoads() {
+    Page<VolunteerRequestDto> mine = requestRepository.findRowsByVolunteerEmail(VOLUNTEER, PageRequest.of(0, 5));
+    // đọc mọi field của DTO: không được phát sinh thêm SELECT nào
+    mine.forEach(r -> {
+      assertNotNull(r.getPostTitle());
+      assertEquals(ORG, r.getOrgEmail());
+      assertEquals(VOLUNTEER, r.getVolunteerEmail());
+      assertNotNull(r.getDeadline());
+    });
+    statements.assertStatements(2, "findRowsByVolunteerEmail(page)");
+
+    assertEquals(POSTS, requestRepository.findRowsByVolunteerEmail(VOLUNTEER).size());
+    statements.assertStatements(1, "findRowsByVolunteerEmail(list)");
+
+    requestRepository.findRowsByOrgEmail(ORG, PageRequest.of(0, 5));
+    statements.assertStatements(2, "findRowsByOrgEmail");
+
+    Page<VolunteerRequestDto> forPost = requestRepository.findRowsByPostId(firstPostId, PageRequest.of(0, 10));
+    // 1 dòng < size -> Spring Data bỏ qua COUNT
+    statements.assertStatements(1, "findRowsByPostId");
+    assertEquals(firstPostId, forPost.getContent().get(0).getPostId());
+
+    requestRepository.findRowsByVolunteerEmailAndPostId(VOLUNTEER, firstPostId, PageRequest.of(0, 10));
+    statements.assertStatements(1, "findRowsByVolunteerEmailAndPostId");
+
+    Slice<VolunteerRequestDto> slice = requestRepository.findRowsByOrgEmailAfter(ORG, 0L, PageRequest.of(0, POSTS));
+    statements.assertStatements(1, "findRowsByOrgEmailAfter");
+    assertFalse(slice.hasNext());
+    assertEquals(POSTS, slice.getNumberOfElements());
+  }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.repo;
+
+import com.example.backend.entity.Volunteer;
+import com.example.backend.entity.VolunteerPost;
+import com.example.backend.entity.VolunteerRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chặn N+1: các truy vấn trả VolunteerRequest phải nạp post + volunteer trong cùng SELECT,
+ * nên đọc association của mọi dòng không phát sinh thêm câu SQL nào.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RequestFetchPlanQueryCountTest {
+
+  private static final String ORG = "org@example.com";
+  private static final int VOLUNTEERS = 8;
+  private static final int POSTS = 3;
+
+  @Autowired
+  private TestEntityManager em;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private VolunteerRequestRepository requestRepository;
+
+  private StatementCounter statements;
+  private final List<Long> postIds = new ArrayList<>();
+
+  @BeforeEach
+  void seed() {
+    for (int p = 0; p < POSTS; p++) {
+      VolunteerPost post = new VolunteerPost();
+      post.setPostTitle("Post " + p);
+      post.setDeadline(LocalDate.of(2030, 1, 1).plusDays(p));
+      post.setOrgEmail(ORG);
+      em.persist(post);
+      postIds.add(post.getId());
+    }
+    for (int v = 0; v < VOLUNTEERS; v++) {
+      Volunteer volunteer = new Volunteer();
+      volunteer.setVolunteerEmail("vol" + v + "@example.com");
+      em.persist(volunteer);
+      for (Long postId : postIds) {
+        VolunteerRequest request = new VolunteerRequest();
+        request.setVolunteerPost(em.find(VolunteerPost.class, postId));
+        request.setVolunteer(volunteer);
+        em.persist(request);
+      }
+    }
+    em.flush();
+    em.clear();
+    statements = new StatementCounter(entityManagerFactory);
+    statements.reset();
+  }
+
+  // Đọc association giống mapping DTO cũ trong controller
+  private static void touchAssociations(Iterable<VolunteerRequest> requests) {
+    for (VolunteerRequest r : requests) {
+      r.getVolunteerPost().getPostTitle();
+      r.getVolunteerPost().getDeadline();
+      r.getVolunteer().getVolunteerEmail();
+    }
+  }
+
+  @Test
+  void entityPagesLoadAssociationsInTheSameSelect() {
+    Page<VolunteerRequest> forOrg = requestRepository.findByVolunteerPostOrgEmail(ORG, PageRequest.of(0, 20));
+    touchAssociations(forOrg);
+    assertEquals(20, forOrg.getNumberOfElements());
+    statements.assertStatements(2, "findByVolunteerPostOrgEmail(page)");
+
+    Page<VolunteerRequest> forPost = requestRepository.findByVolunteerPostId(postIds.get(0), PageRequest.of(0, 5));
+    touchAssociations(forPost);
+    statements.assertStatements(2, "findByVolunteerPostId");
+
+    Page<VolunteerRequest> mine = requestRepository.findByVolunteerVolunteerEmail("vol0@example.com", PageRequest.of(0, 2));
+    touchAssociations(mine);
+    statements.assertStatements(2, "findByVolunteerVolunteerEmail(page)");
+
+    touchAssociations(requestRepository.findByVolunteerVolunteerEmail("vol1@example.com"));
+    statements.assertStatements(1, "findByVolunteerVolunteerEmail(list)");
+
+    touchAssociations(requestRepository.findByVolunteerPostOrgEmail(ORG));
+    statements.assertStatements(1, "findByVolunteerPostOrgEmail(list)");
+  }
+
+  // Duyệt / từ chối chạy ngoài transaction: mọi thứ controller cần phải có sau 1 câu SQL, không lazy-load
+  @Test
+  void decisionViewIsOneQuery() {
+    Long requestId = requestRepository.findByVolunteerVolunteerEmail("vol3@example.com").get(0).getId();
+    statements.reset();
+
+    var view = requestRepository.findDecisionView(requestId).orElseThrow();
+    statements.assertStatements(1, "findDecisionView");
+    assertEquals(requestId, view.getId());
+    assertEquals(ORG, view.getOrgEmail());
+    assertEquals("vol3@example.com", view.getVolunteerEmail());
+    assertTrue(postIds.contains(view.getPostId()));
+    assertTrue(view.getPostTitle().startsWith("Post "));
+    assertTrue(requestRepository.findDecisionView(-1L).isEmpty());
+  }
+
+  @Test
+  void pendingCountsForAllPostsIsOneQuery() {
+    var counts = requestRepository.countPendingForPosts(ORG, postIds);
+    statements.assertStatements(1, "countPendingForPosts");
+    assertEquals(POSTS, counts.size());
+    counts.forEach(row -> assertEquals(VOLUNTEERS, row.getPendingCount()));
+  }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Đếm số câu SQL Hibernate gửi xuống DB (cần hibernate.generate_statistics=true).
+ */
+final class StatementCounter {
+
+  private final Statistics statistics;
+
+  StatementCounter(EntityManagerFactory entityManagerFactory) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  void reset() {
+    statistics.clear();
+  }
+
+  long count() {
+    return statistics.getPrepareStatementCount();
+  }
+
+  void assertStatements(long expected, String what) {
+    assertEquals(expected, count(), what + ": unexpected number of SQL statements");
+    reset();
+  }
+}
@@ -0,0 +1,153 @@
+package com.example.backend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * So sánh LIKE '%term%' (truy vấn cũ) với FULLTEXT ngram trên bảng bỏ dấu.
+ *
+ * Benchmark chỉ chạy khi có MySQL riêng (tạo/xóa bảng bench_* trong schema chỉ định):
+ *   mvn test -Dtest=PostSearchBenchmarkTest \
+ *     -Dbench.mysql.url="jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true" \
+ *     -Dbench.mysql.user=root -Dbench.mysql.password= -Dbench.rows=1000000
+ */
+class PostSearchBenchmarkTest {
+
+  private static final String[] WORDS = {
+      "Tình nguyện", "dọn rác", "bãi biển", "Hà Nội", "Đà Nẵng", "trẻ em", "mùa hè xanh",
+      "hiến máu", "trồng cây", "người già", "dạy học", "vùng cao", "Sài Gòn", "cứu trợ",
+      "lũ lụt", "bệnh viện", "thư viện", "động vật", "môi trường", "bữa ăn"
+  };
+
+  @Test
+  void foldsVietnameseAndBuildsPhraseQuery() {
+    assertEquals("tinh nguyen ha noi", TextFolding.fold("Tình  Nguyện – HÀ NỘI!"));
+    assertEquals("duong pho da nang", TextFolding.fold("Đường phố Đà Nẵng"));
+    assertEquals("+\"tinh\" +\"nguy\"", PostSearchIndex.booleanQuery("tình nguy"));
+    // Toán tử boolean mode trong input bị loại bỏ
+    assertEquals("+\"abc\" +\"de\"", PostSearchIndex.booleanQuery("+abc -de*"));
+    // Chỉ có token ngắn hơn ngram_token_size -> để service dùng LIKE
+    assertNull(PostSearchIndex.booleanQuery("a"));
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "bench.mysql.url", matches = ".+")
+  void benchmarkLikeVsFullText() throws Exception {
+    int rows = Integer.getInteger("bench.rows", 1_000_000);
+    String url = System.getProperty("bench.mysql.url");
+    try (Connection c = DriverManager.getConnection(url,
+        System.getProperty("bench.mysql.user", "root"), System.getProperty("bench.mysql.password", ""))) {
+      try (Statement st = c.createStatement()) {
+        st.execute("DROP TABLE IF EXISTS bench_post");
+        st.execute("DROP TABLE IF EXISTS bench_post_search");
+        st.execute("CREATE TABLE bench_post (id BIGINT PRIMARY KEY, postTitle VARCHAR(255),"
+            + " description TEXT, INDEX idx_post_title (postTitle)) DEFAULT CHARSET=utf8mb4");
+        st.execute(PostSearchIndex.DDL.replace(PostSearchIndex.TABLE, "bench_post_search")
+            .replace("ft_post_search", "ft_bench_search"));
+      }
+      long loadStart = System.currentTimeMillis();
+      load(c, rows);
+      System.out.printf("Loaded %d posts in %d ms%n", rows, System.currentTimeMillis() - loadStart);
+
+      String[] terms = {"nguyện", "da nang", "hien mau", "thư"};
+      System.out.printf("%-12s %14s %14s %10s %10s%n", "term", "LIKE ms", "FULLTEXT ms", "LIKE n", "FT n");
+      for (String term : terms) {
+        String like = "SELECT id FROM bench_post WHERE LOWER(postTitle) LIKE ? ORDER BY id LIMIT 15";
+        String likeCount = "SELECT COUNT(*) FROM bench_post WHERE LOWER(postTitle) LIKE ?";
+        String ftSearch = PostSearchIndex.SEARCH.replace(PostSearchIndex.TABLE, "bench_post_search");
+        String ftCount = PostSearchIndex.COUNT.replace(PostSearchIndex.TABLE, "bench_post_search");
+        String pattern = "%" + term.toLowerCase() + "%";
+        String query = PostSearchIndex.booleanQuery(term);
+
+        long t0 = System.nanoTime();
+        long likeN = 0;
+        for (int i = 0; i < 5; i++) {
+          query(c, like, pattern);
+          likeN = count(c, likeCount, pattern);
+        }
+        long likeMs = (System.nanoTime() - t0) / 5_000_000;
+
+        long t1 = System.nanoTime();
+        long ftN = 0;
+        for (int i = 0; i < 5; i++) {
+          query(c, ftSearch, query, query, query, 15, 0);
+          ftN = count(c, ftCount, query);
+        }
+        long ftMs = (System.nanoTime() - t1) / 5_000_000;
+        System.out.printf("%-12s %14d %14d %10d %10d%n", term, likeMs, ftMs, likeN, ftN);
+        // FULLTEXT bỏ dấu nên phải tìm thấy ít nhất những gì LIKE có dấu tìm thấy trong title
+        assertTrue(ftN >= likeN || likeN == 0, term + ": full-text should not miss title matches");
+      }
+
+      try (Statement st = c.createStatement()) {
+        st.execute("DROP TABLE bench_post");
+        st.execute("DROP TABLE bench_post_search");
+      }
+    }
+  }
+
+  private static void load(Connection c, int rows) throws Exception {
+    Random random = new Random(42);
+    c.setAutoCommit(false);
+    try (PreparedStatement post = c.prepareStatement("INSERT INTO bench_post VALUES (?, ?, ?)");
+         PreparedStatement search = c.prepareStatement("INSERT INTO bench_post_search (post_id, title_text, body_text) VALUES (?, ?, ?)")) {
+      for (int id = 1; id <= rows; id++) {
+        String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + id;
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+            + " " + WORDS[random.nextInt(WORDS.length)];
+        post.setLong(1, id);
+        post.setString(2, title);
+        post.setString(3, description);
+        post.addBatch();
+        search.setLong(1, id);
+        search.setString(2, PostSearchIndex.titleText(title));
+        search.setString(3, PostSearchIndex.bodyText(description, null, null, null));
+        search.addBatch();
+        if (id % 5000 == 0) {
+          post.executeBatch();
+          search.executeBatch();
+          c.commit();
+        }
+      }
+      post.executeBatch();
+      search.executeBatch();
+      c.commit();
+    } finally {
+      c.setAutoCommit(true);
+    }
+  }
+
+  private static void query(Connection c, String sql, Object... args) throws Exception {
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      for (int i = 0; i < args.length; i++) {
+        ps.setObject(i + 1, args[i]);
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          rs.getLong(1);
+        }
+      }
+    }
+  }
+
+  private static long count(Connection c, String sql, Object arg) throws Exception {
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      ps.setObject(1, arg);
+      try (ResultSet rs = ps.executeQuery()) {
+        rs.next();
+        return rs.getLong(1);
+      }
+    }
+  }
+}
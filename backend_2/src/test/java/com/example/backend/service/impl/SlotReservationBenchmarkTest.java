@@ -0,0 +1,145 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.entity.Volunteer;
+import com.example.backend.entity.VolunteerPost;
+import com.example.backend.entity.VolunteerRequest;
+import com.example.backend.repo.VolunteerPostRepository;
+import com.example.backend.repo.VolunteerRepository;
+import com.example.backend.repo.VolunteerRequestRepository;
+import com.example.backend.service.SlotReservationService.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Nhiều organizer duyệt cùng lúc các request của 1 bài: số request Accepted
+ * phải đúng bằng số slot ban đầu, noOfVolunteer về 0 (không nhận quá slot).
+ *
+ * Chạy mặc định trên H2 với CAS MySQL-style; thêm cổng Redis khi có Redis riêng:
+ *   mvn test -Dtest=SlotReservationBenchmarkTest -Dbench.redis.host=localhost -Dbench.requests=5000
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:slots;LOCK_TIMEOUT=20000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "logging.level.org.hibernate.SQL=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SlotReservationBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int SLOTS = 50;
+
+  @Autowired
+  private VolunteerPostRepository postRepository;
+  @Autowired
+  private VolunteerRequestRepository requestRepository;
+  @Autowired
+  private VolunteerRepository volunteerRepository;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void concurrentApprovalsNeverOversubscribeWithDbCas() throws Exception {
+    run("db-cas", new SlotReservationServiceImpl(requestRepository, postRepository, transactionManager, (RedisSlotGate) null),
+        Integer.getInteger("bench.requests", 400));
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "bench.redis.host", matches = ".+")
+  void concurrentApprovalsNeverOversubscribeWithRedisGate() throws Exception {
+    LettuceConnectionFactory factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+        System.getProperty("bench.redis.host"), Integer.getInteger("bench.redis.port", 6379)));
+    factory.afterPropertiesSet();
+    try {
+      StringRedisTemplate redis = new StringRedisTemplate(factory);
+      RedisSlotGate gate = new RedisSlotGate(redis, Duration.ofSeconds(30));
+      run("redis-gate", new SlotReservationServiceImpl(requestRepository, postRepository, transactionManager, gate),
+          Integer.getInteger("bench.requests", 5000));
+    } finally {
+      factory.destroy();
+    }
+  }
+
+  private void run(String label, SlotReservationServiceImpl service, int requests) throws Exception {
+    VolunteerPost post = new VolunteerPost();
+    post.setPostTitle("Hot post " + label);
+    post.setOrgEmail("org@example.com");
+    post.setNoOfVolunteer(SLOTS);
+    post = postRepository.save(post);
+
+    List<Long> requestIds = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      Volunteer volunteer = new Volunteer();
+      volunteer.setVolunteerEmail(label + "-vol" + i + "@example.com");
+      volunteerRepository.save(volunteer);
+      VolunteerRequest request = new VolunteerRequest();
+      request.setVolunteerPost(post);
+      request.setVolunteer(volunteer);
+      requestIds.add(requestRepository.save(request).getId());
+    }
+
+    Long postId = post.getId();
+    ConcurrentLinkedQueue<Long> queue = new ConcurrentLinkedQueue<>(requestIds);
+    AtomicInteger accepted = new AtomicInteger();
+    AtomicInteger noSlots = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      pool.submit(() -> {
+        start.await();
+        Long id;
+        while ((id = queue.poll()) != null) {
+          Outcome outcome = service.approve(id, postId);
+          if (outcome == Outcome.ACCEPTED) {
+            accepted.incrementAndGet();
+          } else if (outcome == Outcome.NO_SLOTS) {
+            noSlots.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+    long began = System.nanoTime();
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "benchmark timed out");
+    double seconds = (System.nanoTime() - began) / 1e9;
+
+    long acceptedInDb = requestRepository.findRowsByPostId(postId, org.springframework.data.domain.PageRequest.of(0, requests))
+        .stream().filter(r -> "Accepted".equals(r.getStatus())).count();
+    System.out.printf("[%s] %d approvals on %d slots, %d threads: %.0f approvals/sec, accepted=%d, noSlots=%d%n",
+        label, requests, SLOTS, THREADS, requests / seconds, accepted.get(), noSlots.get());
+
+    assertEquals(SLOTS, accepted.get());
+    assertEquals(SLOTS, acceptedInDb);
+    assertEquals(requests - SLOTS, noSlots.get());
+    assertEquals(0, postRepository.findVolunteerCount(postId));
+  }
+}